@@ -1,8 +1,10 @@
 package com.mapbox.mapboxsdk.annotations;
 
+import com.mapbox.mapboxsdk.constants.MapboxConstants;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -10,12 +12,34 @@ import java.util.List;
  */
 public abstract class BasePointCollection extends Annotation {
 
-  private List<LatLng> points;
+  /**
+   * Value of {@link #getSimplificationZoom()} when all points are rendered.
+   */
+  public static final int NO_SIMPLIFICATION = -1;
+
+  private static final int DEFAULT_CAPACITY = 8;
+  private static final int MAXIMUM_SIMPLIFICATION_ZOOM = (int) MapboxConstants.MAXIMUM_ZOOM;
+
+  // latitude and longitude of each point packed as pairs
+  private double[] coordinates;
+  // altitude of each point, only allocated once a point with an altitude is added
+  private double[] altitudes;
+  private int pointCount;
   private float alpha = 1.0f;
 
+  private int simplificationZoom = NO_SIMPLIFICATION;
+  // squared tolerance below which each point is needed, computed once for all zoom levels
+  private double[] importance;
+  private int importanceCount;
+  // first point of each section the importance was computed for, the last point of a section starts the next
+  private int[] sectionStarts = new int[8];
+  private int sectionCount;
+  private double[] simplifiedCoordinates;
+  private int simplifiedPointCount;
+
   protected BasePointCollection() {
     super();
-    points = new ArrayList<>();
+    coordinates = new double[DEFAULT_CAPACITY * 2];
   }
 
   /**
@@ -24,7 +48,44 @@ public abstract class BasePointCollection extends Annotation {
    * @return A {@link List} of points.
    */
   public List<LatLng> getPoints() {
-    return new ArrayList<>(points);
+    List<LatLng> points = new ArrayList<>(pointCount);
+    for (int i = 0; i < pointCount; i++) {
+      points.add(getPoint(i));
+    }
+    return points;
+  }
+
+  /**
+   * Returns the amount of points, without copying them.
+   *
+   * @return the amount of points
+   */
+  public int getPointCount() {
+    return pointCount;
+  }
+
+  /**
+   * Returns a copy of the point at an index.
+   *
+   * @param index the index of the point, in the range of 0 to {@link #getPointCount()} - 1
+   * @return the point at the index
+   */
+  public LatLng getPoint(int index) {
+    if (index < 0 || index >= pointCount) {
+      throw new IndexOutOfBoundsException("Invalid point index " + index + ", point count is " + pointCount);
+    }
+    double altitude = altitudes != null ? altitudes[index] : 0;
+    return new LatLng(coordinates[index * 2], coordinates[index * 2 + 1], altitude);
+  }
+
+  /**
+   * Returns a copy of the points packed as latitude and longitude pairs, without creating a {@link LatLng} for
+   * each point.
+   *
+   * @return the packed points, twice as long as {@link #getPointCount()}
+   */
+  public double[] getPackedPoints() {
+    return Arrays.copyOf(coordinates, pointCount * 2);
   }
 
   /**
@@ -34,7 +95,16 @@ public abstract class BasePointCollection extends Annotation {
    * @param points A {@link List} of {@link LatLng} points making up the polyline.
    */
   public void setPoints(List<LatLng> points) {
-    this.points = new ArrayList<>(points);
+    pointCount = 0;
+    altitudes = null;
+    importance = null;
+    importanceCount = 0;
+    sectionCount = 0;
+    simplifiedCoordinates = null;
+    coordinates = new double[Math.max(points.size(), DEFAULT_CAPACITY) * 2];
+    for (LatLng point : points) {
+      append(point);
+    }
     update();
   }
 
@@ -44,10 +114,144 @@ public abstract class BasePointCollection extends Annotation {
    * @param point A {@link LatLng} point to be added.
    */
   public void addPoint(LatLng point) {
-    points.add(point);
+    append(point);
+    update();
+  }
+
+  /**
+   * Add multiple points to the polyline, the map is updated once for all points.
+   *
+   * @param points A {@link List} of {@link LatLng} points to be added.
+   */
+  public void addPoints(List<LatLng> points) {
+    ensureCapacity(pointCount + points.size());
+    for (LatLng point : points) {
+      append(point);
+    }
     update();
   }
 
+  /**
+   * Returns the zoom level up to which the rendered geometry is simplified.
+   *
+   * @return the zoom level or {@link #NO_SIMPLIFICATION} if all points are rendered
+   */
+  public int getSimplificationZoom() {
+    return simplificationZoom;
+  }
+
+  /**
+   * Simplifies the rendered geometry, dropping points that are not visible at or below the given zoom level.
+   * <p>
+   * Shape annotations are already simplified per zoom level when tiled, this limits the detail of the
+   * geometry that is handed to the map. Large geometries are then tiled faster and use less memory, at the
+   * cost of detail when zooming in further than the given zoom level. The points returned by
+   * {@link #getPoints()} are not affected.
+   * </p>
+   *
+   * @param zoom the zoom level up to which points are rendered, from 0 to the maximum zoom level of the map, or
+   *             {@link #NO_SIMPLIFICATION}
+   */
+  public void setSimplificationZoom(int zoom) {
+    if (zoom < NO_SIMPLIFICATION || zoom > MAXIMUM_SIMPLIFICATION_ZOOM) {
+      throw new IllegalArgumentException("Simplification zoom must be non-negative and at most "
+        + MAXIMUM_SIMPLIFICATION_ZOOM + ", or NO_SIMPLIFICATION: " + zoom);
+    }
+    simplificationZoom = zoom;
+    simplifiedCoordinates = null;
+    update();
+  }
+
+  // Called from JNI, returns the packed coordinates to render
+  double[] getRenderCoordinates() {
+    return simplify() ? simplifiedCoordinates : coordinates;
+  }
+
+  // Called from JNI, returns the amount of points to render
+  int getRenderPointCount() {
+    return simplify() ? simplifiedPointCount : pointCount;
+  }
+
+  private boolean simplify() {
+    if (simplificationZoom == NO_SIMPLIFICATION) {
+      return false;
+    }
+
+    if (importanceCount < pointCount) {
+      extendImportance();
+    }
+    if (simplifiedCoordinates == null) {
+      simplifiedCoordinates = new double[pointCount * 2];
+      simplifiedPointCount = PointSimplifier.select(coordinates, pointCount, importance,
+        PointSimplifier.getSqTolerance(simplificationZoom), simplifiedCoordinates);
+    }
+    return true;
+  }
+
+  /**
+   * Computes the importance of the points appended since it was last computed.
+   * <p>
+   * The importance is computed per section of points. Appended points form a new section, which is merged
+   * with the sections before it while those are not longer, like a binary counter. Every point is then part of
+   * O(log n) computations when a line is built point by point, and only O(log n) section boundaries are always
+   * kept in addition to the points the simplification keeps.
+   * </p>
+   */
+  private void extendImportance() {
+    if (importance == null || importance.length < pointCount) {
+      double[] grown = new double[coordinates.length / 2];
+      if (importance != null) {
+        System.arraycopy(importance, 0, grown, 0, importanceCount);
+      }
+      importance = grown;
+    }
+
+    int start = Math.max(importanceCount - 1, 0);
+    if (sectionCount == sectionStarts.length) {
+      sectionStarts = Arrays.copyOf(sectionStarts, sectionCount * 2);
+    }
+    sectionStarts[sectionCount++] = start;
+    importanceCount = pointCount;
+    PointSimplifier.computeImportance(coordinates, start, pointCount - 1, importance);
+
+    while (sectionCount > 1 && getSectionLength(sectionCount - 1) >= getSectionLength(sectionCount - 2)) {
+      sectionCount--;
+      PointSimplifier.computeImportance(coordinates, sectionStarts[sectionCount - 1], pointCount - 1, importance);
+    }
+  }
+
+  private int getSectionLength(int section) {
+    int end = section + 1 < sectionCount ? sectionStarts[section + 1] : importanceCount - 1;
+    return end - sectionStarts[section];
+  }
+
+  private void append(LatLng point) {
+    simplifiedCoordinates = null;
+    ensureCapacity(pointCount + 1);
+    coordinates[pointCount * 2] = point.getLatitude();
+    coordinates[pointCount * 2 + 1] = point.getLongitude();
+    if (point.getAltitude() != 0 && altitudes == null) {
+      altitudes = new double[coordinates.length / 2];
+    }
+    if (altitudes != null) {
+      altitudes[pointCount] = point.getAltitude();
+    }
+    pointCount++;
+  }
+
+  private void ensureCapacity(int count) {
+    int capacity = coordinates.length / 2;
+    if (count <= capacity) {
+      return;
+    }
+
+    int newCapacity = Math.max(count, capacity * 2);
+    coordinates = Arrays.copyOf(coordinates, newCapacity * 2);
+    if (altitudes != null) {
+      altitudes = Arrays.copyOf(altitudes, newCapacity);
+    }
+  }
+
   /**
    * Value between 0 and 1 defining the polyline alpha.
    *
@@ -0,0 +1,68 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+
+/**
+ * A marker representing a cluster of markers added with
+ * {@link MapboxMap#setClusteredMarkers(java.util.List, ClusterOptions)}.
+ * <p>
+ * Cluster markers are created and removed by the map while the camera changes. Clicking a cluster marker zooms
+ * the map in to where the cluster splits, unless the click is handled by a
+ * {@link MapboxMap.OnMarkerClickListener}.
+ * </p>
+ */
+public class ClusterMarker extends Marker {
+
+  private final long clusterId;
+  private final int pointCount;
+  private final int expansionZoom;
+
+  /**
+   * Do not use this constructor, used internally by the SDK.
+   *
+   * @param position      the position of the cluster
+   * @param icon          the icon of the cluster
+   * @param clusterId     the id of the cluster
+   * @param pointCount    the amount of markers in the cluster
+   * @param expansionZoom the zoom level at which the cluster splits
+   */
+  public ClusterMarker(LatLng position, Icon icon, long clusterId, int pointCount, int expansionZoom) {
+    super(position, icon, null, null);
+    this.clusterId = clusterId;
+    this.pointCount = pointCount;
+    this.expansionZoom = expansionZoom;
+  }
+
+  /**
+   * Returns the id of the cluster, stable while the clustered markers don't change.
+   *
+   * @return the cluster id
+   */
+  public long getClusterId() {
+    return clusterId;
+  }
+
+  /**
+   * Returns the amount of markers in the cluster.
+   *
+   * @return the amount of markers
+   */
+  public int getPointCount() {
+    return pointCount;
+  }
+
+  /**
+   * Returns the zoom level at which the cluster splits into smaller clusters or markers.
+   *
+   * @return the expansion zoom level
+   */
+  public int getExpansionZoom() {
+    return expansionZoom;
+  }
+
+  @Override
+  public String toString() {
+    return "ClusterMarker [position[" + getPosition() + "], pointCount[" + pointCount + "]]";
+  }
+}
@@ -0,0 +1,104 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+
+/**
+ * Builder for the options used to cluster markers with
+ * {@link MapboxMap#setClusteredMarkers(java.util.List, ClusterOptions)}.
+ * <h3>Example</h3>
+ * <pre>
+ * mapboxMap.setClusteredMarkers(markerOptionsList, new ClusterOptions()
+ *   .radius(60)
+ *   .maxZoom(14));
+ * </pre>
+ */
+public final class ClusterOptions {
+
+  private int radius = 50;
+  private int maxZoom = 16;
+  private int minPoints = 2;
+  private Icon icon;
+
+  /**
+   * Set the radius in which markers are clustered, in density independent pixels. Defaults to 50.
+   *
+   * @param radius the cluster radius
+   * @return the object for which the method was called.
+   */
+  public ClusterOptions radius(int radius) {
+    this.radius = radius;
+    return this;
+  }
+
+  /**
+   * Set the maximum zoom level at which markers are clustered, above it all markers are shown. Defaults to 16.
+   *
+   * @param maxZoom the maximum zoom level to cluster on
+   * @return the object for which the method was called.
+   */
+  public ClusterOptions maxZoom(int maxZoom) {
+    this.maxZoom = maxZoom;
+    return this;
+  }
+
+  /**
+   * Set the minimum amount of markers to form a cluster. Defaults to 2.
+   *
+   * @param minPoints the minimum amount of markers in a cluster
+   * @return the object for which the method was called.
+   */
+  public ClusterOptions minPoints(int minPoints) {
+    this.minPoints = minPoints;
+    return this;
+  }
+
+  /**
+   * Set the icon of the cluster markers, the default marker icon is used when not set.
+   *
+   * @param icon the icon of the cluster markers
+   * @return the object for which the method was called.
+   */
+  public ClusterOptions icon(@Nullable Icon icon) {
+    this.icon = icon;
+    return this;
+  }
+
+  /**
+   * Get the radius in which markers are clustered.
+   *
+   * @return the cluster radius in density independent pixels
+   */
+  public int getRadius() {
+    return radius;
+  }
+
+  /**
+   * Get the maximum zoom level at which markers are clustered.
+   *
+   * @return the maximum zoom level
+   */
+  public int getMaxZoom() {
+    return maxZoom;
+  }
+
+  /**
+   * Get the minimum amount of markers to form a cluster.
+   *
+   * @return the minimum amount of markers
+   */
+  public int getMinPoints() {
+    return minPoints;
+  }
+
+  /**
+   * Get the icon of the cluster markers.
+   *
+   * @return the icon, or null for the default marker icon
+   */
+  @Nullable
+  public Icon getIcon() {
+    return icon;
+  }
+}
@@ -0,0 +1,441 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.v4.util.LongSparseArray;
+import android.view.Choreographer;
+
+import com.google.gson.JsonObject;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.style.functions.Function;
+import com.mapbox.mapboxsdk.style.functions.stops.Stops;
+import com.mapbox.mapboxsdk.style.layers.FillLayer;
+import com.mapbox.mapboxsdk.style.layers.Layer;
+import com.mapbox.mapboxsdk.style.layers.LineLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+import com.mapbox.mapboxsdk.style.sources.Source;
+import com.mapbox.services.commons.geojson.Feature;
+import com.mapbox.services.commons.geojson.FeatureCollection;
+import com.mapbox.services.commons.geojson.Geometry;
+import com.mapbox.services.commons.geojson.LineString;
+import com.mapbox.services.commons.geojson.MultiLineString;
+import com.mapbox.services.commons.geojson.MultiPoint;
+import com.mapbox.services.commons.geojson.MultiPolygon;
+import com.mapbox.services.commons.geojson.Point;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.fillColor;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.fillOpacity;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.iconAllowOverlap;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.iconImage;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.iconSize;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineColor;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineWidth;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.textField;
+
+/**
+ * Manages annotations as features of GeoJSON sources, as an alternative to {@link Marker}, {@link Polyline} and
+ * {@link Polygon} annotations.
+ * <p>
+ * Points are shown by a {@link SymbolLayer}, lines by a {@link LineLayer} and polygons by a {@link FillLayer},
+ * each with its own {@link GeoJsonSource}. The layers are regular style layers: the appearance of all annotations
+ * is defined once with data-driven properties on the layers, instead of configuring every annotation object.
+ * By default the layers take the following feature properties into account:
+ * </p>
+ * <ul>
+ * <li>{@value #PROPERTY_ICON_IMAGE} and {@value #PROPERTY_ICON_SIZE} for points, the image needs to be added with
+ * {@link MapboxMap#addImage(String, android.graphics.Bitmap)}</li>
+ * <li>{@value #PROPERTY_TEXT} for the label of points</li>
+ * <li>{@value #PROPERTY_LINE_COLOR} and {@value #PROPERTY_LINE_WIDTH} for lines</li>
+ * <li>{@value #PROPERTY_FILL_COLOR} and {@value #PROPERTY_FILL_OPACITY} for polygons</li>
+ * </ul>
+ * <p>
+ * Each annotation gets an id, which is also used as the id of its feature. Changes are collected and the
+ * sources that changed are updated once per display frame, so adding, updating and removing many annotations
+ * in a row results in a single update of the map. A GeoJSON source can only be replaced as a whole, an update
+ * of a source therefore takes time proportional to all annotations of its kind, not only the changed ones.
+ * </p>
+ * <p>
+ * The sources and layers are added again after the map style changes, properties set on the previous layers
+ * need to be set again in that case.
+ * </p>
+ * <p>
+ * A map has at most one manager at a time, as the managers would share the same sources and layers. Call
+ * {@link #onDestroy()} before creating another manager for the same map.
+ * </p>
+ */
+@UiThread
+public final class GeoJsonAnnotationManager {
+
+  public static final String SYMBOL_LAYER_ID = "mapbox-android-annotation-symbol-layer";
+  public static final String LINE_LAYER_ID = "mapbox-android-annotation-line-layer";
+  public static final String FILL_LAYER_ID = "mapbox-android-annotation-fill-layer";
+
+  public static final String PROPERTY_ICON_IMAGE = "icon-image";
+  public static final String PROPERTY_ICON_SIZE = "icon-size";
+  public static final String PROPERTY_TEXT = "text";
+  public static final String PROPERTY_LINE_COLOR = "line-color";
+  public static final String PROPERTY_LINE_WIDTH = "line-width";
+  public static final String PROPERTY_FILL_COLOR = "fill-color";
+  public static final String PROPERTY_FILL_OPACITY = "fill-opacity";
+
+  static final String SYMBOL_SOURCE_ID = "mapbox-android-annotation-symbol-source";
+  static final String LINE_SOURCE_ID = "mapbox-android-annotation-line-source";
+  static final String FILL_SOURCE_ID = "mapbox-android-annotation-fill-source";
+
+  // Fallback frame interval where Choreographer isn't available
+  private static final long FRAME_DELAY_MILLIS = 16;
+
+  // the maps with a manager that hasn't been destroyed, only accessed on the main thread
+  private static final Set<MapboxMap> MANAGED_MAPS = Collections.newSetFromMap(new WeakHashMap<MapboxMap, Boolean>());
+
+  private final MapView mapView;
+  private final MapboxMap mapboxMap;
+
+  // fills below lines below symbols
+  private final AnnotationSource fills = new AnnotationSource(FILL_SOURCE_ID);
+  private final AnnotationSource lines = new AnnotationSource(LINE_SOURCE_ID);
+  private final AnnotationSource symbols = new AnnotationSource(SYMBOL_SOURCE_ID);
+  // the source of every annotation, to look up annotations by id
+  private final LongSparseArray<AnnotationSource> annotationSources = new LongSparseArray<>();
+  private long nextId;
+
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Runnable flushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      flush();
+    }
+  };
+  private Choreographer.FrameCallback frameCallback;
+  private boolean flushScheduled;
+  private boolean destroyed;
+
+  private final MapView.OnMapChangedListener onMapChangedListener = new MapView.OnMapChangedListener() {
+    @Override
+    public void onMapChanged(int change) {
+      if (change == MapView.DID_FINISH_LOADING_STYLE) {
+        addToStyle();
+      }
+    }
+  };
+
+  /**
+   * Creates a manager and adds its sources and layers to the map.
+   *
+   * @param mapView   the map view showing the map
+   * @param mapboxMap the map to add the annotations to
+   * @throws IllegalStateException if another manager of the map hasn't been destroyed
+   */
+  public GeoJsonAnnotationManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap) {
+    if (!MANAGED_MAPS.add(mapboxMap)) {
+      throw new IllegalStateException("The map already has a GeoJsonAnnotationManager, destroy it first");
+    }
+    this.mapView = mapView;
+    this.mapboxMap = mapboxMap;
+    addToStyle();
+    mapView.addOnMapChangedListener(onMapChangedListener);
+  }
+
+  /**
+   * Adds an annotation.
+   *
+   * @param geometry   a point, line or polygon geometry, or a multi geometry of one of those
+   * @param properties the properties of the annotation, used by data-driven properties of the layers
+   * @return the id of the annotation
+   * @throws IllegalArgumentException if the geometry type isn't supported
+   */
+  public long add(@NonNull Geometry geometry, @Nullable JsonObject properties) {
+    AnnotationSource source = sourceOf(geometry);
+    long id = nextId++;
+    source.put(id, geometry, properties);
+    annotationSources.put(id, source);
+    scheduleFlush();
+    return id;
+  }
+
+  /**
+   * Adds annotations for the geometries and properties of features, ids of the features are replaced.
+   *
+   * @param features the features to add
+   * @return the ids of the annotations, in the order of the features
+   * @throws IllegalArgumentException if the type of a geometry isn't supported
+   */
+  @NonNull
+  public long[] addAll(@NonNull List<Feature> features) {
+    long[] ids = new long[features.size()];
+    for (int i = 0; i < ids.length; i++) {
+      Feature feature = features.get(i);
+      ids[i] = add(feature.getGeometry(), feature.getProperties());
+    }
+    return ids;
+  }
+
+  /**
+   * Replaces the geometry and properties of an annotation. Nothing changes on the map if both are equal to the
+   * current ones.
+   *
+   * @param id         the id of the annotation
+   * @param geometry   the new geometry, of the same kind as the current geometry
+   * @param properties the new properties
+   * @throws IllegalArgumentException if the annotation doesn't exist or the kind of geometry changed
+   */
+  public void update(long id, @NonNull Geometry geometry, @Nullable JsonObject properties) {
+    AnnotationSource source = annotationSources.get(id);
+    if (source == null) {
+      throw new IllegalArgumentException("No annotation with id " + id);
+    }
+    if (sourceOf(geometry) != source) {
+      throw new IllegalArgumentException("The geometry of annotation " + id + " needs to be of the same kind");
+    }
+
+    Feature feature = source.features.get(id);
+    if (geometry.equals(feature.getGeometry()) && equals(properties, feature.getProperties())) {
+      return;
+    }
+    source.put(id, geometry, properties);
+    scheduleFlush();
+  }
+
+  /**
+   * Returns the feature of an annotation.
+   *
+   * @param id the id of the annotation
+   * @return the feature, or null if there is no annotation with the id
+   */
+  @Nullable
+  public Feature get(long id) {
+    AnnotationSource source = annotationSources.get(id);
+    return source != null ? source.features.get(id) : null;
+  }
+
+  /**
+   * Removes an annotation.
+   *
+   * @param id the id of the annotation
+   */
+  public void remove(long id) {
+    AnnotationSource source = annotationSources.get(id);
+    if (source == null) {
+      return;
+    }
+    annotationSources.remove(id);
+    source.features.remove(id);
+    source.dirty = true;
+    scheduleFlush();
+  }
+
+  /**
+   * Removes all annotations.
+   */
+  public void removeAll() {
+    annotationSources.clear();
+    symbols.clear();
+    lines.clear();
+    fills.clear();
+    scheduleFlush();
+  }
+
+  /**
+   * Returns the amount of annotations.
+   *
+   * @return the amount of annotations
+   */
+  public int size() {
+    return annotationSources.size();
+  }
+
+  /**
+   * Returns the layer showing point annotations.
+   *
+   * @return the symbol layer
+   */
+  public SymbolLayer getSymbolLayer() {
+    return (SymbolLayer) symbols.layer;
+  }
+
+  /**
+   * Returns the layer showing line annotations.
+   *
+   * @return the line layer
+   */
+  public LineLayer getLineLayer() {
+    return (LineLayer) lines.layer;
+  }
+
+  /**
+   * Returns the layer showing polygon annotations.
+   *
+   * @return the fill layer
+   */
+  public FillLayer getFillLayer() {
+    return (FillLayer) fills.layer;
+  }
+
+  /**
+   * Removes the sources and layers from the map, the manager can't be used afterwards.
+   */
+  public void onDestroy() {
+    if (destroyed) {
+      return;
+    }
+    destroyed = true;
+    MANAGED_MAPS.remove(mapboxMap);
+    mapView.removeOnMapChangedListener(onMapChangedListener);
+    handler.removeCallbacks(flushRunnable);
+    if (frameCallback != null) {
+      Choreographer.getInstance().removeFrameCallback(frameCallback);
+    }
+    for (AnnotationSource source : new AnnotationSource[] {symbols, lines, fills}) {
+      mapboxMap.removeLayer(source.layer);
+      mapboxMap.removeSource(source.source);
+    }
+  }
+
+  private AnnotationSource sourceOf(Geometry geometry) {
+    if (geometry instanceof Point || geometry instanceof MultiPoint) {
+      return symbols;
+    } else if (geometry instanceof LineString || geometry instanceof MultiLineString) {
+      return lines;
+    } else if (geometry instanceof com.mapbox.services.commons.geojson.Polygon
+      || geometry instanceof MultiPolygon) {
+      return fills;
+    }
+    throw new IllegalArgumentException("Unsupported geometry " + geometry);
+  }
+
+  private void addToStyle() {
+    if (mapboxMap.getSource(FILL_SOURCE_ID) != null) {
+      // left behind by a previous manager of the same map
+      fills.attach(FILL_LAYER_ID);
+      lines.attach(LINE_LAYER_ID);
+      symbols.attach(SYMBOL_LAYER_ID);
+      scheduleFlush();
+      return;
+    }
+
+    fills.addToStyle(new FillLayer(FILL_LAYER_ID, FILL_SOURCE_ID).withProperties(
+      fillColor(Function.property(PROPERTY_FILL_COLOR, Stops.<String>identity())),
+      fillOpacity(Function.property(PROPERTY_FILL_OPACITY, Stops.<Float>identity()))
+    ));
+    lines.addToStyle(new LineLayer(LINE_LAYER_ID, LINE_SOURCE_ID).withProperties(
+      lineColor(Function.property(PROPERTY_LINE_COLOR, Stops.<String>identity())),
+      lineWidth(Function.property(PROPERTY_LINE_WIDTH, Stops.<Float>identity()))
+    ));
+    symbols.addToStyle(new SymbolLayer(SYMBOL_LAYER_ID, SYMBOL_SOURCE_ID).withProperties(
+      iconImage(Function.property(PROPERTY_ICON_IMAGE, Stops.<String>identity())),
+      iconSize(Function.property(PROPERTY_ICON_SIZE, Stops.<Float>identity())),
+      iconAllowOverlap(true),
+      textField(Function.property(PROPERTY_TEXT, Stops.<String>identity()))
+    ));
+    scheduleFlush();
+  }
+
+  private void scheduleFlush() {
+    if (flushScheduled || destroyed) {
+      return;
+    }
+
+    flushScheduled = true;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+      postFrameCallback();
+    } else {
+      handler.postDelayed(flushRunnable, FRAME_DELAY_MILLIS);
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+  private void postFrameCallback() {
+    if (frameCallback == null) {
+      frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          flush();
+        }
+      };
+    }
+    Choreographer.getInstance().postFrameCallback(frameCallback);
+  }
+
+  /**
+   * Updates the sources that changed, called once per display frame after changes.
+   */
+  void flush() {
+    flushScheduled = false;
+    symbols.flush();
+    lines.flush();
+    fills.flush();
+  }
+
+  private static boolean equals(JsonObject properties, JsonObject other) {
+    return properties == null ? other == null : properties.equals(other);
+  }
+
+  /**
+   * The annotations of a single geometry kind, with the source and layer showing them.
+   */
+  private final class AnnotationSource {
+
+    private final String sourceId;
+    private final LongSparseArray<Feature> features = new LongSparseArray<>();
+    private GeoJsonSource source;
+    private Layer layer;
+    private boolean dirty;
+
+    AnnotationSource(String sourceId) {
+      this.sourceId = sourceId;
+    }
+
+    void addToStyle(Layer layer) {
+      source = new GeoJsonSource(sourceId);
+      mapboxMap.addSource(source);
+      mapboxMap.addLayer(layer);
+      this.layer = layer;
+      // a new source starts empty
+      dirty = true;
+    }
+
+    void attach(String layerId) {
+      Source existing = mapboxMap.getSource(sourceId);
+      source = existing instanceof GeoJsonSource ? (GeoJsonSource) existing : null;
+      layer = mapboxMap.getLayer(layerId);
+      // the features of the existing source are unknown
+      dirty = true;
+    }
+
+    void put(long id, Geometry geometry, JsonObject properties) {
+      features.put(id, Feature.fromGeometry(geometry, properties, String.valueOf(id)));
+      dirty = true;
+    }
+
+    void clear() {
+      features.clear();
+      dirty = true;
+    }
+
+    void flush() {
+      if (!dirty || source == null) {
+        return;
+      }
+      int count = features.size();
+      List<Feature> featureList = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        featureList.add(features.valueAt(i));
+      }
+      source.setGeoJson(FeatureCollection.fromFeatures(featureList));
+      dirty = false;
+    }
+  }
+}
@@ -20,6 +20,15 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Factory for creating Icons from bitmap images.
@@ -44,6 +53,11 @@ public final class IconFactory {
 
   private int nextId = 0;
 
+  // Bitmap doesn't override equals, bitmaps are held weakly by identity
+  private final Map<Bitmap, BitmapIcon> iconsByBitmap = new WeakHashMap<>();
+  private final Map<IconShape, List<IconReference>> iconsByShape = new HashMap<>();
+  private final ReferenceQueue<Icon> releasedIcons = new ReferenceQueue<>();
+
   /**
    * Get a single instance of IconFactory.
    *
@@ -80,16 +94,73 @@ public final class IconFactory {
 
   /**
    * Creates an icon from a given Bitmap image.
+   * <p>
+   * Bitmaps with identical pixels, size and density result in the same Icon, as long as that Icon is
+   * still referenced. This allows markers that use the same image to share a single image on the map.
+   * </p>
    *
    * @param bitmap image used for creating the Icon.
    * @return The icon using the given Bitmap image.
    */
-  public Icon fromBitmap(@NonNull Bitmap bitmap) {
+  public synchronized Icon fromBitmap(@NonNull Bitmap bitmap) {
+    removeReleasedIcons();
+
+    // the same bitmap instance, unchanged since an icon was created for it
+    BitmapIcon bitmapIcon = iconsByBitmap.get(bitmap);
+    Icon icon = bitmapIcon != null && bitmapIcon.generationId == bitmap.getGenerationId()
+      ? bitmapIcon.reference.get() : null;
+    if (icon != null) {
+      return icon;
+    }
+
+    // other bitmaps are only compared by their pixels if an icon of the same size and config exists
+    IconShape shape = new IconShape(bitmap);
+    List<IconReference> candidates = iconsByShape.get(shape);
+    Integer pixelHash = null;
+    if (candidates != null) {
+      for (IconReference candidate : candidates) {
+        Icon candidateIcon = candidate.getIfUnchanged();
+        if (candidateIcon == null) {
+          continue;
+        }
+        if (pixelHash == null) {
+          pixelHash = hashPixels(bitmap);
+        }
+        if (candidate.getPixelHash(candidateIcon) == pixelHash && candidateIcon.getBitmap().sameAs(bitmap)) {
+          iconsByBitmap.put(bitmap, new BitmapIcon(bitmap, candidate));
+          return candidateIcon;
+        }
+      }
+    } else {
+      candidates = new ArrayList<>(1);
+      iconsByShape.put(shape, candidates);
+    }
+
     if (nextId < 0) {
       throw new TooManyIconsException();
     }
     String id = ICON_ID_PREFIX + ++nextId;
-    return new Icon(id, bitmap);
+    icon = new Icon(id, bitmap);
+    IconReference reference = new IconReference(shape, icon, pixelHash, releasedIcons);
+    candidates.add(reference);
+    iconsByBitmap.put(bitmap, new BitmapIcon(bitmap, reference));
+    return icon;
+  }
+
+  private void removeReleasedIcons() {
+    IconReference reference;
+    while ((reference = (IconReference) releasedIcons.poll()) != null) {
+      List<IconReference> references = iconsByShape.get(reference.shape);
+      if (references != null && references.remove(reference) && references.isEmpty()) {
+        iconsByShape.remove(reference.shape);
+      }
+    }
+  }
+
+  private static int hashPixels(Bitmap bitmap) {
+    ByteBuffer buffer = ByteBuffer.allocate(bitmap.getRowBytes() * bitmap.getHeight());
+    bitmap.copyPixelsToBuffer(buffer);
+    return Arrays.hashCode(buffer.array());
   }
 
   /**
@@ -194,4 +265,93 @@ public final class IconFactory {
     return new Icon(iconId, bitmap);
   }
 
+  /**
+   * Size, density and config of a bitmap, only bitmaps of the same shape can have identical pixels.
+   */
+  private static final class IconShape {
+
+    private final int width;
+    private final int height;
+    private final int density;
+    private final Bitmap.Config config;
+
+    IconShape(Bitmap bitmap) {
+      width = bitmap.getWidth();
+      height = bitmap.getHeight();
+      density = bitmap.getDensity();
+      config = bitmap.getConfig();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (object == null || getClass() != object.getClass()) {
+        return false;
+      }
+
+      IconShape shape = (IconShape) object;
+      return width == shape.width && height == shape.height && density == shape.density
+        && config == shape.config;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = width;
+      result = 31 * result + height;
+      result = 31 * result + density;
+      result = 31 * result + (config != null ? config.hashCode() : 0);
+      return result;
+    }
+  }
+
+  /**
+   * Weak reference to a cached icon. Hashes the pixels of the icon lazily, the first time another bitmap of the
+   * same shape is looked up.
+   */
+  private static final class IconReference extends WeakReference<Icon> {
+
+    private final IconShape shape;
+    private final int generationId;
+    private Integer pixelHash;
+
+    IconReference(IconShape shape, Icon icon, Integer pixelHash, ReferenceQueue<Icon> queue) {
+      super(icon, queue);
+      this.shape = shape;
+      this.generationId = icon.getBitmap().getGenerationId();
+      this.pixelHash = pixelHash;
+    }
+
+    /**
+     * Returns the icon if it is still referenced and its bitmap wasn't modified since.
+     *
+     * @return the icon or null
+     */
+    Icon getIfUnchanged() {
+      Icon icon = get();
+      return icon != null && icon.getBitmap().getGenerationId() == generationId ? icon : null;
+    }
+
+    int getPixelHash(Icon icon) {
+      if (pixelHash == null) {
+        pixelHash = hashPixels(icon.getBitmap());
+      }
+      return pixelHash;
+    }
+  }
+
+  /**
+   * Icon created for, or matching, a bitmap instance at a generation of its pixels.
+   */
+  private static final class BitmapIcon {
+
+    private final int generationId;
+    private final IconReference reference;
+
+    BitmapIcon(Bitmap bitmap, IconReference reference) {
+      this.generationId = bitmap.getGenerationId();
+      this.reference = reference;
+    }
+  }
 }
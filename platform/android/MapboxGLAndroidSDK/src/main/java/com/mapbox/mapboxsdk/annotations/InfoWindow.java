@@ -40,6 +40,8 @@ public class InfoWindow {
   private float viewWidthOffset;
   private PointF coordinates;
   private boolean isVisible;
+  // true when the view is reused by other info windows once this info window closes
+  private boolean recycleView;
 
   @LayoutRes
   private int layoutRes;
@@ -54,6 +56,12 @@ public class InfoWindow {
     initialize(view, mapboxMap);
   }
 
+  InfoWindow(View view, @LayoutRes int layoutResId, MapboxMap mapboxMap) {
+    layoutRes = layoutResId;
+    recycleView = true;
+    initialize(view, mapboxMap);
+  }
+
   private void initialize(View view, MapboxMap mapboxMap) {
     this.mapboxMap = new WeakReference<>(mapboxMap);
     isVisible = false;
@@ -217,6 +225,10 @@ public class InfoWindow {
       if (view != null && view.getParent() != null) {
         ((ViewGroup) view.getParent()).removeView(view);
       }
+      if (recycleView) {
+        // the view is handed out to other info windows from now on
+        this.view = new WeakReference<>(null);
+      }
 
       Marker marker = getBoundMarker();
       MapboxMap.OnInfoWindowCloseListener listener = mapboxMap.getOnInfoWindowCloseListener();
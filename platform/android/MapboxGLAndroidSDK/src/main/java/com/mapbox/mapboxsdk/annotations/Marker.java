@@ -230,6 +230,27 @@ public class Marker extends Annotation {
     return showInfoWindow(infoWindow, mapView);
   }
 
+  /**
+   * Do not use this method, used internally by the SDK. Shows the info window with a view that is reused by
+   * other info windows once it closes.
+   *
+   * @param mapboxMap The hosting mapbox map.
+   * @param mapView   The hosting map view.
+   * @param content   The view to be shown as info window.
+   * @param isDefault True if the view is inflated from the default info window layout and shows title and snippet.
+   * @return The info window that was shown.
+   */
+  public InfoWindow showInfoWindow(@NonNull MapboxMap mapboxMap, @NonNull MapView mapView, @NonNull View content,
+                                   boolean isDefault) {
+    setMapboxMap(mapboxMap);
+    setMapView(mapView);
+    infoWindow = new InfoWindow(content, R.layout.mapbox_infowindow_content, mapboxMap);
+    if (isDefault) {
+      infoWindow.adaptDefaultMarker(this, mapboxMap, mapView);
+    }
+    return showInfoWindow(infoWindow, mapView);
+  }
+
   private InfoWindow showInfoWindow(InfoWindow iw, MapView mapView) {
     iw.open(mapView, this, getPosition(), rightOffsetPixels, topOffsetPixels);
     infoWindowShown = true;
@@ -1,12 +1,14 @@
 package com.mapbox.mapboxsdk.annotations;
 
+import android.annotation.TargetApi;
 import android.content.Context;
-import android.graphics.PointF;
 import android.graphics.RectF;
+import android.os.Build;
 import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.util.LongSparseArray;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,15 +17,18 @@ import android.widget.ImageView;
 
 import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.utils.AnimatorUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for interacting with ViewMarkers objects inside of a MapView.
@@ -36,6 +41,9 @@ import java.util.Map;
 @Deprecated
 public class MarkerViewManager implements MapView.OnMapChangedListener {
 
+  // minimum time between two queries of the visible region while only the camera changes
+  private static final long QUERY_INTERVAL = 250;
+
   private final ViewGroup markerViewContainer;
   private final ViewTreeObserver.OnPreDrawListener markerViewPreDrawObserver =
     new ViewTreeObserver.OnPreDrawListener() {
@@ -55,10 +63,37 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
   private MapboxMap mapboxMap;
 
   private boolean enabled;
-  private long updateTime;
+  private boolean frameScheduled;
+  private Choreographer.FrameCallback frameCallback;
+  private final Runnable frameRunnable = new Runnable() {
+    @Override
+    public void run() {
+      onFrame();
+    }
+  };
+  private boolean visibleRegionChanged;
+  private boolean markerViewsChanged = true;
+  private long nextQueryTime;
+  private boolean queryScheduled;
+  private final Runnable queryRunnable = new Runnable() {
+    @Override
+    public void run() {
+      queryScheduled = false;
+      if (enabled && (visibleRegionChanged || markerViewsChanged)) {
+        invalidateViewMarkersInVisibleRegion();
+      }
+    }
+  };
+  // marker views found in the visible region, reused for each invalidation
+  private final Set<MarkerView> visibleMarkerViews = new HashSet<>();
   private MapboxMap.OnMarkerViewClickListener onMarkerViewClickListener;
   private boolean isWaitingForRenderInvoke;
 
+  // reused between position updates to project all marker views in a single call
+  private MarkerView[] projectedMarkers = new MarkerView[0];
+  private double[] projectedLatLngs = new double[0];
+  private float[] projectedPoints = new float[0];
+
   /**
    * Creates an instance of MarkerViewManager.
    *
@@ -193,39 +228,73 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
    * </p>
    */
   public void updateMarkerViewsPosition() {
-    for (final MarkerView marker : markerViewMap.keySet()) {
+    int count = collectProjectedMarkers();
+    if (count == 0) {
+      return;
+    }
+
+    // project all positions in a single call
+    mapboxMap.getProjection().toScreenLocations(projectedLatLngs, projectedPoints);
+
+    for (int i = 0; i < count; i++) {
+      final MarkerView marker = projectedMarkers[i];
+      projectedMarkers[i] = null;
       final View convertView = markerViewMap.get(marker);
-      if (convertView != null) {
-        PointF point = mapboxMap.getProjection().toScreenLocation(marker.getPosition());
-        if (marker.getOffsetX() == MapboxConstants.UNMEASURED) {
-          // ensure view is measured first
-          // #6805 invalidate marker views to ensure convertView width and height
-          // values are properly measured and up to date
-          if (marker.getWidth() == 0 && marker.isVisible()) {
-            convertView.getViewTreeObserver().addOnPreDrawListener(markerViewPreDrawObserver);
-          }
+      if (marker.getOffsetX() == MapboxConstants.UNMEASURED) {
+        // ensure view is measured first
+        // #6805 invalidate marker views to ensure convertView width and height
+        // values are properly measured and up to date
+        if (marker.getWidth() == 0 && marker.isVisible()) {
+          convertView.getViewTreeObserver().addOnPreDrawListener(markerViewPreDrawObserver);
         }
+      }
 
-        marker.setWidth(convertView.getWidth());
-        marker.setHeight(convertView.getHeight());
+      marker.setWidth(convertView.getWidth());
+      marker.setHeight(convertView.getHeight());
 
-        if (marker.getWidth() != 0) {
-          int x = (int) (marker.getAnchorU() * marker.getWidth());
-          int y = (int) (marker.getAnchorV() * marker.getHeight());
-          marker.setOffset(x, y);
-        }
+      if (marker.getWidth() != 0) {
+        int x = (int) (marker.getAnchorU() * marker.getWidth());
+        int y = (int) (marker.getAnchorV() * marker.getHeight());
+        marker.setOffset(x, y);
+      }
 
-        convertView.setX(point.x - marker.getOffsetX());
-        convertView.setY(point.y - marker.getOffsetY());
+      convertView.setX(projectedPoints[i * 2] - marker.getOffsetX());
+      convertView.setY(projectedPoints[i * 2 + 1] - marker.getOffsetY());
 
-        // animate visibility
-        if (marker.isVisible() && convertView.getVisibility() == View.GONE) {
-          animateVisible(marker, true);
-        }
+      // animate visibility
+      if (marker.isVisible() && convertView.getVisibility() == View.GONE) {
+        animateVisible(marker, true);
       }
     }
   }
 
+  private int collectProjectedMarkers() {
+    if (projectedMarkers.length < markerViewMap.size()) {
+      projectedMarkers = new MarkerView[markerViewMap.size()];
+    }
+
+    int count = 0;
+    for (Map.Entry<MarkerView, View> entry : markerViewMap.entrySet()) {
+      if (entry.getValue() != null) {
+        projectedMarkers[count++] = entry.getKey();
+      }
+    }
+
+    // arrays are reused as long as the amount of projected marker views doesn't change
+    if (projectedLatLngs.length != count * 2) {
+      projectedLatLngs = new double[count * 2];
+      projectedPoints = new float[count * 2];
+    }
+
+    LatLng position;
+    for (int i = 0; i < count; i++) {
+      position = projectedMarkers[i].getPosition();
+      projectedLatLngs[i * 2] = position.getLatitude();
+      projectedLatLngs[i * 2 + 1] = position.getLongitude();
+    }
+    return count;
+  }
+
   /**
    * Set tilt on every non flat MarkerView currently shown in the Viewport.
    *
@@ -455,21 +524,69 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
   }
 
   /**
-   * Schedule that ViewMarkers found in the viewport are invalidated.
+   * Schedule that ViewMarkers found in the viewport are invalidated after the camera or a MarkerView moved.
    * <p>
-   * This method is rate limited, and {@link #invalidateViewMarkersInVisibleRegion} will only be called
-   * once each 250 ms.
+   * Positions are updated once per display frame, multiple calls within a single frame result in a single update.
+   * The ViewMarkers in the visible region are only queried once each 250 ms while the camera or MarkerViews move,
+   * and once more after they settled.
    * </p>
    */
   public void update() {
-    if (enabled) {
-      long currentTime = SystemClock.elapsedRealtime();
-      if (currentTime < updateTime) {
-        updateMarkerViewsPosition();
-        return;
+    visibleRegionChanged = true;
+    scheduleFrame();
+  }
+
+  /**
+   * Schedule that ViewMarkers found in the viewport are invalidated after MarkerViews were added.
+   * <p>
+   * The ViewMarkers in the visible region are queried on the next display frame.
+   * </p>
+   */
+  public void onMarkerViewsChanged() {
+    markerViewsChanged = true;
+    scheduleFrame();
+  }
+
+  private void scheduleFrame() {
+    if (enabled && !frameScheduled) {
+      frameScheduled = true;
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+        postFrameCallback();
+      } else {
+        markerViewContainer.post(frameRunnable);
       }
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+  private void postFrameCallback() {
+    if (frameCallback == null) {
+      frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          onFrame();
+        }
+      };
+    }
+    Choreographer.getInstance().postFrameCallback(frameCallback);
+  }
+
+  private void onFrame() {
+    frameScheduled = false;
+    if (!enabled) {
+      return;
+    }
+
+    long now = SystemClock.elapsedRealtime();
+    if (markerViewsChanged || (visibleRegionChanged && now >= nextQueryTime)) {
       invalidateViewMarkersInVisibleRegion();
-      updateTime = currentTime + 250;
+    } else if (visibleRegionChanged) {
+      // only move the shown views, query the visible region once the interval passed
+      updateMarkerViewsPosition();
+      if (!queryScheduled) {
+        queryScheduled = true;
+        markerViewContainer.postDelayed(queryRunnable, nextQueryTime - now);
+      }
     }
   }
 
@@ -481,17 +598,24 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
    * </p>
    */
   public void invalidateViewMarkersInVisibleRegion() {
+    visibleRegionChanged = false;
+    markerViewsChanged = false;
+    nextQueryTime = SystemClock.elapsedRealtime() + QUERY_INTERVAL;
+
     RectF mapViewRect = new RectF(0, 0, markerViewContainer.getWidth(), markerViewContainer.getHeight());
     List<MarkerView> markers = mapboxMap.getMarkerViewsInRect(mapViewRect);
+    visibleMarkerViews.clear();
+    visibleMarkerViews.addAll(markers);
     View convertView;
 
-    // remove old markers
-    Iterator<MarkerView> iterator = markerViewMap.keySet().iterator();
+    // remove markers that left the visible region
+    Iterator<Map.Entry<MarkerView, View>> iterator = markerViewMap.entrySet().iterator();
     while (iterator.hasNext()) {
-      MarkerView marker = iterator.next();
-      if (!markers.contains(marker)) {
+      Map.Entry<MarkerView, View> entry = iterator.next();
+      MarkerView marker = entry.getKey();
+      if (!visibleMarkerViews.contains(marker)) {
         // remove marker
-        convertView = markerViewMap.get(marker);
+        convertView = entry.getValue();
         for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
           if (adapter.getMarkerClass().equals(marker.getClass())) {
             adapter.prepareViewForReuse(marker, convertView);
@@ -502,7 +626,9 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
       }
     }
 
-    // introduce new markers
+    visibleMarkerViews.clear();
+
+    // introduce markers that entered the visible region
     for (final MarkerView marker : markers) {
       if (!markerViewMap.containsKey(marker)) {
         for (final MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
@@ -527,11 +653,15 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
 
               marker.setMapboxMap(mapboxMap);
               markerViewMap.put(marker, adaptedView);
-              if (convertView == null) {
-                adaptedView.setVisibility(View.GONE);
+              // pooled views can be detached, e.g. when they were only inflated to measure an info window offset
+              if (adaptedView.getParent() == null) {
                 markerViewContainer.addView(adaptedView);
               }
             }
+            if (convertView != null && convertView != adaptedView) {
+              // the adapter didn't reuse the pooled view, keep it for the next marker
+              adapter.releaseView(convertView);
+            }
 
             // notify listener is marker view is rendered
             OnMarkerViewAddedListener onViewAddedListener = markerViewAddedListenerMap.get(marker.getId());
@@ -583,6 +713,7 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
    */
   public void ensureInfoWindowOffset(MarkerView marker) {
     View view = null;
+    MapboxMap.MarkerViewAdapter measureAdapter = null;
     if (markerViewMap.containsKey(marker)) {
       view = markerViewMap.get(marker);
     } else {
@@ -590,6 +721,7 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
         if (adapter.getMarkerClass().equals(marker.getClass())) {
           View convertView = (View) adapter.getViewReusePool().acquire();
           view = adapter.getView(marker, convertView, markerViewContainer);
+          measureAdapter = adapter;
           break;
         }
       }
@@ -617,6 +749,11 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
       int infoWindowOffsetY = (int) ((view.getMeasuredHeight() * marker.getInfoWindowAnchorV()) - marker.getOffsetY());
       marker.setTopOffsetPixels(infoWindowOffsetY);
       marker.setRightOffsetPixels(infoWindowOffsetX);
+
+      if (measureAdapter != null) {
+        // the view was only needed for measuring, give it back for reuse
+        measureAdapter.releaseView(view);
+      }
     }
   }
 
@@ -0,0 +1,175 @@
+package com.mapbox.mapboxsdk.annotations;
+
+/**
+ * Douglas-Peucker simplification of packed latitude and longitude pairs.
+ * <p>
+ * The simplification is computed once for all zoom levels: every point gets an importance, the squared
+ * tolerance in projected world coordinates below which the point is needed. Selecting the points for a zoom
+ * level is a linear pass over the importances.
+ * </p>
+ * <p>
+ * Tolerances match the ones used to tile shape annotations, a point is dropped if it is less than
+ * {@link #TILE_TOLERANCE} tile units away from the simplified geometry at the given zoom level.
+ * </p>
+ */
+final class PointSimplifier {
+
+  // Tolerance and extent used by the native shape annotation tiler
+  private static final double TILE_TOLERANCE = 4;
+  private static final double TILE_EXTENT = 4096;
+
+  private PointSimplifier() {
+  }
+
+  /**
+   * Computes the importance of points.
+   * <p>
+   * The first, the last and the point furthest away from the line between them are always kept, so a
+   * simplified polygon keeps at least three points.
+   * </p>
+   *
+   * @param coordinates the points, packed as latitude and longitude pairs
+   * @param count       the amount of points
+   * @return the squared tolerance below which each point is needed
+   */
+  static double[] computeImportance(double[] coordinates, int count) {
+    double[] importance = new double[count];
+    if (count > 0) {
+      computeImportance(coordinates, 0, count - 1, importance);
+    }
+    return importance;
+  }
+
+  /**
+   * Computes the importance of a range of points, independent of the points outside of it.
+   * <p>
+   * The end points of the range and the point furthest away from the line between them are always kept.
+   * </p>
+   *
+   * @param coordinates the points, packed as latitude and longitude pairs
+   * @param rangeFirst  the index of the first point of the range
+   * @param rangeLast   the index of the last point of the range
+   * @param importance  the array receiving the squared tolerance below which each point of the range is needed
+   */
+  static void computeImportance(double[] coordinates, int rangeFirst, int rangeLast, double[] importance) {
+    int count = rangeLast - rangeFirst + 1;
+    double[] x = new double[count];
+    double[] y = new double[count];
+    for (int i = 0; i < count; i++) {
+      x[i] = projectX(coordinates[(rangeFirst + i) * 2 + 1]);
+      y[i] = projectY(coordinates[(rangeFirst + i) * 2]);
+    }
+
+    importance[rangeFirst] = Double.POSITIVE_INFINITY;
+    importance[rangeLast] = Double.POSITIVE_INFINITY;
+
+    // iterative to support large geometries, each range is stored as first index, last index relative to rangeFirst
+    int[] stack = new int[64];
+    int stackSize = 0;
+    stack[stackSize++] = 0;
+    stack[stackSize++] = count - 1;
+
+    while (stackSize > 0) {
+      int last = stack[--stackSize];
+      int first = stack[--stackSize];
+
+      double maxSqDistance = 0;
+      int index = -1;
+      for (int i = first + 1; i < last; i++) {
+        double sqDistance = sqSegmentDistance(x[i], y[i], x[first], y[first], x[last], y[last]);
+        if (sqDistance > maxSqDistance) {
+          maxSqDistance = sqDistance;
+          index = i;
+        }
+      }
+
+      if (index == -1) {
+        continue;
+      }
+
+      // a point is only kept if the range it splits is kept, bound it by the least important end point
+      double parentImportance = Math.min(importance[rangeFirst + first], importance[rangeFirst + last]);
+      importance[rangeFirst + index] = first == 0 && last == count - 1
+        ? Double.POSITIVE_INFINITY : Math.min(maxSqDistance, parentImportance);
+
+      if (stackSize + 4 > stack.length) {
+        int[] grown = new int[stack.length * 2];
+        System.arraycopy(stack, 0, grown, 0, stackSize);
+        stack = grown;
+      }
+      if (index - first > 1) {
+        stack[stackSize++] = first;
+        stack[stackSize++] = index;
+      }
+      if (last - index > 1) {
+        stack[stackSize++] = index;
+        stack[stackSize++] = last;
+      }
+    }
+  }
+
+  /**
+   * Returns the squared tolerance in projected world coordinates that is needed to render a zoom level.
+   *
+   * @param zoom the zoom level
+   * @return the squared tolerance
+   */
+  static double getSqTolerance(int zoom) {
+    double tolerance = TILE_TOLERANCE / ((1 << zoom) * TILE_EXTENT);
+    return tolerance * tolerance;
+  }
+
+  /**
+   * Selects the points needed for a tolerance.
+   *
+   * @param coordinates the points, packed as latitude and longitude pairs
+   * @param count       the amount of points
+   * @param importance  the importance of the points, as computed by {@link #computeImportance(double[], int)}
+   * @param sqTolerance the squared tolerance
+   * @param out         the array receiving the selected points, packed as latitude and longitude pairs
+   * @return the amount of selected points
+   */
+  static int select(double[] coordinates, int count, double[] importance, double sqTolerance, double[] out) {
+    int selected = 0;
+    for (int i = 0; i < count; i++) {
+      if (importance[i] > sqTolerance) {
+        out[selected * 2] = coordinates[i * 2];
+        out[selected * 2 + 1] = coordinates[i * 2 + 1];
+        selected++;
+      }
+    }
+    return selected;
+  }
+
+  private static double projectX(double longitude) {
+    return longitude / 360 + 0.5;
+  }
+
+  private static double projectY(double latitude) {
+    double sin = Math.sin(Math.toRadians(latitude));
+    double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+    return y < 0 ? 0 : y > 1 ? 1 : y;
+  }
+
+  private static double sqSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+    double x = ax;
+    double y = ay;
+    double dx = bx - ax;
+    double dy = by - ay;
+
+    if (dx != 0 || dy != 0) {
+      double t = ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy);
+      if (t > 1) {
+        x = bx;
+        y = by;
+      } else if (t > 0) {
+        x += dx * t;
+        y += dy * t;
+      }
+    }
+
+    dx = px - x;
+    dy = py - y;
+    return dx * dx + dy * dy;
+  }
+}
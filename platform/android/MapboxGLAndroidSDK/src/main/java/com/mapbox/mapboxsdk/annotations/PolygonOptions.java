@@ -36,6 +36,7 @@ public final class PolygonOptions implements Parcelable {
     alpha(in.readFloat());
     fillColor(in.readInt());
     strokeColor(in.readInt());
+    simplificationZoom(in.readInt());
   }
 
   /**
@@ -63,6 +64,7 @@ public final class PolygonOptions implements Parcelable {
     out.writeFloat(getAlpha());
     out.writeInt(getFillColor());
     out.writeInt(getStrokeColor());
+    out.writeInt(getSimplificationZoom());
   }
 
   private Polygon polygon;
@@ -218,6 +220,29 @@ public final class PolygonOptions implements Parcelable {
     return polygon.getStrokeColor();
   }
 
+  /**
+   * Simplifies the rendered geometry of the polygon, points that are not visible at or below the given zoom
+   * level are not handed to the map. Speeds up adding and tiling {@link Polygon}s with many points.
+   * The default is {@link BasePointCollection#NO_SIMPLIFICATION}.
+   *
+   * @param zoom the zoom level up to which points are rendered, or {@link BasePointCollection#NO_SIMPLIFICATION}
+   * @return This {@link PolygonOptions} object with the simplification zoom set.
+   * @see BasePointCollection#setSimplificationZoom(int)
+   */
+  public PolygonOptions simplificationZoom(int zoom) {
+    polygon.setSimplificationZoom(zoom);
+    return this;
+  }
+
+  /**
+   * Gets the zoom level up to which the rendered geometry is simplified.
+   *
+   * @return the zoom level or {@link BasePointCollection#NO_SIMPLIFICATION} if all points are rendered
+   */
+  public int getSimplificationZoom() {
+    return polygon.getSimplificationZoom();
+  }
+
   /**
    * Gets the points set for this {@link PolygonOptions} object.
    *
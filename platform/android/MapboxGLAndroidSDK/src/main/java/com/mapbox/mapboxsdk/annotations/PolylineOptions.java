@@ -33,6 +33,7 @@ public final class PolylineOptions implements Parcelable {
     alpha(in.readFloat());
     color(in.readInt());
     width(in.readFloat());
+    simplificationZoom(in.readInt());
   }
 
   /**
@@ -59,6 +60,7 @@ public final class PolylineOptions implements Parcelable {
     out.writeFloat(getAlpha());
     out.writeInt(getColor());
     out.writeFloat(getWidth());
+    out.writeInt(getSimplificationZoom());
   }
 
   private Polyline polyline;
@@ -177,6 +179,29 @@ public final class PolylineOptions implements Parcelable {
     return this;
   }
 
+  /**
+   * Simplifies the rendered geometry of the polyline, points that are not visible at or below the given zoom
+   * level are not handed to the map. Speeds up adding and tiling {@link Polyline}s with many points.
+   * The default is {@link BasePointCollection#NO_SIMPLIFICATION}.
+   *
+   * @param zoom the zoom level up to which points are rendered, or {@link BasePointCollection#NO_SIMPLIFICATION}
+   * @return This {@link PolylineOptions} object with the simplification zoom set.
+   * @see BasePointCollection#setSimplificationZoom(int)
+   */
+  public PolylineOptions simplificationZoom(int zoom) {
+    polyline.setSimplificationZoom(zoom);
+    return this;
+  }
+
+  /**
+   * Gets the zoom level up to which the rendered geometry is simplified.
+   *
+   * @return the zoom level or {@link BasePointCollection#NO_SIMPLIFICATION} if all points are rendered
+   */
+  public int getSimplificationZoom() {
+    return polyline.getSimplificationZoom();
+  }
+
   /**
    * Gets the points set for this {@link PolylineOptions} object.
    *
@@ -0,0 +1,106 @@
+package com.mapbox.mapboxsdk.http;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of direct byte buffers that response bodies are read into before they are handed to native.
+ * <p>
+ * Buffers are allocated in power of two size classes, so a buffer released by one response can be reused for
+ * another of a similar size. Buffers larger than the largest size class aren't pooled, the amount of pooled
+ * memory is bounded as well.
+ * </p>
+ */
+final class DirectByteBufferPool {
+
+  private final int minCapacity;
+  private final int maxPooledCapacity;
+  private final long maxPooledBytes;
+  // guarded by this
+  private final ArrayDeque<ByteBuffer>[] sizeClasses;
+  private long pooledBytes;
+
+  /**
+   * Creates a pool.
+   *
+   * @param minCapacity       the capacity of the smallest size class, a power of two
+   * @param maxPooledCapacity the capacity of the largest size class, a power of two
+   * @param maxPooledBytes    the maximum amount of bytes kept in released buffers
+   */
+  @SuppressWarnings("unchecked")
+  DirectByteBufferPool(int minCapacity, int maxPooledCapacity, long maxPooledBytes) {
+    if (Integer.bitCount(minCapacity) != 1 || Integer.bitCount(maxPooledCapacity) != 1
+      || minCapacity > maxPooledCapacity) {
+      throw new IllegalArgumentException("Invalid size classes: " + minCapacity + ", " + maxPooledCapacity);
+    }
+    this.minCapacity = minCapacity;
+    this.maxPooledCapacity = maxPooledCapacity;
+    this.maxPooledBytes = maxPooledBytes;
+    int count = Integer.numberOfTrailingZeros(maxPooledCapacity) - Integer.numberOfTrailingZeros(minCapacity) + 1;
+    sizeClasses = new ArrayDeque[count];
+    for (int i = 0; i < count; i++) {
+      sizeClasses[i] = new ArrayDeque<>();
+    }
+  }
+
+  /**
+   * Returns a cleared direct buffer, reused from the pool if possible.
+   *
+   * @param capacity the minimum capacity of the buffer
+   * @return a buffer with at least the requested capacity
+   */
+  ByteBuffer acquire(int capacity) {
+    if (capacity > maxPooledCapacity) {
+      return ByteBuffer.allocateDirect(capacity);
+    }
+
+    int sizeClass = sizeClassOf(capacity);
+    synchronized (this) {
+      ByteBuffer buffer = sizeClasses[sizeClass].poll();
+      if (buffer != null) {
+        pooledBytes -= buffer.capacity();
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocateDirect(minCapacity << sizeClass);
+  }
+
+  /**
+   * Returns a buffer to the pool. The buffer can't be used by the caller afterwards.
+   *
+   * @param buffer the buffer acquired from this pool
+   */
+  void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (!buffer.isDirect() || capacity > maxPooledCapacity || capacity < minCapacity
+      || Integer.bitCount(capacity) != 1) {
+      return;
+    }
+
+    buffer.clear();
+    synchronized (this) {
+      if (pooledBytes + capacity > maxPooledBytes) {
+        return;
+      }
+      pooledBytes += capacity;
+      sizeClasses[sizeClassOf(capacity)].push(buffer);
+    }
+  }
+
+  /**
+   * Returns the amount of bytes kept in released buffers.
+   *
+   * @return the pooled bytes
+   */
+  synchronized long getPooledBytes() {
+    return pooledBytes;
+  }
+
+  private int sizeClassOf(int capacity) {
+    if (capacity <= minCapacity) {
+      return 0;
+    }
+    int roundedUp = Integer.highestOneBit(capacity - 1) << 1;
+    return Integer.numberOfTrailingZeros(roundedUp) - Integer.numberOfTrailingZeros(minCapacity);
+  }
+}
@@ -9,51 +9,77 @@ import android.text.TextUtils;
 import com.mapbox.mapboxsdk.BuildConfig;
 import com.mapbox.mapboxsdk.Mapbox;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.storage.FileSource;
+import com.mapbox.mapboxsdk.storage.HttpClientConfig;
 
-import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.NoRouteToHostException;
 import java.net.ProtocolException;
 import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.concurrent.locks.ReentrantLock;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.SSLException;
 
-import okhttp3.Call;
-import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.internal.Util;
 import timber.log.Timber;
 
-class HTTPRequest implements Callback {
+class HTTPRequest {
 
-  private static OkHttpClient mClient = new OkHttpClient();
+  // Keep-alive of idle threads executing synchronous requests
+  private static final long SYNC_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+  // Client and synchronous executor for the current configuration, rebuilt when the configuration changes
+  private static HttpClientConfig mClientConfig;
+  private static OkHttpClient mClient;
+  private static ExecutorService mSyncExecutor;
   private String USER_AGENT_STRING = null;
 
   private static final int CONNECTION_ERROR = 0;
   private static final int TEMPORARY_ERROR = 1;
   private static final int PERMANENT_ERROR = 2;
 
-  // Reentrancy is not needed, but "Lock" is an
-  // abstract class.
-  private ReentrantLock mLock = new ReentrantLock();
-
+  // Read by the native peer registration, mHandoff decides if the peer may still be called.
   private long mNativePtr = 0;
+  private final NativePeerHandoff mHandoff;
 
-  private Call mCall;
+  private InFlightRequests.SharedCall mCall;
   private Request mRequest;
+  // mbgl::Resource::Kind, the tile coordinates are only set for tiles
+  private final int mKind;
+  private final int mTileX;
+  private final int mTileY;
+  private final int mTileZ;
 
   private native void nativeOnFailure(int type, String message);
 
   private native void nativeOnResponse(int code, String etag, String modified, String cacheControl, String expires,
-                                       String retryAfter, String xRateLimitReset, byte[] body);
+                                       String retryAfter, String xRateLimitReset, ByteBuffer body,
+                                       int bodyLength);
 
-  private HTTPRequest(long nativePtr, String resourceUrl, String etag, String modified) {
+  private HTTPRequest(long nativePtr, String resourceUrl, String etag, String modified, int kind, int tileX,
+                      int tileY, int tileZ) {
     mNativePtr = nativePtr;
+    mHandoff = new NativePeerHandoff(nativePtr);
+    mKind = kind;
+    mTileX = tileX;
+    mTileY = tileY;
+    mTileZ = tileZ;
 
     try {
       HttpUrl httpUrl = HttpUrl.parse(resourceUrl);
@@ -84,38 +110,109 @@ class HTTPRequest implements Callback {
         builder = builder.addHeader("If-Modified-Since", modified);
       }
       mRequest = builder.build();
-      mCall = mClient.newCall(mRequest);
-
-      // TODO remove code block for workaround in #10303
-      if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.N_MR1) {
-        mCall.enqueue(this);
-      } else {
-        // Calling execute instead of enqueue is a workaround for #10303
-        onResponse(mCall, mCall.execute());
-      }
+      // requests for the same resource in flight at the same time share a single call, the url is normalized by
+      // HttpUrl, while the path and query are case sensitive
+      String key = mRequest.url().toString() + "\n" + etag + "\n" + modified;
+      mCall = InFlightRequests.join(key, this, getClient(), mRequest);
     } catch (Exception exception) {
       onFailure(exception);
     }
   }
 
+  private static synchronized OkHttpClient getClient() {
+    HttpClientConfig config = FileSource.getHttpClientConfig();
+    if (mClient == null || config != mClientConfig) {
+      Dispatcher dispatcher = new Dispatcher();
+      dispatcher.setMaxRequests(config.getMaxRequests());
+      dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+      mClient = new OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAliveMillis(),
+          TimeUnit.MILLISECONDS))
+        .connectTimeout(config.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+        .readTimeout(config.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+        .writeTimeout(config.getWriteTimeoutMillis(), TimeUnit.MILLISECONDS)
+        .protocols(config.isHttp2Enabled() ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+          : Collections.singletonList(Protocol.HTTP_1_1))
+        .build();
+
+      if (mSyncExecutor != null) {
+        // Swapped under the same lock as executeSync, nothing is submitted to the previous executor after this.
+        // shutdown lets the requests queued on it finish, its threads terminate once it drained.
+        mSyncExecutor.shutdown();
+        mSyncExecutor = null;
+      }
+      mClientConfig = config;
+      RequestScheduler.getInstance().setMaxRunning(config.getMaxRequests(), config.getMaxRequestsPerHost());
+    }
+    return mClient;
+  }
+
+  /**
+   * Runs a synchronous call on the executor of the current configuration.
+   *
+   * @param task the task executing the call
+   */
+  static synchronized void executeSync(Runnable task) {
+    getSyncExecutor().execute(task);
+  }
+
+  private static ExecutorService getSyncExecutor() {
+    if (mSyncExecutor == null) {
+      // one thread per call the scheduler runs at most
+      int threadCount = mClientConfig.getMaxRequests();
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+        SYNC_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          private final AtomicInteger threadNumber = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Mapbox HTTP " + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+      executor.allowCoreThreadTimeOut(true);
+      mSyncExecutor = executor;
+    }
+    return mSyncExecutor;
+  }
+
+  int getKind() {
+    return mKind;
+  }
+
+  int getTileX() {
+    return mTileX;
+  }
+
+  int getTileY() {
+    return mTileY;
+  }
+
+  int getTileZ() {
+    return mTileZ;
+  }
+
   public void cancel() {
     // mCall can be null if the constructor gets aborted (e.g, under a NoRouteToHostException).
     if (mCall != null) {
-      mCall.cancel();
+      mCall.leave(this);
     }
 
-    // TODO: We need a lock here because we can try
-    // to cancel at the same time the request is getting
-    // answered on the OkHTTP thread. We could get rid of
-    // this lock by using Runnable when we move Android
-    // implementation of mbgl::RunLoop to Looper.
-    mLock.lock();
-    mNativePtr = 0;
-    mLock.unlock();
+    // We can cancel at the same time the request is getting answered on the OkHTTP thread,
+    // the native peer is released after this returns.
+    mHandoff.cancel();
   }
 
-  @Override
-  public void onResponse(Call call, Response response) throws IOException {
+  /**
+   * Delivers a response to native.
+   *
+   * @param response the response
+   * @param body     direct buffer holding the body between position zero and its limit, only valid during this call
+   */
+  void onResponse(Response response, ByteBuffer body) {
     if (response.isSuccessful()) {
       Timber.v("[HTTP] Request was successful (code = %s).", response.code());
     } else {
@@ -124,37 +221,24 @@ class HTTPRequest implements Callback {
       Timber.d("[HTTP] Request with response code = %s: %s", response.code(), message);
     }
 
-    byte[] body;
-    try {
-      body = response.body().bytes();
-    } catch (IOException ioException) {
-      onFailure(ioException);
-      // throw ioException;
-      return;
-    } finally {
-      response.body().close();
-    }
-
-    mLock.lock();
-    if (mNativePtr != 0) {
-      nativeOnResponse(response.code(),
-        response.header("ETag"),
-        response.header("Last-Modified"),
-        response.header("Cache-Control"),
-        response.header("Expires"),
-        response.header("Retry-After"),
-        response.header("x-rate-limit-reset"),
-        body);
+    if (mHandoff.beginDelivery()) {
+      try {
+        nativeOnResponse(response.code(),
+          response.header("ETag"),
+          response.header("Last-Modified"),
+          response.header("Cache-Control"),
+          response.header("Expires"),
+          response.header("Retry-After"),
+          response.header("x-rate-limit-reset"),
+          body,
+          body.limit());
+      } finally {
+        mHandoff.endDelivery();
+      }
     }
-    mLock.unlock();
   }
 
-  @Override
-  public void onFailure(Call call, IOException e) {
-    onFailure(e);
-  }
-
-  private void onFailure(Exception e) {
+  void onFailure(Exception e) {
     int type = PERMANENT_ERROR;
     if ((e instanceof NoRouteToHostException) || (e instanceof UnknownHostException) || (e instanceof SocketException)
       || (e instanceof ProtocolException) || (e instanceof SSLException)) {
@@ -174,11 +258,13 @@ class HTTPRequest implements Callback {
       Timber.w("Request failed due to a permanent error: %s", errorMessage);
     }
 
-    mLock.lock();
-    if (mNativePtr != 0) {
-      nativeOnFailure(type, errorMessage);
+    if (mHandoff.beginDelivery()) {
+      try {
+        nativeOnFailure(type, errorMessage);
+      } finally {
+        mHandoff.endDelivery();
+      }
     }
-    mLock.unlock();
   }
 
   private String getUserAgent() {
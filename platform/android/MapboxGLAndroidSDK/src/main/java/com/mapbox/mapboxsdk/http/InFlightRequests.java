@@ -0,0 +1,282 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.os.Build;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Coalesces requests for the same resource that are in flight at the same time into a single network call.
+ * <p>
+ * Several maps, the offline manager and the snapshotter may request the same tile at once. The first request
+ * starts a call, requests for the same resource joining while it is in flight wait for that call instead of
+ * starting their own. The response is delivered to every waiting request. A request can cancel on its own, the
+ * call is only canceled once all of its requests are.
+ * </p>
+ * <p>
+ * Requests are keyed by their normalized url and their conditional headers, requests revalidating different
+ * cached versions of a resource aren't coalesced.
+ * </p>
+ */
+public final class InFlightRequests {
+
+  // Response bodies are read into direct buffers and handed to native without a copy on the Java heap
+  private static final int MIN_BODY_CAPACITY = 16 * 1024;
+  private static final int MAX_POOLED_BODY_CAPACITY = 4 * 1024 * 1024;
+  private static final long MAX_POOLED_BODY_BYTES = 8 * 1024 * 1024;
+  // Bodies are copied from the source into the direct buffer in chunks of this size
+  private static final int READ_CHUNK_SIZE = 8 * 1024;
+
+  private static final Map<String, SharedCall> calls = new HashMap<>();
+  private static final AtomicLong coalescedCount = new AtomicLong();
+  private static final DirectByteBufferPool bodyBuffers =
+    new DirectByteBufferPool(MIN_BODY_CAPACITY, MAX_POOLED_BODY_CAPACITY, MAX_POOLED_BODY_BYTES);
+
+  private InFlightRequests() {
+  }
+
+  /**
+   * Returns how many requests were served by a call started for another request.
+   *
+   * @return the amount of coalesced requests since the process started
+   */
+  public static long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /**
+   * Reads a body into a direct buffer from the pool, sized from its content length if known.
+   *
+   * @param source        the body
+   * @param contentLength the length of the body, -1 if unknown
+   * @param pool          the pool to acquire buffers from and release outgrown buffers to
+   * @return the buffer holding the body between position zero and its limit
+   * @throws IOException if reading the body failed
+   */
+  static ByteBuffer readBody(BufferedSource source, long contentLength, DirectByteBufferPool pool)
+    throws IOException {
+    if (contentLength > Integer.MAX_VALUE) {
+      throw new IOException("Response body too large: " + contentLength);
+    }
+
+    ByteBuffer buffer = pool.acquire(contentLength >= 0 ? Math.max((int) contentLength, 1) : MIN_BODY_CAPACITY);
+    try {
+      // read(ByteBuffer) needs okio 1.14, the byte array overloads are available in every version
+      byte[] chunk = new byte[Math.min(READ_CHUNK_SIZE, buffer.capacity())];
+      while (true) {
+        if (!buffer.hasRemaining()) {
+          if (source.exhausted()) {
+            break;
+          }
+          // unknown or wrong content length, e.g. for transparently decompressed bodies
+          ByteBuffer larger = pool.acquire(buffer.capacity() * 2);
+          buffer.flip();
+          larger.put(buffer);
+          pool.release(buffer);
+          buffer = larger;
+        }
+        int read = source.read(chunk, 0, Math.min(chunk.length, buffer.remaining()));
+        if (read == -1) {
+          break;
+        }
+        buffer.put(chunk, 0, read);
+      }
+    } catch (IOException | RuntimeException exception) {
+      pool.release(buffer);
+      throw exception;
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Adds a request to the call in flight for the same resource, or starts a new call.
+   *
+   * @param key     the normalized url and conditional headers of the request
+   * @param request the request waiting for the response
+   * @param client  the client to start a new call with
+   * @param call    the request to start a new call for
+   * @return the call the request waits for
+   */
+  static SharedCall join(String key, HTTPRequest request, OkHttpClient client, Request call) {
+    SharedCall sharedCall;
+    synchronized (calls) {
+      sharedCall = calls.get(key);
+      if (sharedCall != null) {
+        sharedCall.requests.add(request);
+        coalescedCount.incrementAndGet();
+        return sharedCall;
+      }
+
+      sharedCall = new SharedCall(key, client.newCall(call), request);
+      sharedCall.requests.add(request);
+      calls.put(key, sharedCall);
+    }
+    // started in order of priority once fewer than the maximum amount of calls are running
+    RequestScheduler.getInstance().submit(sharedCall);
+    return sharedCall;
+  }
+
+  /**
+   * A network call shared by the requests waiting for it.
+   */
+  static final class SharedCall implements Callback, RequestScheduler.ScheduledCall {
+
+    private final String key;
+    private final Call call;
+    private final String host;
+    // requests for the same resource share the same kind and tile
+    private final int kind;
+    private final int tileX;
+    private final int tileY;
+    private final int tileZ;
+    // guarded by calls
+    private final List<HTTPRequest> requests = new ArrayList<>(1);
+    private boolean finished;
+
+    private SharedCall(String key, Call call, HTTPRequest request) {
+      this.key = key;
+      this.call = call;
+      this.host = call.request().url().host();
+      this.kind = request.getKind();
+      this.tileX = request.getTileX();
+      this.tileY = request.getTileY();
+      this.tileZ = request.getTileZ();
+    }
+
+    @Override
+    public int getKind() {
+      return kind;
+    }
+
+    @Override
+    public int getTileX() {
+      return tileX;
+    }
+
+    @Override
+    public int getTileY() {
+      return tileY;
+    }
+
+    @Override
+    public int getTileZ() {
+      return tileZ;
+    }
+
+    @Override
+    public String getHost() {
+      return host;
+    }
+
+    /**
+     * Stops waiting for the response, cancels the call if no other requests wait for it.
+     *
+     * @param request the request to remove
+     */
+    void leave(HTTPRequest request) {
+      synchronized (calls) {
+        requests.remove(request);
+        if (!requests.isEmpty() || finished) {
+          return;
+        }
+        finished = true;
+        calls.remove(key);
+      }
+      // a call still waiting to be scheduled never reaches the network
+      if (!RequestScheduler.getInstance().remove(this)) {
+        call.cancel();
+      }
+    }
+
+    @Override
+    public void start() {
+      // TODO remove code block for workaround in #10303
+      if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.N_MR1) {
+        call.enqueue(this);
+      } else {
+        // Calling execute instead of enqueue is a workaround for #10303, on a bounded pool of threads
+        // instead of blocking the calling thread
+        HTTPRequest.executeSync(new Runnable() {
+          @Override
+          public void run() {
+            Response response;
+            try {
+              response = call.execute();
+            } catch (IOException exception) {
+              onFailure(call, exception);
+              return;
+            }
+            onResponse(call, response);
+          }
+        });
+      }
+    }
+
+    @Override
+    public void onStartFailure(RuntimeException exception) {
+      onFailure(call, new IOException("Failed to start the request", exception));
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) {
+      ResponseBody responseBody = response.body();
+      ByteBuffer body;
+      try {
+        body = readBody(responseBody.source(), responseBody.contentLength(), bodyBuffers);
+      } catch (IOException ioException) {
+        onFailure(call, ioException);
+        return;
+      } finally {
+        responseBody.close();
+      }
+
+      try {
+        for (HTTPRequest request : finish()) {
+          request.onResponse(response, body);
+        }
+      } finally {
+        // native copies the body while it is delivered
+        bodyBuffers.release(body);
+      }
+    }
+
+    @Override
+    public void onFailure(Call call, IOException exception) {
+      for (HTTPRequest request : finish()) {
+        request.onFailure(exception);
+      }
+    }
+
+    /**
+     * Removes this call from the calls in flight, requests for the same resource start a new call afterwards.
+     *
+     * @return the requests waiting for this call
+     */
+    private List<HTTPRequest> finish() {
+      RequestScheduler.getInstance().finished(this);
+      synchronized (calls) {
+        if (!finished) {
+          finished = true;
+          calls.remove(key);
+        }
+        List<HTTPRequest> waiting = new ArrayList<>(requests);
+        requests.clear();
+        return waiting;
+      }
+    }
+  }
+}
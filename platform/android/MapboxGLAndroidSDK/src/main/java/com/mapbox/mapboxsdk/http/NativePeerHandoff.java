@@ -0,0 +1,80 @@
+package com.mapbox.mapboxsdk.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands the native peer of a request over to either the response delivery or the cancellation, without locking.
+ * <p>
+ * The native peer is released as soon as {@link #cancel()} returns, a delivery must therefore never start after
+ * a cancellation and a cancellation must outlast a delivery that already started. Both sides race for the peer
+ * with a compare-and-set: a delivery claims it by swapping the pointer for a marker and releases it after
+ * calling into native, a cancellation clears it. Only a cancellation racing a delivery to the same peer waits,
+ * and only for the time native needs to accept the response.
+ * </p>
+ * <p>
+ * A request receives a single response, the peer is detached after it has been delivered.
+ * </p>
+ */
+final class NativePeerHandoff {
+
+  private static final long DETACHED = 0;
+  private static final long DELIVERING = -1;
+
+  private final AtomicLong peer;
+
+  NativePeerHandoff(long nativePtr) {
+    peer = new AtomicLong(nativePtr);
+  }
+
+  /**
+   * Claims the native peer for delivering a response. Every successful claim must be followed by
+   * {@link #endDelivery()}.
+   *
+   * @return true if the response can be delivered, false if the request was canceled or already answered
+   */
+  boolean beginDelivery() {
+    while (true) {
+      long current = peer.get();
+      if (current == DETACHED || current == DELIVERING) {
+        return false;
+      }
+      if (peer.compareAndSet(current, DELIVERING)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Detaches the native peer after a response has been delivered.
+   */
+  void endDelivery() {
+    peer.set(DETACHED);
+  }
+
+  /**
+   * Detaches the native peer, waits for a delivery in progress to finish.
+   */
+  void cancel() {
+    while (true) {
+      long current = peer.get();
+      if (current == DETACHED) {
+        return;
+      }
+      if (current == DELIVERING) {
+        Thread.yield();
+      } else if (peer.compareAndSet(current, DETACHED)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns if the native peer is still attached.
+   *
+   * @return true if a response can still be delivered
+   */
+  boolean isAttached() {
+    long current = peer.get();
+    return current != DETACHED && current != DELIVERING;
+  }
+}
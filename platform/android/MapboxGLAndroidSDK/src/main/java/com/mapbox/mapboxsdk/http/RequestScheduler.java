@@ -0,0 +1,378 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.storage.FileSource;
+import com.mapbox.mapboxsdk.storage.HttpClientConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Schedules network calls by priority instead of the order they were requested in.
+ * <p>
+ * Only a limited amount of calls is handed to the HTTP client at once, the others wait in a priority queue.
+ * Styles and sources come first, followed by sprites and glyphs, followed by tiles. Tiles are ordered by their
+ * distance to the center of the viewport, so visible tiles don't wait for off-screen and prefetched tiles requested
+ * before them during a pan. Tiles are re-prioritized when the camera changes, requests canceled while they wait
+ * never reach the network.
+ * </p>
+ * <p>
+ * Both the total amount of running calls and the amount of running calls per host are limited, a call for a host
+ * that reached its limit waits while calls for other hosts queued after it are started.
+ * </p>
+ */
+public final class RequestScheduler {
+
+  // matching mbgl::Resource::Kind
+  static final int KIND_UNKNOWN = 0;
+  static final int KIND_STYLE = 1;
+  static final int KIND_SOURCE = 2;
+  static final int KIND_TILE = 3;
+  static final int KIND_GLYPHS = 4;
+  static final int KIND_SPRITE_IMAGE = 5;
+  static final int KIND_SPRITE_JSON = 6;
+  static final int KIND_IMAGE = 7;
+
+  // Tiles of other zoom levels than the viewport, e.g. prefetched parents, rank as this many tiles further away
+  private static final double ZOOM_LEVEL_DISTANCE = 2;
+
+  private static final RequestScheduler instance = create(FileSource.getHttpClientConfig());
+
+  private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+  private final Map<ScheduledCall, Entry> queued = new HashMap<>();
+  private final Set<ScheduledCall> running = new HashSet<>();
+  // queued and running calls of every host with calls
+  private final Map<String, HostCount> hosts = new HashMap<>();
+  private int maxRunning;
+  private int maxRunningPerHost;
+  private long sequence;
+
+  // set on the main thread without locking, the queue is rescored lazily when calls are dispatched
+  private volatile Viewport viewport;
+  private Viewport scoredViewport;
+
+  RequestScheduler(int maxRunning, int maxRunningPerHost) {
+    this.maxRunning = maxRunning;
+    this.maxRunningPerHost = maxRunningPerHost;
+  }
+
+  static RequestScheduler getInstance() {
+    return instance;
+  }
+
+  private static RequestScheduler create(HttpClientConfig config) {
+    return new RequestScheduler(config.getMaxRequests(), config.getMaxRequestsPerHost());
+  }
+
+  /**
+   * Do not use this method, used internally by {@link FileSource#setViewport(double, double, double)}.
+   * <p>
+   * Sets the viewport pending tile requests are prioritized by.
+   * </p>
+   * <p>
+   * Requests aren't associated with the map they were made for, the viewport is shared by all maps of the process
+   * and set by the map whose camera changed last. With several maps showing different regions, the tiles of the
+   * other maps are prioritized by their distance to that viewport too.
+   * </p>
+   *
+   * @param latitude  the latitude of the center of the viewport
+   * @param longitude the longitude of the center of the viewport
+   * @param zoom      the zoom level of the viewport
+   */
+  public static void setViewport(double latitude, double longitude, double zoom) {
+    instance.updateViewport(latitude, longitude, zoom);
+  }
+
+  /**
+   * A network call that can be scheduled.
+   */
+  interface ScheduledCall {
+
+    int getKind();
+
+    int getTileX();
+
+    int getTileY();
+
+    int getTileZ();
+
+    String getHost();
+
+    /**
+     * Starts the call. The scheduler needs to be notified with {@link #finished(ScheduledCall)} when it completes.
+     */
+    void start();
+
+    /**
+     * Called instead of completing if {@link #start()} threw, the slot of the call was freed already.
+     *
+     * @param exception the exception thrown by start
+     */
+    void onStartFailure(RuntimeException exception);
+  }
+
+  /**
+   * Starts a call, or queues it if the maximum amount of calls is running.
+   *
+   * @param call the call to start
+   */
+  void submit(@NonNull ScheduledCall call) {
+    synchronized (this) {
+      Entry entry = new Entry(call, sequence++);
+      entry.updateScore(viewport);
+      queued.put(call, entry);
+      queue.add(entry);
+      HostCount count = hosts.get(entry.host);
+      if (count == null) {
+        count = new HostCount();
+        hosts.put(entry.host, count);
+      }
+      count.queued++;
+    }
+    dispatch();
+  }
+
+  /**
+   * Removes a call waiting to be started.
+   *
+   * @param call the call to remove
+   * @return true if the call was waiting and will never be started, false if it was started already
+   */
+  synchronized boolean remove(@NonNull ScheduledCall call) {
+    Entry entry = queued.remove(call);
+    if (entry == null) {
+      return false;
+    }
+    queue.remove(entry);
+    HostCount count = hosts.get(entry.host);
+    count.queued--;
+    removeIfUnused(entry.host, count);
+    return true;
+  }
+
+  /**
+   * Frees the slot of a completed call and starts the next calls waiting.
+   *
+   * @param call the completed call
+   */
+  void finished(@NonNull ScheduledCall call) {
+    if (release(call)) {
+      dispatch();
+    }
+  }
+
+  /**
+   * Sets the maximum amount of calls running at the same time.
+   *
+   * @param maxRunning        the maximum amount of concurrent calls
+   * @param maxRunningPerHost the maximum amount of concurrent calls to a single host
+   */
+  void setMaxRunning(int maxRunning, int maxRunningPerHost) {
+    synchronized (this) {
+      this.maxRunning = maxRunning;
+      this.maxRunningPerHost = maxRunningPerHost;
+    }
+    dispatch();
+  }
+
+  void updateViewport(double latitude, double longitude, double zoom) {
+    viewport = new Viewport(latitude, longitude, zoom);
+  }
+
+  synchronized int getQueuedCount() {
+    return queue.size();
+  }
+
+  synchronized int getRunningCount() {
+    return running.size();
+  }
+
+  private void dispatch() {
+    List<ScheduledCall> starting = new ArrayList<>();
+    boolean failed;
+    do {
+      Viewport current = viewport;
+      synchronized (this) {
+        if (current != scoredViewport && !queue.isEmpty()) {
+          List<Entry> entries = new ArrayList<>(queue);
+          queue.clear();
+          for (Entry entry : entries) {
+            entry.updateScore(current);
+          }
+          queue.addAll(entries);
+        }
+        scoredViewport = current;
+        pollStartable(starting);
+      }
+
+      failed = false;
+      for (ScheduledCall call : starting) {
+        try {
+          call.start();
+        } catch (RuntimeException exception) {
+          // e.g. a rejected execution, the slot goes to the next call waiting
+          release(call);
+          call.onStartFailure(exception);
+          failed = true;
+        }
+      }
+      starting.clear();
+    } while (failed);
+  }
+
+  /**
+   * Moves the calls to start from the queue to the running calls, in order of priority.
+   *
+   * @param starting the list to add the calls to start to
+   */
+  private void pollStartable(List<ScheduledCall> starting) {
+    // calls of hosts below their limit, the queue is only polled while one of them is left
+    int startable = 0;
+    for (HostCount count : hosts.values()) {
+      if (count.running < maxRunningPerHost) {
+        startable += count.queued;
+      }
+    }
+
+    List<Entry> deferred = null;
+    while (running.size() < maxRunning && startable > 0 && !queue.isEmpty()) {
+      Entry entry = queue.poll();
+      HostCount count = hosts.get(entry.host);
+      if (count.running >= maxRunningPerHost) {
+        if (deferred == null) {
+          deferred = new ArrayList<>();
+        }
+        deferred.add(entry);
+        continue;
+      }
+
+      queued.remove(entry.call);
+      running.add(entry.call);
+      starting.add(entry.call);
+      count.queued--;
+      count.running++;
+      startable--;
+      if (count.running == maxRunningPerHost) {
+        startable -= count.queued;
+      }
+    }
+    if (deferred != null) {
+      queue.addAll(deferred);
+    }
+  }
+
+  /**
+   * Frees the slot of a running call.
+   *
+   * @param call the call
+   * @return true if the call was running
+   */
+  private synchronized boolean release(ScheduledCall call) {
+    if (!running.remove(call)) {
+      return false;
+    }
+    String host = call.getHost();
+    HostCount count = hosts.get(host);
+    count.running--;
+    removeIfUnused(host, count);
+    return true;
+  }
+
+  private void removeIfUnused(String host, HostCount count) {
+    if (count.queued == 0 && count.running == 0) {
+      hosts.remove(host);
+    }
+  }
+
+  private static int rankOf(int kind) {
+    switch (kind) {
+      case KIND_STYLE:
+        return 0;
+      case KIND_SOURCE:
+        return 1;
+      case KIND_SPRITE_JSON:
+      case KIND_SPRITE_IMAGE:
+      case KIND_GLYPHS:
+        return 2;
+      case KIND_TILE:
+        return 3;
+      default:
+        return 4;
+    }
+  }
+
+  private static final class Entry implements Comparable<Entry> {
+
+    private final ScheduledCall call;
+    private final String host;
+    private final long sequence;
+    private final int rank;
+    private double score;
+
+    Entry(ScheduledCall call, long sequence) {
+      this.call = call;
+      this.host = call.getHost();
+      this.sequence = sequence;
+      this.rank = rankOf(call.getKind());
+    }
+
+    void updateScore(Viewport viewport) {
+      if (call.getKind() != KIND_TILE || viewport == null) {
+        score = 0;
+        return;
+      }
+
+      // distance in tiles of the call's zoom level, wrapping around the antimeridian
+      double scale = Math.pow(2, call.getTileZ());
+      double dx = Math.abs(call.getTileX() + 0.5 - viewport.x * scale);
+      dx = Math.min(dx, Math.abs(scale - dx));
+      double dy = call.getTileY() + 0.5 - viewport.y * scale;
+      score = Math.sqrt(dx * dx + dy * dy)
+        + ZOOM_LEVEL_DISTANCE * Math.abs(call.getTileZ() - Math.floor(viewport.zoom));
+    }
+
+    @Override
+    public int compareTo(@NonNull Entry other) {
+      if (rank != other.rank) {
+        return rank < other.rank ? -1 : 1;
+      }
+      int compare = Double.compare(score, other.score);
+      if (compare != 0) {
+        return compare;
+      }
+      return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+  }
+
+  /**
+   * The center and zoom level of the viewport, immutable so it can be replaced without locking.
+   */
+  private static final class Viewport {
+
+    // spherical mercator, both in the range [0, 1]
+    private final double x;
+    private final double y;
+    private final double zoom;
+
+    Viewport(double latitude, double longitude, double zoom) {
+      double sinLatitude = Math.sin(Math.toRadians(Math.max(Math.min(latitude, 85.0511), -85.0511)));
+      // the longitude of the transform isn't wrapped to the world copy the camera is in
+      double wrapped = longitude - 360 * Math.floor((longitude + 180) / 360);
+      this.x = (wrapped + 180) / 360;
+      this.y = 0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude)) / (4 * Math.PI);
+      this.zoom = zoom;
+    }
+  }
+
+  private static final class HostCount {
+
+    private int queued;
+    private int running;
+  }
+}
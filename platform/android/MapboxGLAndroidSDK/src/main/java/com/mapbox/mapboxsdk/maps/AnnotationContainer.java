@@ -2,7 +2,6 @@ package com.mapbox.mapboxsdk.maps;
 
 
 import android.support.annotation.NonNull;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 
@@ -15,9 +14,9 @@ import java.util.List;
 class AnnotationContainer implements Annotations {
 
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final LongHashMap<Annotation> annotations;
 
-  AnnotationContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  AnnotationContainer(NativeMapView nativeMapView, LongHashMap<Annotation> annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
@@ -31,7 +30,7 @@ class AnnotationContainer implements Annotations {
   public List<Annotation> obtainAll() {
     List<Annotation> annotations = new ArrayList<>();
     for (int i = 0; i < this.annotations.size(); i++) {
-      annotations.add(this.annotations.get(this.annotations.keyAt(i)));
+      annotations.add(this.annotations.valueAt(i));
     }
     return annotations;
   }
@@ -60,9 +59,7 @@ class AnnotationContainer implements Annotations {
 
     removeNativeAnnotations(ids);
 
-    for (long id : ids) {
-      annotations.remove(id);
-    }
+    annotations.removeAll(ids);
   }
 
   @Override
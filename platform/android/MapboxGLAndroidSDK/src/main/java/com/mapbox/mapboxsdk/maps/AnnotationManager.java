@@ -4,6 +4,7 @@ import android.graphics.Bitmap;
 import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.os.AsyncTask;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.util.LongSparseArray;
@@ -14,13 +15,20 @@ import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
+import com.mapbox.mapboxsdk.annotations.ClusterOptions;
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.IconFactory;
 import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
 import com.mapbox.mapboxsdk.annotations.Polygon;
 import com.mapbox.mapboxsdk.annotations.PolygonOptions;
 import com.mapbox.mapboxsdk.annotations.Polyline;
 import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,8 +54,11 @@ class AnnotationManager {
   private final IconManager iconManager;
   private final InfoWindowManager infoWindowManager = new InfoWindowManager();
   private final MarkerViewManager markerViewManager;
-  private final LongSparseArray<Annotation> annotationsArray;
+  private final LongHashMap<Annotation> annotationsArray;
   private final List<Marker> selectedMarkers = new ArrayList<>();
+  private final LongSparseArray<Marker> pendingMarkerUpdates = new LongSparseArray<>();
+  private final LongSparseArray<Polyline> pendingPolylineUpdates = new LongSparseArray<>();
+  private final LongSparseArray<Polygon> pendingPolygonUpdates = new LongSparseArray<>();
 
   private MapboxMap mapboxMap;
   private MapboxMap.OnMarkerClickListener onMarkerClickListener;
@@ -59,8 +70,11 @@ class AnnotationManager {
   private Markers markers;
   private Polygons polygons;
   private Polylines polylines;
+  private MarkerClusters markerClusters;
 
-  AnnotationManager(NativeMapView view, MapView mapView, LongSparseArray<Annotation> annotationsArray,
+  private int transactionDepth;
+
+  AnnotationManager(NativeMapView view, MapView mapView, LongHashMap<Annotation> annotationsArray,
                     MarkerViewManager markerViewManager, IconManager iconManager, Annotations annotations,
                     Markers markers, Polygons polygons, Polylines polylines, ShapeAnnotations shapeAnnotations) {
     this.mapView = mapView;
@@ -89,6 +103,7 @@ class AnnotationManager {
   void update() {
     markerViewManager.update();
     infoWindowManager.update();
+    updateClusters();
   }
 
   //
@@ -104,13 +119,14 @@ class AnnotationManager {
   }
 
   void removeAnnotation(long id) {
+    shapeAnnotations.remove(id);
     annotations.removeBy(id);
   }
 
   void removeAnnotation(@NonNull Annotation annotation) {
     if (annotation instanceof Marker) {
       Marker marker = (Marker) annotation;
-      marker.hideInfoWindow();
+      infoWindowManager.close(marker);
       if (selectedMarkers.contains(marker)) {
         selectedMarkers.remove(marker);
       }
@@ -121,6 +137,8 @@ class AnnotationManager {
         // do icon cleanup
         iconManager.iconCleanup(marker.getIcon());
       }
+    } else {
+      shapeAnnotations.remove(annotation.getId());
     }
     annotations.removeBy(annotation);
   }
@@ -129,7 +147,7 @@ class AnnotationManager {
     for (Annotation annotation : annotationList) {
       if (annotation instanceof Marker) {
         Marker marker = (Marker) annotation;
-        marker.hideInfoWindow();
+        infoWindowManager.close(marker);
         if (selectedMarkers.contains(marker)) {
           selectedMarkers.remove(marker);
         }
@@ -139,6 +157,8 @@ class AnnotationManager {
         } else {
           iconManager.iconCleanup(marker.getIcon());
         }
+      } else {
+        shapeAnnotations.remove(annotation.getId());
       }
     }
     annotations.removeBy(annotationList);
@@ -154,7 +174,7 @@ class AnnotationManager {
       annotation = annotationsArray.get(ids[i]);
       if (annotation instanceof Marker) {
         Marker marker = (Marker) annotation;
-        marker.hideInfoWindow();
+        infoWindowManager.close(marker);
         if (marker instanceof MarkerView) {
           markerViewManager.removeMarkerView((MarkerView) marker);
         } else {
@@ -162,6 +182,10 @@ class AnnotationManager {
         }
       }
     }
+    if (markerClusters != null) {
+      markerClusters.clear(new ArrayList<Marker>());
+    }
+    shapeAnnotations.removeAll();
     annotations.removeAll();
   }
 
@@ -177,14 +201,62 @@ class AnnotationManager {
     return markers.addBy(markerOptionsList, mapboxMap);
   }
 
+  List<Marker> addMarkers(@NonNull double[] latitudes, @NonNull double[] longitudes, @Nullable Icon icon,
+                          @NonNull MapboxMap mapboxMap) {
+    return markers.addBy(latitudes, longitudes, icon, mapboxMap);
+  }
+
   void updateMarker(@NonNull Marker updatedMarker, @NonNull MapboxMap mapboxMap) {
     if (!isAddedToMap(updatedMarker)) {
       logNonAdded(updatedMarker);
       return;
     }
+
+    if (isInTransaction()) {
+      pendingMarkerUpdates.put(updatedMarker.getId(), updatedMarker);
+      return;
+    }
     markers.update(updatedMarker, mapboxMap);
   }
 
+  void updateMarkers(@NonNull List<Marker> updatedMarkers, @NonNull MapboxMap mapboxMap) {
+    List<Marker> addedMarkers = new ArrayList<>(updatedMarkers.size());
+    for (Marker updatedMarker : updatedMarkers) {
+      if (!isAddedToMap(updatedMarker)) {
+        logNonAdded(updatedMarker);
+      } else if (isInTransaction()) {
+        pendingMarkerUpdates.put(updatedMarker.getId(), updatedMarker);
+      } else {
+        addedMarkers.add(updatedMarker);
+      }
+    }
+
+    if (!addedMarkers.isEmpty()) {
+      markers.update(addedMarkers, mapboxMap);
+    }
+  }
+
+  void updateMarkers(@NonNull long[] ids, @NonNull double[] latitudes, @NonNull double[] longitudes,
+                     @NonNull MapboxMap mapboxMap) {
+    if (ids.length != latitudes.length || ids.length != longitudes.length) {
+      throw new IllegalArgumentException("ids, latitudes and longitudes need to be of equal length");
+    }
+
+    // Marker#setPosition routes back into updateMarker, collect those calls and flush them at once
+    beginTransaction();
+    try {
+      Annotation annotation;
+      for (int i = 0; i < ids.length; i++) {
+        annotation = annotations.obtainBy(ids[i]);
+        if (annotation instanceof Marker) {
+          ((Marker) annotation).setPosition(new LatLng(latitudes[i], longitudes[i]));
+        }
+      }
+    } finally {
+      commitTransaction();
+    }
+  }
+
   List<Marker> getMarkers() {
     return markers.obtainAll();
   }
@@ -212,16 +284,74 @@ class AnnotationManager {
     markers.reload();
   }
 
+  //
+  // Clustered markers
+  //
+
+  void setClusteredMarkers(@NonNull List<? extends BaseMarkerOptions> markerOptionsList,
+                           @NonNull ClusterOptions clusterOptions) {
+    if (markerClusters == null) {
+      markerClusters = new MarkerClusters(AsyncTask.THREAD_POOL_EXECUTOR, new Runnable() {
+        @Override
+        public void run() {
+          updateClusters();
+        }
+      });
+    }
+    markerClusters.load(markerOptionsList, clusterOptions);
+  }
+
+  void clearClusteredMarkers() {
+    if (markerClusters == null) {
+      return;
+    }
+
+    List<Marker> removedMarkers = new ArrayList<>();
+    markerClusters.clear(removedMarkers);
+    removeAddedMarkers(removedMarkers);
+  }
+
+  private void updateClusters() {
+    if (markerClusters == null || mapboxMap == null) {
+      return;
+    }
+
+    List<Marker> addedMarkers = new ArrayList<>();
+    List<Marker> removedMarkers = new ArrayList<>();
+    markerClusters.update(mapboxMap.getProjection(), addedMarkers, removedMarkers);
+    removeAddedMarkers(removedMarkers);
+    if (!addedMarkers.isEmpty()) {
+      markers.add(addedMarkers, mapboxMap);
+    }
+  }
+
+  private void removeAddedMarkers(List<Marker> removedMarkers) {
+    List<Marker> markersOnMap = new ArrayList<>(removedMarkers.size());
+    for (Marker marker : removedMarkers) {
+      // skip markers the user removed in the meantime
+      if (isAddedToMap(marker)) {
+        markersOnMap.add(marker);
+      }
+    }
+    if (!markersOnMap.isEmpty()) {
+      removeAnnotations(markersOnMap);
+    }
+  }
+
   //
   // Polygons
   //
 
   Polygon addPolygon(@NonNull PolygonOptions polygonOptions, @NonNull MapboxMap mapboxMap) {
-    return polygons.addBy(polygonOptions, mapboxMap);
+    Polygon polygon = polygons.addBy(polygonOptions, mapboxMap);
+    shapeAnnotations.index(polygon);
+    return polygon;
   }
 
   List<Polygon> addPolygons(@NonNull List<PolygonOptions> polygonOptionsList, @NonNull MapboxMap mapboxMap) {
-    return polygons.addBy(polygonOptionsList, mapboxMap);
+    List<Polygon> addedPolygons = polygons.addBy(polygonOptionsList, mapboxMap);
+    shapeAnnotations.index(addedPolygons);
+    return addedPolygons;
   }
 
   void updatePolygon(Polygon polygon) {
@@ -229,7 +359,13 @@ class AnnotationManager {
       logNonAdded(polygon);
       return;
     }
+
+    if (isInTransaction()) {
+      pendingPolygonUpdates.put(polygon.getId(), polygon);
+      return;
+    }
     polygons.update(polygon);
+    shapeAnnotations.index(polygon);
   }
 
   List<Polygon> getPolygons() {
@@ -241,11 +377,15 @@ class AnnotationManager {
   //
 
   Polyline addPolyline(@NonNull PolylineOptions polylineOptions, @NonNull MapboxMap mapboxMap) {
-    return polylines.addBy(polylineOptions, mapboxMap);
+    Polyline polyline = polylines.addBy(polylineOptions, mapboxMap);
+    shapeAnnotations.index(polyline);
+    return polyline;
   }
 
   List<Polyline> addPolylines(@NonNull List<PolylineOptions> polylineOptionsList, @NonNull MapboxMap mapboxMap) {
-    return polylines.addBy(polylineOptionsList, mapboxMap);
+    List<Polyline> addedPolylines = polylines.addBy(polylineOptionsList, mapboxMap);
+    shapeAnnotations.index(addedPolylines);
+    return addedPolylines;
   }
 
   void updatePolyline(Polyline polyline) {
@@ -253,13 +393,76 @@ class AnnotationManager {
       logNonAdded(polyline);
       return;
     }
+
+    if (isInTransaction()) {
+      pendingPolylineUpdates.put(polyline.getId(), polyline);
+      return;
+    }
     polylines.update(polyline);
+    shapeAnnotations.index(polyline);
   }
 
   List<Polyline> getPolylines() {
     return polylines.obtainAll();
   }
 
+  //
+  // Transactions
+  //
+
+  void beginTransaction() {
+    transactionDepth++;
+  }
+
+  void commitTransaction() {
+    if (transactionDepth == 0) {
+      throw new IllegalStateException("Committing an annotation transaction that was never started");
+    }
+
+    transactionDepth--;
+    if (transactionDepth == 0) {
+      flushPendingUpdates();
+    }
+  }
+
+  boolean isInTransaction() {
+    return transactionDepth > 0;
+  }
+
+  private void flushPendingUpdates() {
+    List<Marker> updatedMarkers = obtainPendingUpdates(pendingMarkerUpdates);
+    if (!updatedMarkers.isEmpty()) {
+      markers.update(updatedMarkers, mapboxMap);
+    }
+
+    List<Polyline> updatedPolylines = obtainPendingUpdates(pendingPolylineUpdates);
+    if (!updatedPolylines.isEmpty()) {
+      polylines.update(updatedPolylines);
+      shapeAnnotations.index(updatedPolylines);
+    }
+
+    List<Polygon> updatedPolygons = obtainPendingUpdates(pendingPolygonUpdates);
+    if (!updatedPolygons.isEmpty()) {
+      polygons.update(updatedPolygons);
+      shapeAnnotations.index(updatedPolygons);
+    }
+  }
+
+  private <T extends Annotation> List<T> obtainPendingUpdates(LongSparseArray<T> pendingUpdates) {
+    int count = pendingUpdates.size();
+    List<T> updates = new ArrayList<>(count);
+    T annotation;
+    for (int i = 0; i < count; i++) {
+      annotation = pendingUpdates.valueAt(i);
+      // skip annotations removed while the transaction was open
+      if (isAddedToMap(annotation)) {
+        updates.add(annotation);
+      }
+    }
+    pendingUpdates.clear();
+    return updates;
+  }
+
   // TODO Refactor from here still in progress
   void setOnMarkerClickListener(@Nullable MapboxMap.OnMarkerClickListener listener) {
     onMarkerClickListener = listener;
@@ -289,7 +492,7 @@ class AnnotationManager {
     }
 
     if (infoWindowManager.isInfoWindowValidForMarker(marker) || infoWindowManager.getInfoWindowAdapter() != null) {
-      infoWindowManager.add(marker.showInfoWindow(mapboxMap, mapView));
+      infoWindowManager.open(marker, mapboxMap, mapView);
     }
 
     // only add to selected markers if user didn't handle the click event themselves #3176
@@ -303,7 +506,7 @@ class AnnotationManager {
 
     for (Marker marker : selectedMarkers) {
       if (marker.isInfoWindowShown()) {
-        marker.hideInfoWindow();
+        infoWindowManager.close(marker);
       }
 
       if (marker instanceof MarkerView) {
@@ -321,7 +524,7 @@ class AnnotationManager {
     }
 
     if (marker.isInfoWindowShown()) {
-      marker.hideInfoWindow();
+      infoWindowManager.close(marker);
     }
 
     if (marker instanceof MarkerView) {
@@ -343,10 +546,26 @@ class AnnotationManager {
     return markerViewManager;
   }
 
+  AnnotationSnapshot saveAnnotations() {
+    return AnnotationSnapshot.save(getAnnotations());
+  }
+
+  void restoreAnnotations(@NonNull AnnotationSnapshot snapshot, @NonNull MapboxMap mapboxMap) {
+    List<MarkerOptions> markerOptions = new ArrayList<>();
+    List<PolylineOptions> polylineOptions = new ArrayList<>();
+    List<PolygonOptions> polygonOptions = new ArrayList<>();
+    snapshot.restore(IconFactory.getInstance(mapView.getContext()), markerOptions, polylineOptions, polygonOptions);
+
+    // each type of annotation is added with a single native call
+    addMarkers(markerOptions, mapboxMap);
+    addPolylines(polylineOptions, mapboxMap);
+    addPolygons(polygonOptions, mapboxMap);
+  }
+
   void adjustTopOffsetPixels(MapboxMap mapboxMap) {
     int count = annotationsArray.size();
     for (int i = 0; i < count; i++) {
-      Annotation annotation = annotationsArray.get(i);
+      Annotation annotation = annotationsArray.valueAt(i);
       if (annotation instanceof Marker) {
         Marker marker = (Marker) annotation;
         marker.setTopOffsetPixels(
@@ -356,14 +575,14 @@ class AnnotationManager {
 
     for (Marker marker : selectedMarkers) {
       if (marker.isInfoWindowShown()) {
-        marker.hideInfoWindow();
-        marker.showInfoWindow(mapboxMap, mapView);
+        infoWindowManager.close(marker);
+        infoWindowManager.open(marker, mapboxMap, mapView);
       }
     }
   }
 
   private boolean isAddedToMap(Annotation annotation) {
-    return annotation != null && annotation.getId() != -1 && annotationsArray.indexOfKey(annotation.getId()) > -1;
+    return annotation != null && annotation.getId() != -1 && annotationsArray.containsKey(annotation.getId());
   }
 
   private void logNonAdded(Annotation annotation) {
@@ -376,7 +595,8 @@ class AnnotationManager {
 
   boolean onTap(PointF tapPoint) {
     ShapeAnnotationHit shapeAnnotationHit = getShapeAnnotationHitFromTap(tapPoint);
-    Annotation annotation = new ShapeAnnotationHitResolver(shapeAnnotations).execute(shapeAnnotationHit);
+    Annotation annotation = new ShapeAnnotationHitResolver(shapeAnnotations, mapboxMap.getProjection())
+      .execute(shapeAnnotationHit);
     if (annotation != null) {
       if (handleClickForShapeAnnotation(annotation)) {
         return true;
@@ -431,11 +651,20 @@ class AnnotationManager {
     }
 
     if (!handledDefaultClick) {
-      toggleMarkerSelectionState(marker);
+      if (marker instanceof ClusterMarker) {
+        expandCluster((ClusterMarker) marker);
+      } else {
+        toggleMarkerSelectionState(marker);
+      }
     }
     return true;
   }
 
+  private void expandCluster(ClusterMarker clusterMarker) {
+    mapboxMap.animateCamera(
+      CameraUpdateFactory.newLatLngZoom(clusterMarker.getPosition(), clusterMarker.getExpansionZoom()));
+  }
+
   private boolean onClickMarker(Marker marker) {
     return onMarkerClickListener != null && onMarkerClickListener.onMarkerClick(marker);
   }
@@ -451,14 +680,16 @@ class AnnotationManager {
   private static class ShapeAnnotationHitResolver {
 
     private ShapeAnnotations shapeAnnotations;
+    private Projection projection;
 
-    ShapeAnnotationHitResolver(ShapeAnnotations shapeAnnotations) {
+    ShapeAnnotationHitResolver(ShapeAnnotations shapeAnnotations, Projection projection) {
       this.shapeAnnotations = shapeAnnotations;
+      this.projection = projection;
     }
 
     public Annotation execute(ShapeAnnotationHit shapeHit) {
       Annotation foundAnnotation = null;
-      List<Annotation> annotations = shapeAnnotations.obtainAllIn(shapeHit.tapPoint);
+      List<Annotation> annotations = shapeAnnotations.obtainAllIn(shapeHit.tapPoint, projection);
       if (annotations.size() > 0) {
         foundAnnotation = annotations.get(0);
       }
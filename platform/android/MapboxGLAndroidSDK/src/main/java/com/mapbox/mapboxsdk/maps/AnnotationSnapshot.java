@@ -0,0 +1,422 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.IconFactory;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.PolygonOptions;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of the markers, polylines and polygons of a map.
+ * <p>
+ * A snapshot allows to restore the annotations after a configuration change without rebuilding them from the
+ * app's data. It can be kept in a retained fragment, or stored with {@link #toByteArray()} and read back with
+ * {@link #fromByteArray(byte[])}. Restoring adds the markers, polylines and polygons with a single call to the map
+ * each.
+ * </p>
+ * <p>
+ * Icons are stored once per distinct image, identified by a hash of their pixels, and coordinates are stored as
+ * packed arrays. Marker views and the markers shown for clustered markers aren't part of a snapshot, those need
+ * to be added again.
+ * </p>
+ * <h3>Example</h3>
+ * <pre>
+ * AnnotationSnapshot snapshot = mapboxMap.saveAnnotations();
+ * // after the map was recreated
+ * mapboxMap.restoreAnnotations(snapshot);
+ * </pre>
+ */
+public final class AnnotationSnapshot {
+
+  // "MBAS"
+  private static final int MAGIC = 0x4D424153;
+  private static final int VERSION = 1;
+  private static final int NO_ICON = -1;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final byte[] data;
+
+  private AnnotationSnapshot(byte[] data) {
+    this.data = data;
+  }
+
+  /**
+   * Returns the snapshot as bytes, for example to write it to a file.
+   *
+   * @return a copy of the encoded snapshot
+   */
+  @NonNull
+  public byte[] toByteArray() {
+    return Arrays.copyOf(data, data.length);
+  }
+
+  /**
+   * Creates a snapshot from bytes previously returned by {@link #toByteArray()}.
+   *
+   * @param bytes the encoded snapshot
+   * @return the snapshot
+   * @throws IllegalArgumentException if the bytes aren't an encoded snapshot of a supported version
+   */
+  @NonNull
+  public static AnnotationSnapshot fromByteArray(@NonNull byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (bytes.length < 8 || buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Bytes are not an annotation snapshot");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported annotation snapshot version " + version);
+    }
+    return new AnnotationSnapshot(Arrays.copyOf(bytes, bytes.length));
+  }
+
+  /**
+   * Returns the size of the encoded snapshot.
+   *
+   * @return the amount of bytes
+   */
+  public int getByteCount() {
+    return data.length;
+  }
+
+  /**
+   * Encodes annotations into a snapshot, in the order they are given.
+   *
+   * @param annotations the annotations to save
+   * @return the snapshot
+   */
+  static AnnotationSnapshot save(@NonNull List<Annotation> annotations) {
+    List<Marker> markers = new ArrayList<>();
+    List<Polyline> polylines = new ArrayList<>();
+    List<Polygon> polygons = new ArrayList<>();
+    for (Annotation annotation : annotations) {
+      if (annotation instanceof MarkerView || annotation instanceof ClusterMarker) {
+        continue;
+      }
+      if (annotation instanceof Marker) {
+        markers.add((Marker) annotation);
+      } else if (annotation instanceof Polyline) {
+        polylines.add((Polyline) annotation);
+      } else if (annotation instanceof Polygon) {
+        polygons.add((Polygon) annotation);
+      }
+    }
+
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeMarkers(out, markers);
+      writePolylines(out, polylines);
+      writePolygons(out, polygons);
+      out.flush();
+      return new AnnotationSnapshot(bytes.toByteArray());
+    } catch (IOException exception) {
+      // writing to memory doesn't fail
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  /**
+   * Decodes the annotations of this snapshot.
+   *
+   * @param iconFactory     the factory to recreate icons with, may be null when the snapshot has no icons
+   * @param markerOptions   receives the markers
+   * @param polylineOptions receives the polylines
+   * @param polygonOptions  receives the polygons
+   */
+  void restore(@Nullable IconFactory iconFactory, @NonNull List<MarkerOptions> markerOptions,
+               @NonNull List<PolylineOptions> polylineOptions, @NonNull List<PolygonOptions> polygonOptions) {
+    ByteBuffer in = ByteBuffer.wrap(data);
+    in.position(8);
+    try {
+      readMarkers(in, iconFactory, markerOptions);
+      readPolylines(in, polylineOptions);
+      readPolygons(in, polygonOptions);
+    } catch (BufferUnderflowException exception) {
+      throw new IllegalArgumentException("Annotation snapshot is truncated", exception);
+    }
+  }
+
+  private static void writeMarkers(DataOutputStream out, List<Marker> markers) throws IOException {
+    // icons are written first, markers refer to them by index
+    List<IconPixels> icons = new ArrayList<>();
+    Map<Icon, Integer> iconIndices = new HashMap<>();
+    Map<IconPixels, Integer> contentIndices = new HashMap<>();
+    int count = markers.size();
+    int[] markerIcons = new int[count];
+    double[] positions = new double[count * 2];
+    for (int i = 0; i < count; i++) {
+      Marker marker = markers.get(i);
+      LatLng position = marker.getPosition();
+      positions[i * 2] = position.getLatitude();
+      positions[i * 2 + 1] = position.getLongitude();
+
+      Icon icon = marker.getIcon();
+      if (icon == null) {
+        markerIcons[i] = NO_ICON;
+        continue;
+      }
+      Integer index = iconIndices.get(icon);
+      if (index == null) {
+        IconPixels pixels = new IconPixels(icon.getBitmap());
+        index = contentIndices.get(pixels);
+        if (index == null) {
+          index = icons.size();
+          icons.add(pixels);
+          contentIndices.put(pixels, index);
+        }
+        iconIndices.put(icon, index);
+      }
+      markerIcons[i] = index;
+    }
+
+    out.writeInt(icons.size());
+    for (IconPixels icon : icons) {
+      out.writeInt(icon.width);
+      out.writeInt(icon.height);
+      out.writeInt(icon.density);
+      out.writeInt(icon.pixels.length);
+      out.write(icon.pixels);
+    }
+
+    out.writeInt(count);
+    writeDoubles(out, positions, positions.length);
+    for (int i = 0; i < count; i++) {
+      Marker marker = markers.get(i);
+      out.writeInt(markerIcons[i]);
+      writeString(out, marker.getTitle());
+      writeString(out, marker.getSnippet());
+    }
+  }
+
+  private static void readMarkers(ByteBuffer in, IconFactory iconFactory, List<MarkerOptions> markerOptions) {
+    int iconCount = readCount(in, 16);
+    Icon[] icons = new Icon[iconCount];
+    for (int i = 0; i < iconCount; i++) {
+      int width = in.getInt();
+      int height = in.getInt();
+      int density = in.getInt();
+      int byteCount = readCount(in, 1);
+      if (width <= 0 || height <= 0 || byteCount != width * height * 4) {
+        throw new IllegalArgumentException("Annotation snapshot contains an invalid icon");
+      }
+      if (iconFactory == null) {
+        throw new IllegalStateException("Restoring icons requires an icon factory");
+      }
+      Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+      ByteBuffer pixels = in.slice();
+      pixels.limit(byteCount);
+      bitmap.copyPixelsFromBuffer(pixels);
+      bitmap.setDensity(density);
+      in.position(in.position() + byteCount);
+      // images already used by the app resolve to the same icon
+      icons[i] = iconFactory.fromBitmap(bitmap);
+    }
+
+    int count = readCount(in, 16);
+    double[] positions = readDoubles(in, count * 2);
+    for (int i = 0; i < count; i++) {
+      int icon = in.getInt();
+      if (icon < NO_ICON || icon >= iconCount) {
+        throw new IllegalArgumentException("Annotation snapshot refers to a missing icon");
+      }
+      markerOptions.add(new MarkerOptions()
+        .position(new LatLng(positions[i * 2], positions[i * 2 + 1]))
+        .icon(icon == NO_ICON ? null : icons[icon])
+        .title(readString(in))
+        .snippet(readString(in)));
+    }
+  }
+
+  private static void writePolylines(DataOutputStream out, List<Polyline> polylines) throws IOException {
+    out.writeInt(polylines.size());
+    for (Polyline polyline : polylines) {
+      out.writeInt(polyline.getColor());
+      out.writeFloat(polyline.getWidth());
+      out.writeFloat(polyline.getAlpha());
+      out.writeInt(polyline.getSimplificationZoom());
+      writePoints(out, polyline.getPackedPoints());
+    }
+  }
+
+  private static void readPolylines(ByteBuffer in, List<PolylineOptions> polylineOptions) {
+    int count = readCount(in, 20);
+    for (int i = 0; i < count; i++) {
+      polylineOptions.add(new PolylineOptions()
+        .color(in.getInt())
+        .width(in.getFloat())
+        .alpha(in.getFloat())
+        .simplificationZoom(in.getInt())
+        .addAll(readPoints(in)));
+    }
+  }
+
+  private static void writePolygons(DataOutputStream out, List<Polygon> polygons) throws IOException {
+    out.writeInt(polygons.size());
+    for (Polygon polygon : polygons) {
+      out.writeInt(polygon.getFillColor());
+      out.writeInt(polygon.getStrokeColor());
+      out.writeFloat(polygon.getAlpha());
+      out.writeInt(polygon.getSimplificationZoom());
+      writePoints(out, polygon.getPackedPoints());
+
+      List<List<LatLng>> holes = polygon.getHoles();
+      out.writeInt(holes.size());
+      for (List<LatLng> hole : holes) {
+        double[] points = new double[hole.size() * 2];
+        for (int i = 0; i < hole.size(); i++) {
+          LatLng point = hole.get(i);
+          points[i * 2] = point.getLatitude();
+          points[i * 2 + 1] = point.getLongitude();
+        }
+        writePoints(out, points);
+      }
+    }
+  }
+
+  private static void readPolygons(ByteBuffer in, List<PolygonOptions> polygonOptions) {
+    int count = readCount(in, 24);
+    for (int i = 0; i < count; i++) {
+      PolygonOptions options = new PolygonOptions()
+        .fillColor(in.getInt())
+        .strokeColor(in.getInt())
+        .alpha(in.getFloat())
+        .simplificationZoom(in.getInt())
+        .addAll(readPoints(in));
+      int holeCount = readCount(in, 4);
+      for (int hole = 0; hole < holeCount; hole++) {
+        options.addHole(readPoints(in));
+      }
+      polygonOptions.add(options);
+    }
+  }
+
+  private static void writePoints(DataOutputStream out, double[] points) throws IOException {
+    out.writeInt(points.length / 2);
+    writeDoubles(out, points, points.length);
+  }
+
+  private static List<LatLng> readPoints(ByteBuffer in) {
+    int count = readCount(in, 16);
+    double[] points = readDoubles(in, count * 2);
+    List<LatLng> latLngs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      latLngs.add(new LatLng(points[i * 2], points[i * 2 + 1]));
+    }
+    return latLngs;
+  }
+
+  private static void writeDoubles(DataOutputStream out, double[] values, int count) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(count * 8);
+    buffer.asDoubleBuffer().put(values, 0, count);
+    out.write(buffer.array());
+  }
+
+  private static double[] readDoubles(ByteBuffer in, int count) {
+    double[] values = new double[count];
+    in.asDoubleBuffer().get(values);
+    in.position(in.position() + count * 8);
+    return values;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length == -1) {
+      return null;
+    }
+    if (length < 0 || length > in.remaining()) {
+      throw new IllegalArgumentException("Annotation snapshot contains an invalid string");
+    }
+    String value = new String(in.array(), in.arrayOffset() + in.position(), length, UTF_8);
+    in.position(in.position() + length);
+    return value;
+  }
+
+  /**
+   * Reads an amount of entries, checking it against the remaining bytes before anything is allocated for it.
+   */
+  private static int readCount(ByteBuffer in, int minBytesPerEntry) {
+    int count = in.getInt();
+    if (count < 0 || (long) count * minBytesPerEntry > in.remaining()) {
+      throw new IllegalArgumentException("Annotation snapshot is truncated");
+    }
+    return count;
+  }
+
+  /**
+   * Pixels of an icon, equal for icons showing the same image.
+   */
+  private static final class IconPixels {
+
+    private final int width;
+    private final int height;
+    private final int density;
+    private final byte[] pixels;
+    private final int hash;
+
+    IconPixels(Bitmap bitmap) {
+      width = bitmap.getWidth();
+      height = bitmap.getHeight();
+      density = bitmap.getDensity();
+      // Icon#getBitmap() returns ARGB_8888 bitmaps, four bytes per pixel
+      ByteBuffer buffer = ByteBuffer.allocate(width * height * 4);
+      bitmap.copyPixelsToBuffer(buffer);
+      pixels = buffer.array();
+      hash = 31 * (31 * (31 * Arrays.hashCode(pixels) + width) + height) + density;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (object == null || getClass() != object.getClass()) {
+        return false;
+      }
+
+      IconPixels other = (IconPixels) object;
+      return hash == other.hash && width == other.width && height == other.height && density == other.density
+        && Arrays.equals(pixels, other.pixels);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.mapbox.mapboxsdk.maps;
+
+/**
+ * Static spatial index of bounding boxes, used to find the shape annotations near a tap.
+ * <p>
+ * Boxes are packed into an R-tree with the sort-tile-recursive method: sorted into vertical slices by the x of
+ * their centers, each slice sorted by the y of the centers, then grouped into nodes of {@link #NODE_SIZE}
+ * boxes. The nodes are grouped the same way until a single root remains. All nodes are stored in flat arrays,
+ * the leaves first and the root last.
+ * </p>
+ */
+final class BoundsTree {
+
+  private static final int NODE_SIZE = 16;
+
+  private final int count;
+  // box of every leaf and node, packed as minX, minY, maxX and maxY
+  private final double[] boxes;
+  // for leaves the index of the box, for nodes the position of the first child
+  private final int[] starts;
+  // for nodes the position after the last child
+  private final int[] ends;
+
+  /**
+   * Builds the index.
+   *
+   * @param bounds the boxes, packed as minX, minY, maxX and maxY
+   * @param count  the amount of boxes
+   */
+  BoundsTree(double[] bounds, int count) {
+    this.count = count;
+
+    // leaves plus every level of nodes, up to the root
+    int capacity = count;
+    if (count > 0) {
+      int levelSize = count;
+      do {
+        levelSize = (levelSize + NODE_SIZE - 1) / NODE_SIZE;
+        capacity += levelSize;
+      } while (levelSize > 1);
+    }
+    boxes = new double[capacity * 4];
+    starts = new int[capacity];
+    ends = new int[capacity];
+
+    int[] order = sortTileRecursive(bounds, count);
+    for (int position = 0; position < count; position++) {
+      int index = order[position];
+      System.arraycopy(bounds, index * 4, boxes, position * 4, 4);
+      starts[position] = index;
+    }
+
+    int levelStart = 0;
+    int levelEnd = count;
+    int position = count;
+    while (position < capacity) {
+      for (int child = levelStart; child < levelEnd; child += NODE_SIZE) {
+        int childEnd = Math.min(child + NODE_SIZE, levelEnd);
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = child; i < childEnd; i++) {
+          minX = Math.min(minX, boxes[i * 4]);
+          minY = Math.min(minY, boxes[i * 4 + 1]);
+          maxX = Math.max(maxX, boxes[i * 4 + 2]);
+          maxY = Math.max(maxY, boxes[i * 4 + 3]);
+        }
+        boxes[position * 4] = minX;
+        boxes[position * 4 + 1] = minY;
+        boxes[position * 4 + 2] = maxX;
+        boxes[position * 4 + 3] = maxY;
+        starts[position] = child;
+        ends[position] = childEnd;
+        position++;
+      }
+      levelStart = levelEnd;
+      levelEnd = position;
+    }
+  }
+
+  /**
+   * Returns the amount of indexed boxes.
+   *
+   * @return the amount of boxes
+   */
+  int size() {
+    return count;
+  }
+
+  /**
+   * Finds the boxes intersecting a bounding box, touching boxes included.
+   *
+   * @param minX   the minimum x of the box
+   * @param minY   the minimum y of the box
+   * @param maxX   the maximum x of the box
+   * @param maxY   the maximum y of the box
+   * @param result receives the indices of the found boxes
+   */
+  void search(double minX, double minY, double maxX, double maxY, KdTree.Result result) {
+    if (count == 0) {
+      return;
+    }
+
+    int[] stack = new int[NODE_SIZE * 4];
+    int stackSize = 0;
+    stack[stackSize++] = starts.length - 1;
+    while (stackSize > 0) {
+      int position = stack[--stackSize];
+      if (boxes[position * 4] > maxX || boxes[position * 4 + 1] > maxY
+        || boxes[position * 4 + 2] < minX || boxes[position * 4 + 3] < minY) {
+        continue;
+      }
+
+      if (position < count) {
+        result.add(starts[position]);
+        continue;
+      }
+
+      for (int child = starts[position]; child < ends[position]; child++) {
+        if (stackSize == stack.length) {
+          int[] grown = new int[stack.length * 2];
+          System.arraycopy(stack, 0, grown, 0, stack.length);
+          stack = grown;
+        }
+        stack[stackSize++] = child;
+      }
+    }
+  }
+
+  private static int[] sortTileRecursive(double[] bounds, int count) {
+    int[] order = new int[count];
+    double[] centerX = new double[count];
+    double[] centerY = new double[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+      centerX[i] = (bounds[i * 4] + bounds[i * 4 + 2]) / 2;
+      centerY[i] = (bounds[i * 4 + 1] + bounds[i * 4 + 3]) / 2;
+    }
+
+    sort(order, centerX, 0, count - 1);
+    int leafCount = (count + NODE_SIZE - 1) / NODE_SIZE;
+    int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+    int sliceSize = sliceCount == 0 ? count : NODE_SIZE * ((leafCount + sliceCount - 1) / sliceCount);
+    for (int start = 0; start < count; start += sliceSize) {
+      sort(order, centerY, start, Math.min(start + sliceSize, count) - 1);
+    }
+    return order;
+  }
+
+  /**
+   * Sorts a range of indices by their keys, quicksort falling back to insertion sort for small ranges.
+   */
+  private static void sort(int[] order, double[] keys, int left, int right) {
+    while (right - left > 16) {
+      double pivot = keys[order[(left + right) >>> 1]];
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (keys[order[i]] < pivot) {
+          i++;
+        }
+        while (keys[order[j]] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          int swap = order[i];
+          order[i] = order[j];
+          order[j] = swap;
+          i++;
+          j--;
+        }
+      }
+
+      // recurse into the smaller part to bound the stack depth
+      if (j - left < right - i) {
+        sort(order, keys, left, j);
+        left = i;
+      } else {
+        sort(order, keys, i, right);
+        right = j;
+      }
+    }
+
+    for (int i = left + 1; i <= right; i++) {
+      int index = order[i];
+      double key = keys[index];
+      int j = i - 1;
+      while (j >= left && keys[order[j]] > key) {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = index;
+    }
+  }
+}
@@ -0,0 +1,393 @@
+package com.mapbox.mapboxsdk.maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Hierarchical greedy clustering of points, computed once for all zoom levels.
+ * <p>
+ * Points are projected to Web Mercator coordinates in the range of 0 to 1. Starting one zoom level above the
+ * maximum zoom, each point that isn't clustered yet absorbs the neighbours within the cluster radius, weighted by
+ * the amount of points they already represent. The resulting clusters are the input of the next lower zoom level.
+ * Every zoom level is indexed with a {@link KdTree}, so querying the clusters of a viewport only visits the
+ * clusters inside it.
+ * </p>
+ * <p>
+ * Points are identified by their index. Clusters get an id of at least the amount of points, which encodes the
+ * index of the entry it was formed around and the zoom level of its children.
+ * </p>
+ */
+final class ClusterIndex {
+
+  // Size of a tile in density independent pixels, the cluster radius is relative to it
+  private static final double EXTENT = 512;
+
+  // Bits of a cluster id used for the zoom level its children are at
+  private static final int ZOOM_BITS = 5;
+  private static final int ZOOM_MASK = (1 << ZOOM_BITS) - 1;
+
+  // Points per task when projecting in parallel
+  private static final int PROJECTION_CHUNK_SIZE = 16384;
+
+  static final int MAX_ZOOM = ZOOM_MASK - 2;
+
+  private final double radius;
+  private final int maxZoom;
+  private final int minPoints;
+
+  private Level[] levels;
+  private int pointCount;
+
+  /**
+   * Creates an empty index.
+   *
+   * @param radius    the cluster radius in density independent pixels
+   * @param maxZoom   the maximum zoom level at which points are clustered, from 0 up to {@link #MAX_ZOOM}
+   * @param minPoints the minimum amount of points to form a cluster
+   */
+  ClusterIndex(double radius, int maxZoom, int minPoints) {
+    if (maxZoom < 0 || maxZoom > MAX_ZOOM) {
+      throw new IllegalArgumentException("maxZoom needs to be between 0 and " + MAX_ZOOM + ", was " + maxZoom);
+    }
+    this.radius = radius;
+    this.maxZoom = maxZoom;
+    this.minPoints = Math.max(minPoints, 2);
+  }
+
+  /**
+   * Clusters points, replacing previously loaded points.
+   *
+   * @param latitudes  the latitudes of the points
+   * @param longitudes the longitudes of the points
+   * @param executor   the executor used to project and index in parallel, or null to do all work on the
+   *                   calling thread
+   */
+  void load(final double[] latitudes, final double[] longitudes, Executor executor) {
+    if (latitudes.length != longitudes.length) {
+      throw new IllegalArgumentException("latitudes and longitudes need to be of equal length");
+    }
+
+    int count = latitudes.length;
+    final Level points = new Level(count);
+    points.size = count;
+    if (executor != null && count > PROJECTION_CHUNK_SIZE) {
+      List<Runnable> tasks = new ArrayList<>(count / PROJECTION_CHUNK_SIZE + 1);
+      for (int start = 0; start < count; start += PROJECTION_CHUNK_SIZE) {
+        final int from = start;
+        final int to = Math.min(count, start + PROJECTION_CHUNK_SIZE);
+        tasks.add(new Runnable() {
+          @Override
+          public void run() {
+            projectPoints(latitudes, longitudes, from, to, points);
+          }
+        });
+      }
+      ParallelTasks.run(tasks, executor);
+    } else {
+      projectPoints(latitudes, longitudes, 0, count, points);
+    }
+
+    pointCount = count;
+    levels = new Level[maxZoom + 2];
+    levels[maxZoom + 1] = points;
+    points.index(executor);
+
+    // each zoom level depends on the one above it, the levels themselves are clustered in order
+    for (int zoom = maxZoom; zoom >= 0; zoom--) {
+      levels[zoom] = cluster(levels[zoom + 1], zoom);
+      levels[zoom + 1].zoom = null;
+      levels[zoom].trim();
+      levels[zoom].index(executor);
+    }
+    levels[0].zoom = null;
+  }
+
+  /**
+   * Returns the amount of loaded points.
+   *
+   * @return the amount of points
+   */
+  int getPointCount() {
+    return pointCount;
+  }
+
+  /**
+   * Returns the zoom level at which clusters are queried for a camera zoom level.
+   *
+   * @param zoom the camera zoom level
+   * @return the zoom level of the clusters
+   */
+  int getClusterZoom(double zoom) {
+    return Math.max(0, Math.min((int) Math.floor(zoom), maxZoom + 1));
+  }
+
+  /**
+   * Finds the clusters and unclustered points of a zoom level within a bounding box.
+   *
+   * @param west   the western longitude of the box, the box may cross the antimeridian
+   * @param south  the southern latitude of the box
+   * @param east   the eastern longitude of the box, larger than west
+   * @param north  the northern latitude of the box
+   * @param zoom   the camera zoom level
+   * @param result receives the clusters, cleared first
+   */
+  void getClusters(double west, double south, double east, double north, double zoom, Clusters result) {
+    result.clear();
+    if (levels == null) {
+      return;
+    }
+
+    Level level = levels[getClusterZoom(zoom)];
+    double minY = projectY(north);
+    double maxY = projectY(south);
+    if (east - west >= 360) {
+      level.range(0, minY, 1, maxY, result);
+      return;
+    }
+
+    double normalizedWest = ((west + 180) % 360 + 360) % 360 - 180;
+    double normalizedEast = normalizedWest + (east - west);
+    if (normalizedEast > 180) {
+      // split at the antimeridian
+      level.range(projectX(normalizedWest), minY, 1, maxY, result);
+      level.range(0, minY, projectX(normalizedEast - 360), maxY, result);
+    } else {
+      level.range(projectX(normalizedWest), minY, projectX(normalizedEast), maxY, result);
+    }
+  }
+
+  /**
+   * Returns the zoom level at which a cluster splits into its children.
+   * <p>
+   * A cluster is carried over unchanged to lower zoom levels until it is absorbed, it always splits at the zoom
+   * level above the one it was formed at.
+   * </p>
+   *
+   * @param clusterId the id of the cluster
+   * @return the zoom level to zoom to when expanding the cluster
+   */
+  int getClusterExpansionZoom(long clusterId) {
+    return (int) ((clusterId - pointCount) & ZOOM_MASK);
+  }
+
+  /**
+   * Returns if an id identifies a cluster rather than a single point.
+   *
+   * @param id the id
+   * @return true for clusters
+   */
+  boolean isCluster(long id) {
+    return id >= pointCount;
+  }
+
+  private Level cluster(Level previous, int zoom) {
+    double zoomRadius = radius / (EXTENT * Math.pow(2, zoom));
+    Level level = new Level(previous.size);
+    KdTree.Result neighbours = new KdTree.Result();
+
+    for (int i = 0; i < previous.size; i++) {
+      if (previous.zoom[i] <= zoom) {
+        // already absorbed into a cluster at this zoom level
+        continue;
+      }
+      previous.zoom[i] = zoom;
+
+      neighbours.clear();
+      previous.tree.within(previous.x[i], previous.y[i], zoomRadius, neighbours);
+
+      int originCount = previous.count[i];
+      int count = originCount;
+      for (int n = 0; n < neighbours.size(); n++) {
+        int neighbour = neighbours.get(n);
+        if (previous.zoom[neighbour] > zoom) {
+          count += previous.count[neighbour];
+        }
+      }
+
+      if (count > originCount && count >= minPoints) {
+        double weightedX = previous.x[i] * originCount;
+        double weightedY = previous.y[i] * originCount;
+        long id = ((long) i << ZOOM_BITS) + (zoom + 1) + pointCount;
+
+        for (int n = 0; n < neighbours.size(); n++) {
+          int neighbour = neighbours.get(n);
+          if (previous.zoom[neighbour] > zoom) {
+            previous.zoom[neighbour] = zoom;
+            weightedX += previous.x[neighbour] * previous.count[neighbour];
+            weightedY += previous.y[neighbour] * previous.count[neighbour];
+          }
+        }
+
+        level.add(weightedX / count, weightedY / count, count, id);
+      } else {
+        level.add(previous.x[i], previous.y[i], originCount, previous.id[i]);
+        if (count > 1) {
+          // too few points for a cluster, keep the neighbours as they are
+          for (int n = 0; n < neighbours.size(); n++) {
+            int neighbour = neighbours.get(n);
+            if (previous.zoom[neighbour] > zoom) {
+              previous.zoom[neighbour] = zoom;
+              level.add(previous.x[neighbour], previous.y[neighbour], previous.count[neighbour],
+                previous.id[neighbour]);
+            }
+          }
+        }
+      }
+    }
+    return level;
+  }
+
+  private static void projectPoints(double[] latitudes, double[] longitudes, int from, int to, Level points) {
+    for (int i = from; i < to; i++) {
+      points.x[i] = projectX(longitudes[i]);
+      points.y[i] = projectY(latitudes[i]);
+      points.count[i] = 1;
+      points.id[i] = i;
+      points.zoom[i] = Integer.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Projects a longitude to a Web Mercator x in the range of 0 to 1, longitudes beyond the antimeridian map to
+   * neighbouring world copies.
+   */
+  static double projectX(double longitude) {
+    return longitude / 360 + 0.5;
+  }
+
+  /**
+   * Projects a latitude to a Web Mercator y in the range of 0 to 1, clamped at the poles.
+   */
+  static double projectY(double latitude) {
+    double sin = Math.sin(Math.toRadians(latitude));
+    double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+    return y < 0 ? 0 : y > 1 ? 1 : y;
+  }
+
+  private static double unprojectLongitude(double x) {
+    return (x - 0.5) * 360;
+  }
+
+  private static double unprojectLatitude(double y) {
+    return 360 / Math.PI * Math.atan(Math.exp((180 - y * 360) * Math.PI / 180)) - 90;
+  }
+
+  /**
+   * The clusters and unclustered points of a zoom level, stored in parallel arrays.
+   */
+  private static final class Level {
+
+    double[] x;
+    double[] y;
+    int[] count;
+    long[] id;
+
+    // the zoom level at which the entry was last processed while clustering, released once clustered
+    int[] zoom;
+
+    int size;
+    KdTree tree;
+
+    Level(int capacity) {
+      x = new double[capacity];
+      y = new double[capacity];
+      count = new int[capacity];
+      id = new long[capacity];
+      zoom = new int[capacity];
+    }
+
+    void add(double x, double y, int count, long id) {
+      this.x[size] = x;
+      this.y[size] = y;
+      this.count[size] = count;
+      this.id[size] = id;
+      this.zoom[size] = Integer.MAX_VALUE;
+      size++;
+    }
+
+    void trim() {
+      if (size < x.length) {
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        count = Arrays.copyOf(count, size);
+        id = Arrays.copyOf(id, size);
+        zoom = Arrays.copyOf(zoom, size);
+      }
+    }
+
+    void index(Executor executor) {
+      tree = new KdTree(x, y, size, executor);
+    }
+
+    void range(double minX, double minY, double maxX, double maxY, Clusters result) {
+      KdTree.Result hits = result.hits;
+      hits.clear();
+      tree.range(minX, minY, maxX, maxY, hits);
+      for (int i = 0; i < hits.size(); i++) {
+        int index = hits.get(i);
+        result.add(unprojectLatitude(y[index]), unprojectLongitude(x[index]), count[index], id[index]);
+      }
+    }
+  }
+
+  /**
+   * Clusters returned by a query, stored in parallel arrays and reused across queries.
+   */
+  static final class Clusters {
+
+    private final KdTree.Result hits = new KdTree.Result();
+
+    private double[] latitudes = new double[16];
+    private double[] longitudes = new double[16];
+    private int[] counts = new int[16];
+    private long[] ids = new long[16];
+    private int size;
+
+    int size() {
+      return size;
+    }
+
+    double getLatitude(int i) {
+      return latitudes[i];
+    }
+
+    double getLongitude(int i) {
+      return longitudes[i];
+    }
+
+    /**
+     * Returns the amount of points of a cluster, 1 for unclustered points.
+     */
+    int getCount(int i) {
+      return counts[i];
+    }
+
+    /**
+     * Returns the id of a cluster, for unclustered points this is the index of the point.
+     */
+    long getId(int i) {
+      return ids[i];
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    private void add(double latitude, double longitude, int count, long id) {
+      if (size == ids.length) {
+        int capacity = size * 2;
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+      }
+      latitudes[size] = latitude;
+      longitudes[size] = longitude;
+      counts[size] = count;
+      ids[size] = id;
+      size++;
+    }
+  }
+}
@@ -50,6 +50,19 @@ class IconManager {
     return icon;
   }
 
+  /**
+   * Adds references to an icon already loaded for a marker, for markers sharing it.
+   *
+   * @param icon  the loaded icon
+   * @param count the amount of markers sharing the icon
+   */
+  void addIconReferences(Icon icon, int count) {
+    Integer refCounter = iconMap.get(icon);
+    if (refCounter != null && count > 0) {
+      updateIconRefCounter(icon, refCounter + count);
+    }
+  }
+
   void loadIconForMarkerView(MarkerView marker) {
     Icon icon = marker.getIcon();
     Bitmap bitmap = icon.getBitmap();
@@ -111,12 +124,7 @@ class IconManager {
   }
 
   private void loadIcon(Icon icon) {
-    Bitmap bitmap = icon.getBitmap();
-    nativeMapView.addAnnotationIcon(icon.getId(),
-      bitmap.getWidth(),
-      bitmap.getHeight(),
-      icon.getScale(),
-      icon.toBytes());
+    nativeMapView.addAnnotationIcon(icon.getId(), icon.getBitmap(), icon.getScale());
   }
 
   void reloadIcons() {
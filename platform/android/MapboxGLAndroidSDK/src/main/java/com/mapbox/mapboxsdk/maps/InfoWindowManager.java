@@ -1,8 +1,12 @@
 package com.mapbox.mapboxsdk.maps;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
 
+import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.annotations.InfoWindow;
 import com.mapbox.mapboxsdk.annotations.Marker;
 
@@ -18,10 +22,22 @@ import java.util.List;
  * {@link com.mapbox.mapboxsdk.maps.MapboxMap.OnInfoWindowClickListener} and
  * {@link com.mapbox.mapboxsdk.maps.MapboxMap.OnInfoWindowLongClickListener}.
  * </p>
+ * <p>
+ * Views of the default info window and of a {@link MapboxMap.RecyclingInfoWindowAdapter} are kept in a
+ * {@link InfoWindowViewPool} when their info window closes and reused for the next info window of the same view type.
+ * The view type is kept in a tag of the view, views of info windows that are closed without this manager aren't
+ * pooled and aren't retained either.
+ * </p>
  */
 class InfoWindowManager {
 
+  // Maximum amount of idle views kept per view type
+  private static final int VIEW_POOL_SIZE = 8;
+  // View type of the default info window, adapter view types are zero or larger
+  private static final int DEFAULT_VIEW_TYPE = -1;
+
   private final List<InfoWindow> infoWindows = new ArrayList<>();
+  private final InfoWindowViewPool viewPool = new InfoWindowViewPool(VIEW_POOL_SIZE);
 
   private MapboxMap.InfoWindowAdapter infoWindowAdapter;
   private boolean allowConcurrentMultipleInfoWindows;
@@ -40,6 +56,8 @@ class InfoWindowManager {
 
   void setInfoWindowAdapter(@Nullable MapboxMap.InfoWindowAdapter infoWindowAdapter) {
     this.infoWindowAdapter = infoWindowAdapter;
+    // pooled views were created for the previous adapter
+    viewPool.clear();
   }
 
   MapboxMap.InfoWindowAdapter getInfoWindowAdapter() {
@@ -82,7 +100,90 @@ class InfoWindowManager {
     return onInfoWindowCloseListener;
   }
 
-  public void add(InfoWindow infoWindow) {
+  /**
+   * Shows the info window of a marker, reusing a pooled view if possible.
+   *
+   * @param marker    the marker to show the info window for
+   * @param mapboxMap the hosting mapbox map
+   * @param mapView   the hosting map view
+   * @return the info window that was shown
+   */
+  InfoWindow open(@NonNull Marker marker, @NonNull MapboxMap mapboxMap, @NonNull MapView mapView) {
+    InfoWindow infoWindow;
+    View content = null;
+    int viewType = DEFAULT_VIEW_TYPE;
+    if (infoWindowAdapter instanceof MapboxMap.RecyclingInfoWindowAdapter) {
+      MapboxMap.RecyclingInfoWindowAdapter adapter = (MapboxMap.RecyclingInfoWindowAdapter) infoWindowAdapter;
+      viewType = adapter.getViewType(marker);
+      if (viewType < 0) {
+        throw new IllegalArgumentException("View type of an info window needs to be zero or larger: " + viewType);
+      }
+      View convertView = viewPool.acquire(viewType);
+      content = adapter.getInfoWindow(marker, convertView);
+      if (convertView != null && content != convertView) {
+        // the adapter didn't reuse the pooled view
+        viewPool.release(viewType, convertView);
+      }
+    } else if (infoWindowAdapter != null) {
+      // views of other adapters can't be handed back to them and aren't pooled
+      infoWindow = marker.showInfoWindow(mapboxMap, mapView);
+      infoWindows.add(infoWindow);
+      return infoWindow;
+    }
+
+    boolean isDefault = content == null;
+    if (isDefault) {
+      viewType = DEFAULT_VIEW_TYPE;
+      content = viewPool.acquire(DEFAULT_VIEW_TYPE);
+      if (content == null) {
+        content = LayoutInflater.from(mapView.getContext()).inflate(R.layout.mapbox_infowindow_content, mapView, false);
+      }
+    }
+
+    content.setTag(R.id.mapbox_infowindow_view_type, new ViewTypeTag(isDefault ? null : infoWindowAdapter, viewType));
+    infoWindow = marker.showInfoWindow(mapboxMap, mapView, content, isDefault);
     infoWindows.add(infoWindow);
+    return infoWindow;
+  }
+
+  /**
+   * Closes the info window of a marker and returns its view to the pool.
+   *
+   * @param marker the marker to close the info window of
+   */
+  void close(@NonNull Marker marker) {
+    InfoWindow infoWindow = marker.getInfoWindow();
+    View view = infoWindow != null ? infoWindow.getView() : null;
+    marker.hideInfoWindow();
+    infoWindows.remove(infoWindow);
+
+    Object tag = view != null ? view.getTag(R.id.mapbox_infowindow_view_type) : null;
+    if (tag instanceof ViewTypeTag && view.getParent() == null) {
+      ViewTypeTag viewTypeTag = (ViewTypeTag) tag;
+      // views of a previous adapter can't be handed to the current one
+      if (viewTypeTag.adapter == null || viewTypeTag.adapter == infoWindowAdapter) {
+        viewPool.release(viewTypeTag.viewType, view);
+      }
+    }
+  }
+
+  int getViewPoolHitCount() {
+    return viewPool.getHitCount();
+  }
+
+  int getViewPoolMissCount() {
+    return viewPool.getMissCount();
+  }
+
+  private static final class ViewTypeTag {
+
+    // the adapter that created the view, null for the default info window
+    private final MapboxMap.InfoWindowAdapter adapter;
+    private final int viewType;
+
+    ViewTypeTag(MapboxMap.InfoWindowAdapter adapter, int viewType) {
+      this.adapter = adapter;
+      this.viewType = viewType;
+    }
   }
 }
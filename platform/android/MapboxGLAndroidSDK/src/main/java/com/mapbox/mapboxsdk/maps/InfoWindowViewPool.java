@@ -0,0 +1,90 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.Pools;
+import android.view.View;
+
+/**
+ * Keeps the views of closed info windows for reuse, with a bounded pool per view type.
+ * <p>
+ * Counts how often a view could be reused and how often a new view had to be created, to tell whether the pool
+ * size fits the amount of info windows an app opens.
+ * </p>
+ */
+final class InfoWindowViewPool {
+
+  private final int maxPoolSize;
+  private final LongHashMap<Pools.SimplePool<View>> pools = new LongHashMap<>();
+
+  private int hitCount;
+  private int missCount;
+
+  /**
+   * Creates an empty pool.
+   *
+   * @param maxPoolSize the maximum amount of idle views kept per view type
+   */
+  InfoWindowViewPool(int maxPoolSize) {
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  /**
+   * Takes a view out of the pool.
+   *
+   * @param viewType the view type
+   * @return a view of the view type, or null if none is available
+   */
+  @Nullable
+  View acquire(int viewType) {
+    Pools.SimplePool<View> pool = pools.get(viewType);
+    View view = pool != null ? pool.acquire() : null;
+    if (view != null) {
+      hitCount++;
+    } else {
+      missCount++;
+    }
+    return view;
+  }
+
+  /**
+   * Puts a view that is no longer shown back into the pool.
+   *
+   * @param viewType the view type
+   * @param view     the view, detached from its parent
+   * @return true when the view was kept, false when the pool of the view type is full
+   */
+  boolean release(int viewType, @NonNull View view) {
+    Pools.SimplePool<View> pool = pools.get(viewType);
+    if (pool == null) {
+      pool = new Pools.SimplePool<>(maxPoolSize);
+      pools.put(viewType, pool);
+    }
+    return pool.release(view);
+  }
+
+  /**
+   * Drops all pooled views, the counts are kept.
+   */
+  void clear() {
+    pools.clear();
+  }
+
+  /**
+   * Returns how often a view was taken out of the pool.
+   *
+   * @return the amount of reused views
+   */
+  int getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns how often no view was available in the pool.
+   *
+   * @return the amount of views that had to be created
+   */
+  int getMissCount() {
+    return missCount;
+  }
+}
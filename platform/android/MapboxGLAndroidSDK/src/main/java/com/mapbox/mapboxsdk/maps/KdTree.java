@@ -0,0 +1,306 @@
+package com.mapbox.mapboxsdk.maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Static spatial index of points, used to find neighbours while clustering.
+ * <p>
+ * Points are sorted into a kd-tree stored in flat arrays: the median of each range is the node splitting it,
+ * alternating between x and y. Ranges of at most {@link #NODE_SIZE} points are left unsorted and scanned
+ * linearly when queried. Sorting the ranges below the top levels is independent, those are sorted in parallel.
+ * </p>
+ */
+final class KdTree {
+
+  private static final int NODE_SIZE = 64;
+
+  // Below this amount of points sorting in parallel costs more than it saves
+  private static final int MIN_PARALLEL_SIZE = 8192;
+
+  private final int[] ids;
+  private final double[] coordinates;
+
+  /**
+   * Builds the index.
+   *
+   * @param x        the x coordinates of the points
+   * @param y        the y coordinates of the points
+   * @param count    the amount of points
+   * @param executor the executor used to sort in parallel, or null to sort on the calling thread
+   */
+  KdTree(double[] x, double[] y, int count, Executor executor) {
+    ids = new int[count];
+    coordinates = new double[count * 2];
+    for (int i = 0; i < count; i++) {
+      ids[i] = i;
+      coordinates[i * 2] = x[i];
+      coordinates[i * 2 + 1] = y[i];
+    }
+
+    int parallelism = executor != null && count >= MIN_PARALLEL_SIZE ? Runtime.getRuntime().availableProcessors() : 1;
+    if (parallelism > 1) {
+      // split sequentially until there is a range per core, then sort the ranges concurrently
+      int splitDepth = 32 - Integer.numberOfLeadingZeros(parallelism - 1);
+      List<Runnable> tasks = new ArrayList<>(1 << splitDepth);
+      split(0, count - 1, 0, splitDepth, tasks);
+      ParallelTasks.run(tasks, executor);
+    } else {
+      sort(0, count - 1, 0);
+    }
+  }
+
+  /**
+   * Returns the amount of indexed points.
+   *
+   * @return the amount of points
+   */
+  int size() {
+    return ids.length;
+  }
+
+  /**
+   * Finds the points within a bounding box, bounds included.
+   *
+   * @param minX   the minimum x of the box
+   * @param minY   the minimum y of the box
+   * @param maxX   the maximum x of the box
+   * @param maxY   the maximum y of the box
+   * @param result receives the indices of the found points
+   */
+  void range(double minX, double minY, double maxX, double maxY, Result result) {
+    int[] stack = new int[48];
+    int stackSize = 0;
+    stack[stackSize++] = 0;
+    stack[stackSize++] = ids.length - 1;
+    stack[stackSize++] = 0;
+
+    while (stackSize > 0) {
+      int axis = stack[--stackSize];
+      int right = stack[--stackSize];
+      int left = stack[--stackSize];
+
+      if (right - left <= NODE_SIZE) {
+        for (int i = left; i <= right; i++) {
+          double x = coordinates[i * 2];
+          double y = coordinates[i * 2 + 1];
+          if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+            result.add(ids[i]);
+          }
+        }
+        continue;
+      }
+
+      int middle = (left + right) >> 1;
+      double x = coordinates[middle * 2];
+      double y = coordinates[middle * 2 + 1];
+      if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+        result.add(ids[middle]);
+      }
+
+      if (stackSize + 6 > stack.length) {
+        stack = grow(stack);
+      }
+      if (axis == 0 ? minX <= x : minY <= y) {
+        stack[stackSize++] = left;
+        stack[stackSize++] = middle - 1;
+        stack[stackSize++] = 1 - axis;
+      }
+      if (axis == 0 ? maxX >= x : maxY >= y) {
+        stack[stackSize++] = middle + 1;
+        stack[stackSize++] = right;
+        stack[stackSize++] = 1 - axis;
+      }
+    }
+  }
+
+  /**
+   * Finds the points within a radius of a location, points on the circle included.
+   *
+   * @param queryX the x of the location
+   * @param queryY the y of the location
+   * @param radius the radius
+   * @param result receives the indices of the found points
+   */
+  void within(double queryX, double queryY, double radius, Result result) {
+    double sqRadius = radius * radius;
+    int[] stack = new int[48];
+    int stackSize = 0;
+    stack[stackSize++] = 0;
+    stack[stackSize++] = ids.length - 1;
+    stack[stackSize++] = 0;
+
+    while (stackSize > 0) {
+      int axis = stack[--stackSize];
+      int right = stack[--stackSize];
+      int left = stack[--stackSize];
+
+      if (right - left <= NODE_SIZE) {
+        for (int i = left; i <= right; i++) {
+          if (sqDistance(coordinates[i * 2], coordinates[i * 2 + 1], queryX, queryY) <= sqRadius) {
+            result.add(ids[i]);
+          }
+        }
+        continue;
+      }
+
+      int middle = (left + right) >> 1;
+      double x = coordinates[middle * 2];
+      double y = coordinates[middle * 2 + 1];
+      if (sqDistance(x, y, queryX, queryY) <= sqRadius) {
+        result.add(ids[middle]);
+      }
+
+      if (stackSize + 6 > stack.length) {
+        stack = grow(stack);
+      }
+      if (axis == 0 ? queryX - radius <= x : queryY - radius <= y) {
+        stack[stackSize++] = left;
+        stack[stackSize++] = middle - 1;
+        stack[stackSize++] = 1 - axis;
+      }
+      if (axis == 0 ? queryX + radius >= x : queryY + radius >= y) {
+        stack[stackSize++] = middle + 1;
+        stack[stackSize++] = right;
+        stack[stackSize++] = 1 - axis;
+      }
+    }
+  }
+
+  private void split(final int left, final int right, final int depth, int splitDepth, List<Runnable> tasks) {
+    if (depth == splitDepth || right - left <= NODE_SIZE) {
+      tasks.add(new Runnable() {
+        @Override
+        public void run() {
+          sort(left, right, depth);
+        }
+      });
+      return;
+    }
+
+    int middle = (left + right) >> 1;
+    select(middle, left, right, depth % 2);
+    split(left, middle - 1, depth + 1, splitDepth, tasks);
+    split(middle + 1, right, depth + 1, splitDepth, tasks);
+  }
+
+  private void sort(int left, int right, int depth) {
+    if (right - left <= NODE_SIZE) {
+      return;
+    }
+
+    int middle = (left + right) >> 1;
+    select(middle, left, right, depth % 2);
+    sort(left, middle - 1, depth + 1);
+    sort(middle + 1, right, depth + 1);
+  }
+
+  /**
+   * Rearranges the range so the k-th smallest coordinate on the axis is at index k, with smaller coordinates
+   * before and larger ones after it. Floyd-Rivest selection.
+   */
+  private void select(int k, int left, int right, int axis) {
+    while (right > left) {
+      if (right - left > 600) {
+        int n = right - left + 1;
+        int m = k - left + 1;
+        double z = Math.log(n);
+        double s = 0.5 * Math.exp(2 * z / 3);
+        double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m - n / 2 < 0 ? -1 : 1);
+        int newLeft = Math.max(left, (int) Math.floor(k - m * s / n + sd));
+        int newRight = Math.min(right, (int) Math.floor(k + (n - m) * s / n + sd));
+        select(k, newLeft, newRight, axis);
+      }
+
+      double t = coordinates[k * 2 + axis];
+      int i = left;
+      int j = right;
+
+      swap(left, k);
+      if (coordinates[right * 2 + axis] > t) {
+        swap(left, right);
+      }
+
+      while (i < j) {
+        swap(i, j);
+        i++;
+        j--;
+        while (coordinates[i * 2 + axis] < t) {
+          i++;
+        }
+        while (coordinates[j * 2 + axis] > t) {
+          j--;
+        }
+      }
+
+      if (coordinates[left * 2 + axis] == t) {
+        swap(left, j);
+      } else {
+        j++;
+        swap(j, right);
+      }
+
+      if (j <= k) {
+        left = j + 1;
+      }
+      if (k <= j) {
+        right = j - 1;
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    int id = ids[i];
+    ids[i] = ids[j];
+    ids[j] = id;
+
+    double coordinate = coordinates[i * 2];
+    coordinates[i * 2] = coordinates[j * 2];
+    coordinates[j * 2] = coordinate;
+
+    coordinate = coordinates[i * 2 + 1];
+    coordinates[i * 2 + 1] = coordinates[j * 2 + 1];
+    coordinates[j * 2 + 1] = coordinate;
+  }
+
+  private static double sqDistance(double ax, double ay, double bx, double by) {
+    double dx = ax - bx;
+    double dy = ay - by;
+    return dx * dx + dy * dy;
+  }
+
+  private static int[] grow(int[] stack) {
+    int[] grown = new int[stack.length * 2];
+    System.arraycopy(stack, 0, grown, 0, stack.length);
+    return grown;
+  }
+
+  /**
+   * Growable list of point indices, reused across queries.
+   */
+  static final class Result {
+
+    private int[] indices = new int[16];
+    private int size;
+
+    void add(int index) {
+      if (size == indices.length) {
+        indices = grow(indices);
+      }
+      indices[size++] = index;
+    }
+
+    int get(int i) {
+      return indices[i];
+    }
+
+    int size() {
+      return size;
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+}
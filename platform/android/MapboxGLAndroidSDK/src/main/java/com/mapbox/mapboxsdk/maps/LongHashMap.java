@@ -0,0 +1,277 @@
+package com.mapbox.mapboxsdk.maps;
+
+import java.util.Arrays;
+
+/**
+ * Maps primitive long keys to objects, used to keep track of annotations by their id.
+ * <p>
+ * Keys are stored in an open addressing hash table with linear probing, which makes lookups, inserts and
+ * removals O(1) on average, without boxing keys. Entries are kept in insertion order in parallel arrays so
+ * they can be iterated with {@link #keyAt(int)} and {@link #valueAt(int)} without allocating, like with
+ * {@link android.support.v4.util.LongSparseArray}.
+ * </p>
+ * <p>
+ * Removals leave a hole in the entry arrays and mark the map as holding garbage, like
+ * {@link android.support.v4.util.LongSparseArray}. Holes are compacted in place on the first indexed access
+ * after a removal, further indexed accesses are O(1) until the next removal.
+ * </p>
+ *
+ * @param <E> the type of the mapped values
+ */
+class LongHashMap<E> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final Object DELETED = new Object();
+
+  private long[] keys;
+  private Object[] values;
+
+  // Slots of the hash table hold an index into keys and values, offset by one. Zero marks an empty slot.
+  private int[] table;
+
+  // Amount of used entries including holes
+  private int end;
+  private int size;
+  // Set when removals left holes in the entry arrays
+  private boolean garbage;
+
+  LongHashMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  LongHashMap(int initialCapacity) {
+    int capacity = Math.max(initialCapacity, 1);
+    keys = new long[capacity];
+    values = new Object[capacity];
+    table = new int[tableSizeFor(capacity)];
+  }
+
+  /**
+   * Returns the value mapped to a key.
+   *
+   * @param key the key to look up
+   * @return the mapped value or null if the key isn't mapped
+   */
+  @SuppressWarnings("unchecked")
+  E get(long key) {
+    int slot = findSlot(key);
+    return slot < 0 ? null : (E) values[table[slot] - 1];
+  }
+
+  /**
+   * Returns if a key is mapped.
+   *
+   * @param key the key to look up
+   * @return true if the key is mapped
+   */
+  boolean containsKey(long key) {
+    return findSlot(key) >= 0;
+  }
+
+  /**
+   * Maps a value to a key, replacing the previous value if the key was already mapped.
+   *
+   * @param key   the key
+   * @param value the value
+   */
+  void put(long key, E value) {
+    int slot = findSlot(key);
+    if (slot >= 0) {
+      values[table[slot] - 1] = value;
+      return;
+    }
+
+    if (end == keys.length) {
+      ensureCapacity();
+      slot = findSlot(key);
+    }
+
+    keys[end] = key;
+    values[end] = value;
+    end++;
+    size++;
+    table[-1 - slot] = end;
+  }
+
+  /**
+   * Removes the mapping of a key, does nothing if the key isn't mapped.
+   *
+   * @param key the key to remove
+   */
+  void remove(long key) {
+    int slot = findSlot(key);
+    if (slot < 0) {
+      return;
+    }
+
+    values[table[slot] - 1] = DELETED;
+    size--;
+    garbage = true;
+    deleteSlot(slot);
+  }
+
+  /**
+   * Removes the mappings of multiple keys, keys that aren't mapped are ignored.
+   *
+   * @param keys the keys to remove
+   */
+  void removeAll(long[] keys) {
+    for (long key : keys) {
+      remove(key);
+    }
+  }
+
+  /**
+   * Removes all mappings.
+   */
+  void clear() {
+    Arrays.fill(values, 0, end, null);
+    Arrays.fill(table, 0);
+    end = 0;
+    size = 0;
+    garbage = false;
+  }
+
+  /**
+   * Returns the amount of mappings.
+   *
+   * @return the amount of mappings
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the index of a key for use with {@link #keyAt(int)} and {@link #valueAt(int)}.
+   *
+   * @param key the key to look up
+   * @return the index or -1 if the key isn't mapped
+   */
+  int indexOfKey(long key) {
+    compact();
+    int slot = findSlot(key);
+    return slot < 0 ? -1 : table[slot] - 1;
+  }
+
+  /**
+   * Returns the key at an index, in the range of 0 to {@link #size()} - 1. Keys are ordered by insertion.
+   *
+   * @param index the index
+   * @return the key at the index
+   */
+  long keyAt(int index) {
+    compact();
+    return keys[index];
+  }
+
+  /**
+   * Returns the value at an index, in the range of 0 to {@link #size()} - 1. Values are ordered by
+   * insertion of their key.
+   *
+   * @param index the index
+   * @return the value at the index
+   */
+  @SuppressWarnings("unchecked")
+  E valueAt(int index) {
+    compact();
+    return (E) values[index];
+  }
+
+  /**
+   * Replaces the value at an index, in the range of 0 to {@link #size()} - 1.
+   *
+   * @param index the index
+   * @param value the new value
+   */
+  void setValueAt(int index, E value) {
+    compact();
+    values[index] = value;
+  }
+
+  private int findSlot(long key) {
+    int mask = table.length - 1;
+    int slot = hash(key) & mask;
+    int entry;
+    while ((entry = table[slot]) != 0) {
+      if (keys[entry - 1] == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    // encode the empty slot the key would be inserted at
+    return -1 - slot;
+  }
+
+  private void deleteSlot(int slot) {
+    // shift following entries of the probe sequence back, this avoids tombstones in the table
+    int mask = table.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    int entry;
+    while ((entry = table[next]) != 0) {
+      int ideal = hash(keys[entry - 1]) & mask;
+      if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+        table[hole] = entry;
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    table[hole] = 0;
+  }
+
+  private void ensureCapacity() {
+    if (size >= keys.length - keys.length / 4) {
+      compact();
+      int capacity = keys.length * 2;
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+      table = new int[tableSizeFor(capacity)];
+      reindex();
+    } else {
+      compact();
+    }
+  }
+
+  private void compact() {
+    if (!garbage) {
+      return;
+    }
+    garbage = false;
+
+    int live = 0;
+    for (int i = 0; i < end; i++) {
+      if (values[i] != DELETED) {
+        keys[live] = keys[i];
+        values[live] = values[i];
+        live++;
+      }
+    }
+    Arrays.fill(values, live, end, null);
+    end = live;
+    reindex();
+  }
+
+  private void reindex() {
+    Arrays.fill(table, 0);
+    int mask = table.length - 1;
+    int slot;
+    for (int i = 0; i < end; i++) {
+      slot = hash(keys[i]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+    }
+  }
+
+  private static int tableSizeFor(int capacity) {
+    // power of two of at least twice the capacity, keeps the load factor at or below one half
+    return Integer.highestOneBit(capacity) << 2;
+  }
+
+  private static int hash(long key) {
+    // spread sequential ids over the table
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
@@ -5,6 +5,7 @@ import android.graphics.Bitmap;
 import android.graphics.PointF;
 import android.graphics.RectF;
 import android.location.Location;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.os.Handler;
 import android.support.annotation.FloatRange;
@@ -16,10 +17,14 @@ import android.support.v4.util.Pools;
 import android.text.TextUtils;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
+import com.mapbox.mapboxsdk.annotations.ClusterOptions;
+import com.mapbox.mapboxsdk.annotations.Icon;
 import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
@@ -38,6 +43,7 @@ import com.mapbox.mapboxsdk.constants.Style;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.geometry.LatLngBounds;
 import com.mapbox.mapboxsdk.maps.widgets.MyLocationViewSettings;
+import com.mapbox.mapboxsdk.storage.FileSource;
 import com.mapbox.mapboxsdk.style.layers.Filter;
 import com.mapbox.mapboxsdk.style.layers.Layer;
 import com.mapbox.mapboxsdk.style.light.Light;
@@ -49,6 +55,7 @@ import com.mapbox.services.commons.geojson.Geometry;
 import java.lang.reflect.ParameterizedType;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import timber.log.Timber;
 
@@ -78,6 +85,7 @@ public final class MapboxMap {
 
   private MapboxMap.OnFpsChangedListener onFpsChangedListener;
   private PointF focalPoint;
+  private MarkerAnimator markerAnimator;
 
   MapboxMap(NativeMapView map, Transform transform, UiSettings ui, TrackingSettings tracking,
             MyLocationViewSettings myLocationView, Projection projection, OnRegisterTouchListener listener,
@@ -188,6 +196,9 @@ public final class MapboxMap {
   void onUpdateRegionChange() {
     trackingSettings.update();
     annotationManager.update();
+    // pending tile requests closest to the new viewport are requested first
+    // read from the projection's transform snapshot, shared with projecting the annotations of this frame
+    FileSource.setViewport(projection.getCenterLatitude(), projection.getCenterLongitude(), projection.getZoom());
   }
 
   /**
@@ -467,7 +478,25 @@ public final class MapboxMap {
    * Adds an images to be used in the map's style
    */
   public void addImages(@NonNull HashMap<String, Bitmap> images) {
-    nativeMapView.addImages(images);
+    nativeMapView.addImages(images, AsyncTask.THREAD_POOL_EXECUTOR, null);
+  }
+
+  /**
+   * Adds images to be used in the map's style.
+   * <p>
+   * Images are converted in chunks on the given executor: their pixels are copied, and expanded to 32 bits for
+   * RGB_565 and ALPHA_8 bitmaps. Only adding the converted chunks to the style happens on the main thread, as soon
+   * as a chunk is ready. Use an executor that runs tasks in parallel to convert images on multiple cores.
+   * </p>
+   *
+   * @param images   the images to add, keyed by name
+   * @param executor the executor used to convert the images
+   * @param listener the listener to be notified on the main thread once all images were added, can be null.
+   *                 Isn't notified if the map is destroyed before all images were added.
+   */
+  public void addImages(@NonNull HashMap<String, Bitmap> images, @NonNull Executor executor,
+                        @Nullable OnImagesAddedListener listener) {
+    nativeMapView.addImages(images, executor, listener);
   }
 
   /**
@@ -1310,6 +1339,78 @@ public final class MapboxMap {
     return annotationManager.addMarkers(markerOptionsList, this);
   }
 
+  /**
+   * <p>
+   * Adds multiple markers to this map from parallel arrays of coordinates.
+   * </p>
+   * All markers share the same icon and are added in a single call to the native map, without creating
+   * intermediate {@link MarkerOptions} for every position. The marker at index {@code i} is placed at
+   * {@code latitudes[i], longitudes[i]}.
+   *
+   * @param latitudes  the latitudes of the markers
+   * @param longitudes the longitudes of the markers, needs to be of equal length as latitudes
+   * @param icon       the icon shared by all markers, or null to use the default marker icon
+   * @return A list of the {@code Marker}s that were added to the map, in the order of the given coordinates
+   */
+  @NonNull
+  public List<Marker> addMarkers(@NonNull double[] latitudes, @NonNull double[] longitudes, @Nullable Icon icon) {
+    return annotationManager.addMarkers(latitudes, longitudes, icon, this);
+  }
+
+  /**
+   * <p>
+   * Clusters markers, replacing markers previously clustered with this method.
+   * </p>
+   * Markers close to each other are combined into a {@link ClusterMarker} depending on the zoom level, only the
+   * clusters and markers within the viewport are added to the map. The clustering is computed on a background
+   * thread, the markers are shown once it completed. Clicking a cluster zooms in to where it splits, unless the
+   * click is handled by an {@link OnMarkerClickListener}.
+   *
+   * @param markerOptionsList the markers to cluster
+   * @param clusterOptions    the options used to cluster the markers
+   * @throws IllegalArgumentException when the maximum zoom level of the options is out of range
+   */
+  public void setClusteredMarkers(@NonNull List<? extends BaseMarkerOptions> markerOptionsList,
+                                  @NonNull ClusterOptions clusterOptions) {
+    annotationManager.setClusteredMarkers(markerOptionsList, clusterOptions);
+  }
+
+  /**
+   * <p>
+   * Removes the markers added with {@link #setClusteredMarkers(List, ClusterOptions)} and stops clustering.
+   * </p>
+   */
+  public void clearClusteredMarkers() {
+    annotationManager.clearClusteredMarkers();
+  }
+
+  /**
+   * <p>
+   * Saves the markers, polylines and polygons of the map into a compact binary snapshot.
+   * </p>
+   * Keep the snapshot across a configuration change, for example in a retained fragment, and restore it with
+   * {@link #restoreAnnotations(AnnotationSnapshot)} instead of adding all annotations again.
+   *
+   * @return the snapshot of the annotations
+   */
+  @NonNull
+  public AnnotationSnapshot saveAnnotations() {
+    return annotationManager.saveAnnotations();
+  }
+
+  /**
+   * <p>
+   * Adds the annotations of a snapshot to the map.
+   * </p>
+   * The markers, polylines and polygons are each added with a single call to the map, in the order they were saved.
+   *
+   * @param snapshot the snapshot created by {@link #saveAnnotations()}
+   * @throws IllegalArgumentException if the snapshot is corrupt
+   */
+  public void restoreAnnotations(@NonNull AnnotationSnapshot snapshot) {
+    annotationManager.restoreAnnotations(snapshot, this);
+  }
+
   /**
    * <p>
    * Updates a marker on this map. Does nothing if the marker isn't already added.
@@ -1321,6 +1422,76 @@ public final class MapboxMap {
     annotationManager.updateMarker(updatedMarker, this);
   }
 
+  /**
+   * <p>
+   * Updates multiple markers on this map in a single native call. Markers that aren't added are ignored.
+   * </p>
+   *
+   * @param updatedMarkers A list of updated marker objects
+   */
+  public void updateMarkers(@NonNull List<Marker> updatedMarkers) {
+    annotationManager.updateMarkers(updatedMarkers, this);
+  }
+
+  /**
+   * <p>
+   * Moves multiple markers on this map to new positions in a single native call.
+   * </p>
+   * The marker with id {@code ids[i]} is moved to {@code latitudes[i], longitudes[i]}. Ids of annotations
+   * that aren't markers added to this map are ignored.
+   *
+   * @param ids        the ids of the markers to move
+   * @param latitudes  the new latitudes of the markers
+   * @param longitudes the new longitudes of the markers
+   */
+  public void updateMarkers(@NonNull long[] ids, @NonNull double[] latitudes, @NonNull double[] longitudes) {
+    annotationManager.updateMarkers(ids, latitudes, longitudes, this);
+  }
+
+  /**
+   * <p>
+   * Gets the animator used to animate marker positions.
+   * </p>
+   * All markers animated through the returned {@link MarkerAnimator} are moved together with a single update of
+   * the map per display frame.
+   *
+   * @return the marker animator of this map
+   */
+  @UiThread
+  @NonNull
+  public MarkerAnimator getMarkerAnimator() {
+    if (markerAnimator == null) {
+      markerAnimator = new MarkerAnimator(this);
+    }
+    return markerAnimator;
+  }
+
+  /**
+   * <p>
+   * Starts an annotation transaction.
+   * </p>
+   * Until the matching {@link #commitAnnotationTransaction()}, updates to markers, polylines and polygons,
+   * for example through {@link Marker#setPosition(LatLng)} or {@link Polyline#setPoints(List)}, are
+   * buffered and only the latest state of each annotation is sent to the map when the transaction is
+   * committed, with one native call per annotation type. Transactions can be nested, pending updates are
+   * flushed when the outermost transaction is committed. Adding and removing annotations isn't deferred.
+   */
+  public void beginAnnotationTransaction() {
+    annotationManager.beginTransaction();
+  }
+
+  /**
+   * <p>
+   * Commits an annotation transaction started with {@link #beginAnnotationTransaction()}.
+   * </p>
+   * When the outermost transaction is committed, all buffered annotation updates are sent to the map.
+   *
+   * @throws IllegalStateException if no annotation transaction was started
+   */
+  public void commitAnnotationTransaction() {
+    annotationManager.commitTransaction();
+  }
+
   /**
    * Adds a polyline to this map.
    *
@@ -1643,6 +1814,26 @@ public final class MapboxMap {
     return annotationManager.getInfoWindowManager().isAllowConcurrentMultipleOpenInfoWindows();
   }
 
+  /**
+   * Returns how often the view of a closed info window was reused to show an info window.
+   *
+   * @return The amount of reused info window views.
+   * @see RecyclingInfoWindowAdapter
+   */
+  public int getInfoWindowViewPoolHitCount() {
+    return annotationManager.getInfoWindowManager().getViewPoolHitCount();
+  }
+
+  /**
+   * Returns how often no view of a closed info window was available and a new view had to be created.
+   *
+   * @return The amount of created info window views.
+   * @see RecyclingInfoWindowAdapter
+   */
+  public int getInfoWindowViewPoolMissCount() {
+    return annotationManager.getInfoWindowManager().getViewPoolMissCount();
+  }
+
   //
   // LatLngBounds
   //
@@ -2270,6 +2461,21 @@ public final class MapboxMap {
     void onCameraIdle();
   }
 
+  /**
+   * Interface definition for a callback to be invoked when images were added to the map's style.
+   *
+   * @see MapboxMap#addImages(HashMap, Executor, OnImagesAddedListener)
+   */
+  public interface OnImagesAddedListener {
+    /**
+     * Called when all images were added to the map's style.
+     * <p>
+     * Not called if the map is destroyed before all images were added, the remaining images are dropped.
+     * </p>
+     */
+    void onImagesAdded();
+  }
+
   /**
    * Interface definition for a callback to be invoked for when the compass is animating.
    */
@@ -2446,6 +2652,46 @@ public final class MapboxMap {
     View getInfoWindow(@NonNull Marker marker);
   }
 
+  /**
+   * Info window adapter reusing the views of closed info windows.
+   * <p>
+   * When an info window closes its view is kept in a pool per view type, and passed as convert view when the next
+   * info window of the same view type is shown. Adapting the convert view instead of inflating a new one avoids
+   * inflation and garbage collection when info windows are opened and closed in quick succession.
+   * </p>
+   *
+   * @see MapboxMap#setInfoWindowAdapter(InfoWindowAdapter)
+   */
+  public abstract static class RecyclingInfoWindowAdapter implements InfoWindowAdapter {
+
+    /**
+     * Returns the view type of the info window of a marker, only views of the same type are reused.
+     *
+     * @param marker The marker the user clicked on.
+     * @return The view type, zero or larger.
+     */
+    public int getViewType(@NonNull Marker marker) {
+      return 0;
+    }
+
+    /**
+     * Called when an info window will be shown as a result of a marker click.
+     *
+     * @param marker      The marker the user clicked on.
+     * @param convertView The view of a closed info window of the same view type to reuse, or null.
+     * @return View to be shown as a info window. If null is returned the default
+     * info window will be shown.
+     */
+    @Nullable
+    public abstract View getInfoWindow(@NonNull Marker marker, @Nullable View convertView);
+
+    @Nullable
+    @Override
+    public final View getInfoWindow(@NonNull Marker marker) {
+      return getInfoWindow(marker, null);
+    }
+  }
+
   /**
    * Interface definition for a callback to be invoked when an MarkerView will be shown.
    *
@@ -2456,6 +2702,9 @@ public final class MapboxMap {
   @Deprecated
   public abstract static class MarkerViewAdapter<U extends MarkerView> {
 
+    // Maximum amount of idle views kept for reuse, views released beyond this are detached from the map
+    private static final int VIEW_REUSE_POOL_SIZE = 500;
+
     private Context context;
     private final Class<U> persistentClass;
     private final Pools.SimplePool<View> viewReusePool;
@@ -2469,7 +2718,7 @@ public final class MapboxMap {
     public MarkerViewAdapter(Context context) {
       this.context = context;
       persistentClass = (Class<U>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
-      viewReusePool = new Pools.SimplePool<>(10000);
+      viewReusePool = new Pools.SimplePool<>(VIEW_REUSE_POOL_SIZE);
     }
 
     /**
@@ -2562,7 +2811,13 @@ public final class MapboxMap {
      */
     public final void releaseView(View view) {
       view.setVisibility(View.GONE);
-      viewReusePool.release(view);
+      if (!viewReusePool.release(view)) {
+        // pool is full, don't keep the idle view around in the map
+        ViewParent parent = view.getParent();
+        if (parent instanceof ViewGroup) {
+          ((ViewGroup) parent).removeView(view);
+        }
+      }
     }
   }
 
@@ -2672,4 +2927,8 @@ public final class MapboxMap {
   Transform getTransform() {
     return transform;
   }
+
+  NativeMapView getNativeMapView() {
+    return nativeMapView;
+  }
 }
@@ -0,0 +1,237 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.animation.TimeInterpolator;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.view.Choreographer;
+
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Animates the positions of markers, updating all animated markers at once on every display frame.
+ * <p>
+ * Animating markers with an animator per marker results in a native update for every marker on every tick.
+ * Animations started through this class are advanced together: each frame the positions of all animated markers
+ * are interpolated and sent to the map in a single batched update.
+ * </p>
+ * <p>
+ * While a marker is animated, the {@link LatLng} returned by {@link Marker#getPosition()} is updated in place on
+ * every frame instead of being replaced. Once the animation finished, the marker is at the position passed to
+ * {@link #animate(Marker, LatLng, long)}.
+ * </p>
+ * <h3>Example</h3>
+ * <pre>
+ * MarkerAnimator markerAnimator = mapboxMap.getMarkerAnimator();
+ * markerAnimator.animate(marker, new LatLng(52.37, 4.89), 1000);
+ * </pre>
+ */
+@UiThread
+public final class MarkerAnimator {
+
+  // Fallback frame interval where Choreographer isn't available
+  private static final long FRAME_DELAY_MILLIS = 16;
+
+  private final MapboxMap mapboxMap;
+  // keyed by instance, ids aren't unique for markers that aren't added to a map
+  private final Map<Marker, Animation> animations = new IdentityHashMap<>();
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Runnable frameRunnable = new Runnable() {
+    @Override
+    public void run() {
+      onFrame(System.nanoTime());
+    }
+  };
+  private Choreographer.FrameCallback frameCallback;
+  private boolean frameScheduled;
+
+  private TimeInterpolator interpolator;
+
+  MarkerAnimator(@NonNull MapboxMap mapboxMap) {
+    this.mapboxMap = mapboxMap;
+  }
+
+  /**
+   * Animates a marker from its current position to a new position. An ongoing animation of the marker is
+   * replaced, the new animation starts from where the marker currently is.
+   *
+   * @param marker     the marker to animate, needs to be added to the map
+   * @param position   the position to animate to
+   * @param durationMs the duration of the animation in milliseconds
+   * @throws IllegalArgumentException if the marker isn't added to the map
+   */
+  public void animate(@NonNull Marker marker, @NonNull LatLng position, long durationMs) {
+    if (marker.getId() == -1) {
+      throw new IllegalArgumentException("Marker needs to be added to the map before it can be animated");
+    }
+    if (durationMs <= 0) {
+      cancel(marker);
+      marker.setPosition(position);
+      return;
+    }
+
+    LatLng start = marker.getPosition();
+    // animate along the shortest path, across the antimeridian if needed
+    double deltaLongitude = position.getLongitude() - start.getLongitude();
+    if (deltaLongitude > 180) {
+      deltaLongitude -= 360;
+    } else if (deltaLongitude < -180) {
+      deltaLongitude += 360;
+    }
+
+    animations.put(marker, new Animation(marker, start.getLatitude(), start.getLongitude(),
+      position.getLatitude() - start.getLatitude(), deltaLongitude, position,
+      TimeUnit.MILLISECONDS.toNanos(durationMs)));
+    scheduleFrame();
+  }
+
+  /**
+   * Stops the animation of a marker, the marker stays where it currently is.
+   *
+   * @param marker the marker to stop animating
+   */
+  public void cancel(@NonNull Marker marker) {
+    animations.remove(marker);
+  }
+
+  /**
+   * Stops all animations, the markers stay where they currently are.
+   */
+  public void cancelAll() {
+    animations.clear();
+  }
+
+  /**
+   * Returns if a marker is being animated.
+   *
+   * @param marker the marker
+   * @return true when the marker is being animated
+   */
+  public boolean isAnimating(@NonNull Marker marker) {
+    return animations.containsKey(marker);
+  }
+
+  /**
+   * Sets the interpolator used for all animations. Defaults to linear interpolation.
+   *
+   * @param interpolator the interpolator, or null for linear interpolation
+   */
+  public void setInterpolator(@Nullable TimeInterpolator interpolator) {
+    this.interpolator = interpolator;
+  }
+
+  private void scheduleFrame() {
+    if (frameScheduled) {
+      return;
+    }
+
+    frameScheduled = true;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+      postFrameCallback();
+    } else {
+      handler.postDelayed(frameRunnable, FRAME_DELAY_MILLIS);
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+  private void postFrameCallback() {
+    if (frameCallback == null) {
+      frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          onFrame(frameTimeNanos);
+        }
+      };
+    }
+    Choreographer.getInstance().postFrameCallback(frameCallback);
+  }
+
+  void onFrame(long frameTimeNanos) {
+    frameScheduled = false;
+
+    // Marker#setPosition is collected by the transaction and flushed as a single native update
+    mapboxMap.beginAnnotationTransaction();
+    try {
+      Iterator<Animation> iterator = animations.values().iterator();
+      while (iterator.hasNext()) {
+        Animation animation = iterator.next();
+        Marker marker = animation.marker;
+        boolean removed = mapboxMap.getAnnotation(marker.getId()) != marker;
+        if (removed || animation.advance(frameTimeNanos, interpolator)) {
+          iterator.remove();
+        }
+      }
+    } finally {
+      mapboxMap.commitAnnotationTransaction();
+    }
+
+    if (!animations.isEmpty()) {
+      scheduleFrame();
+    }
+  }
+
+  private static final class Animation {
+
+    private final Marker marker;
+    private final double startLatitude;
+    private final double startLongitude;
+    private final double deltaLatitude;
+    private final double deltaLongitude;
+    private final LatLng end;
+    private final long durationNanos;
+    // updated in place on every frame
+    private final LatLng position = new LatLng();
+    // set on the first frame, so an animation started in between frames doesn't skip ahead
+    private long startTimeNanos = -1;
+
+    Animation(Marker marker, double startLatitude, double startLongitude, double deltaLatitude,
+              double deltaLongitude, LatLng end, long durationNanos) {
+      this.marker = marker;
+      this.startLatitude = startLatitude;
+      this.startLongitude = startLongitude;
+      this.deltaLatitude = deltaLatitude;
+      this.deltaLongitude = deltaLongitude;
+      this.end = end;
+      this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Moves the marker to its position at a frame.
+     *
+     * @return true when the animation finished
+     */
+    boolean advance(long frameTimeNanos, TimeInterpolator interpolator) {
+      if (startTimeNanos == -1) {
+        startTimeNanos = frameTimeNanos;
+      }
+
+      float fraction = Math.min(1f, (float) (frameTimeNanos - startTimeNanos) / durationNanos);
+      if (fraction >= 1f) {
+        marker.setPosition(end);
+        return true;
+      }
+
+      float interpolated = interpolator != null ? interpolator.getInterpolation(fraction) : fraction;
+      double longitude = startLongitude + deltaLongitude * interpolated;
+      if (longitude > 180) {
+        longitude -= 360;
+      } else if (longitude < -180) {
+        longitude += 360;
+      }
+      position.setLatitude(startLatitude + deltaLatitude * interpolated);
+      position.setLongitude(longitude);
+      marker.setPosition(position);
+      return false;
+    }
+  }
+}
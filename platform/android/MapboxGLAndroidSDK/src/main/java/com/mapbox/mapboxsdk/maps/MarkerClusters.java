@@ -0,0 +1,254 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
+import com.mapbox.mapboxsdk.annotations.ClusterOptions;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the markers shown for a set of clustered markers in sync with the camera.
+ * <p>
+ * The {@link ClusterIndex} is built on a background thread. Afterwards each camera change only queries the
+ * index when the cluster zoom level changed or the viewport left the area that was queried last, which is padded
+ * by half the viewport on each side. The result is diffed against the markers currently shown, so clusters and
+ * markers that stay visible aren't removed and added again.
+ * </p>
+ */
+final class MarkerClusters {
+
+  private final Executor executor;
+  private final Runnable onLoaded;
+  private final Handler handler;
+
+  // Incremented for every load, results of loads that were superseded in the meantime are discarded
+  private int generation;
+
+  private List<? extends BaseMarkerOptions> markerOptions;
+  private ClusterOptions clusterOptions;
+  private ClusterIndex index;
+
+  // Shown markers keyed by cluster id, or by the index of the marker options for unclustered markers
+  private LongHashMap<Marker> shownMarkers = new LongHashMap<>();
+  private LongHashMap<Marker> nextShownMarkers = new LongHashMap<>();
+  // Markers shown for a previous load, removed with the next update
+  private final List<Marker> replacedMarkers = new ArrayList<>();
+  private final ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+
+  private int queriedZoom = -1;
+  private double queriedWest;
+  private double queriedSouth;
+  private double queriedEast;
+  private double queriedNorth;
+
+  // Viewport corners and center, reused for every camera change
+  private final float[] viewportPoints = new float[10];
+  private final double[] viewportLatLngs = new double[10];
+
+  /**
+   * Creates an empty set of clustered markers.
+   *
+   * @param executor the executor to build the index on
+   * @param onLoaded invoked on the main thread when a load completed and the shown markers need to be updated
+   */
+  MarkerClusters(@NonNull Executor executor, @NonNull Runnable onLoaded) {
+    this(executor, new Handler(Looper.getMainLooper()), onLoaded);
+  }
+
+  MarkerClusters(@NonNull Executor executor, @NonNull Handler handler, @NonNull Runnable onLoaded) {
+    this.executor = executor;
+    this.handler = handler;
+    this.onLoaded = onLoaded;
+  }
+
+  /**
+   * Clusters markers, replacing the previously clustered markers once the index is built.
+   *
+   * @param markerOptions  the markers to cluster
+   * @param clusterOptions the options used to cluster
+   */
+  void load(@NonNull List<? extends BaseMarkerOptions> markerOptions, @NonNull ClusterOptions clusterOptions) {
+    final List<BaseMarkerOptions> options = new ArrayList<BaseMarkerOptions>(markerOptions);
+    final ClusterOptions loadedClusterOptions = clusterOptions;
+    final ClusterIndex clusterIndex = new ClusterIndex(
+      clusterOptions.getRadius(), clusterOptions.getMaxZoom(), clusterOptions.getMinPoints());
+
+    int count = options.size();
+    final double[] latitudes = new double[count];
+    final double[] longitudes = new double[count];
+    LatLng position;
+    for (int i = 0; i < count; i++) {
+      position = options.get(i).getPosition();
+      latitudes[i] = position.getLatitude();
+      longitudes[i] = position.getLongitude();
+    }
+
+    final int loadGeneration = ++generation;
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        clusterIndex.load(latitudes, longitudes, executor);
+        handler.post(new Runnable() {
+          @Override
+          public void run() {
+            if (loadGeneration != generation) {
+              return;
+            }
+            MarkerClusters.this.markerOptions = options;
+            MarkerClusters.this.clusterOptions = loadedClusterOptions;
+            index = clusterIndex;
+            queriedZoom = -1;
+            // ids of the new index refer to other clusters and markers
+            for (int i = 0; i < shownMarkers.size(); i++) {
+              replacedMarkers.add(shownMarkers.valueAt(i));
+            }
+            shownMarkers.clear();
+            onLoaded.run();
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Stops clustering, discarding pending loads.
+   *
+   * @param removedMarkers receives the markers that were shown
+   */
+  void clear(@NonNull List<Marker> removedMarkers) {
+    generation++;
+    index = null;
+    markerOptions = null;
+    clusterOptions = null;
+    queriedZoom = -1;
+    removedMarkers.addAll(replacedMarkers);
+    replacedMarkers.clear();
+    for (int i = 0; i < shownMarkers.size(); i++) {
+      removedMarkers.add(shownMarkers.valueAt(i));
+    }
+    shownMarkers.clear();
+  }
+
+  /**
+   * Updates the shown markers for the current camera.
+   *
+   * @param projection     the projection of the map
+   * @param addedMarkers   receives the markers to add to the map
+   * @param removedMarkers receives the markers to remove from the map
+   */
+  void update(@NonNull Projection projection, @NonNull List<Marker> addedMarkers,
+              @NonNull List<Marker> removedMarkers) {
+    if (!replacedMarkers.isEmpty()) {
+      removedMarkers.addAll(replacedMarkers);
+      replacedMarkers.clear();
+    }
+    if (index == null) {
+      return;
+    }
+
+    double zoom = projection.getZoom();
+    int clusterZoom = index.getClusterZoom(zoom);
+    if (!updateQueriedBounds(projection, clusterZoom != queriedZoom)) {
+      return;
+    }
+
+    index.getClusters(queriedWest, queriedSouth, queriedEast, queriedNorth, zoom, clusters);
+    queriedZoom = clusterZoom;
+
+    Marker marker;
+    for (int i = 0; i < clusters.size(); i++) {
+      long id = clusters.getId(i);
+      marker = shownMarkers.get(id);
+      if (marker != null) {
+        shownMarkers.remove(id);
+      } else {
+        marker = createMarker(i);
+        addedMarkers.add(marker);
+      }
+      nextShownMarkers.put(id, marker);
+    }
+
+    for (int i = 0; i < shownMarkers.size(); i++) {
+      removedMarkers.add(shownMarkers.valueAt(i));
+    }
+    shownMarkers.clear();
+
+    LongHashMap<Marker> swap = shownMarkers;
+    shownMarkers = nextShownMarkers;
+    nextShownMarkers = swap;
+  }
+
+  /**
+   * Computes the bounds of the viewport and pads them when the viewport left the bounds that were queried last.
+   *
+   * @param projection the projection of the map
+   * @param force      true to update the bounds even if the viewport is still within them
+   * @return true when the queried bounds changed
+   */
+  private boolean updateQueriedBounds(Projection projection, boolean force) {
+    float width = projection.getWidth();
+    float height = projection.getHeight();
+    viewportPoints[2] = width;
+    viewportPoints[4] = width;
+    viewportPoints[5] = height;
+    viewportPoints[7] = height;
+    viewportPoints[8] = width / 2;
+    viewportPoints[9] = height / 2;
+    projection.fromScreenLocations(viewportPoints, viewportLatLngs);
+
+    // unwrap the longitudes of the corners relative to the center, the viewport may cross the antimeridian
+    double centerLongitude = viewportLatLngs[9];
+    double west = centerLongitude;
+    double east = centerLongitude;
+    double south = viewportLatLngs[8];
+    double north = viewportLatLngs[8];
+    for (int i = 0; i < 8; i += 2) {
+      double longitude = viewportLatLngs[i + 1];
+      while (longitude - centerLongitude > 180) {
+        longitude -= 360;
+      }
+      while (longitude - centerLongitude < -180) {
+        longitude += 360;
+      }
+      west = Math.min(west, longitude);
+      east = Math.max(east, longitude);
+      south = Math.min(south, viewportLatLngs[i]);
+      north = Math.max(north, viewportLatLngs[i]);
+    }
+
+    if (!force) {
+      // compare in the same world copy as the queried bounds
+      double shift = Math.round(((queriedWest + queriedEast) / 2 - centerLongitude) / 360) * 360.0;
+      if (west + shift >= queriedWest && east + shift <= queriedEast
+        && south >= queriedSouth && north <= queriedNorth) {
+        return false;
+      }
+    }
+
+    double longitudePadding = (east - west) / 2;
+    double latitudePadding = (north - south) / 2;
+    queriedWest = west - longitudePadding;
+    queriedEast = east + longitudePadding;
+    queriedSouth = Math.max(-90, south - latitudePadding);
+    queriedNorth = Math.min(90, north + latitudePadding);
+    return true;
+  }
+
+  private Marker createMarker(int cluster) {
+    long id = clusters.getId(cluster);
+    if (!index.isCluster(id)) {
+      return markerOptions.get((int) id).getMarker();
+    }
+    LatLng position = new LatLng(clusters.getLatitude(cluster), clusters.getLongitude(cluster));
+    return new ClusterMarker(position, clusterOptions.getIcon(), id, clusters.getCount(cluster),
+      index.getClusterExpansionZoom(id));
+  }
+}
@@ -4,7 +4,6 @@ package com.mapbox.mapboxsdk.maps;
 import android.graphics.RectF;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
@@ -12,8 +11,10 @@ import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
 import com.mapbox.mapboxsdk.annotations.Icon;
 import com.mapbox.mapboxsdk.annotations.IconFactory;
 import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,11 +26,11 @@ class MarkerContainer implements Markers {
 
   private final NativeMapView nativeMapView;
   private final MapView mapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final LongHashMap<Annotation> annotations;
   private final IconManager iconManager;
   private final MarkerViewManager markerViewManager;
 
-  MarkerContainer(NativeMapView nativeMapView, MapView mapView, LongSparseArray<Annotation> annotations, IconManager
+  MarkerContainer(NativeMapView nativeMapView, MapView mapView, LongHashMap<Annotation> annotations, IconManager
     iconManager, MarkerViewManager markerViewManager) {
     this.nativeMapView = nativeMapView;
     this.mapView = mapView;
@@ -54,22 +55,66 @@ class MarkerContainer implements Markers {
     int count = markerOptionsList.size();
     List<Marker> markers = new ArrayList<>(count);
     if (nativeMapView != null && count > 0) {
-      BaseMarkerOptions markerOptions;
-      Marker marker;
       for (int i = 0; i < count; i++) {
-        markerOptions = markerOptionsList.get(i);
-        marker = prepareMarker(markerOptions);
+        markers.add(markerOptionsList.get(i).getMarker());
+      }
+      add(markers, mapboxMap);
+    }
+    return markers;
+  }
+
+  @Override
+  public void add(@NonNull List<? extends Marker> markers, @NonNull MapboxMap mapboxMap) {
+    if (nativeMapView == null || markers.isEmpty()) {
+      return;
+    }
+
+    for (Marker marker : markers) {
+      prepareMarker(marker);
+    }
+
+    long[] ids = nativeMapView.addMarkers(markers);
+    for (int i = 0; i < ids.length; i++) {
+      Marker createdMarker = markers.get(i);
+      createdMarker.setMapboxMap(mapboxMap);
+      createdMarker.setId(ids[i]);
+      annotations.put(ids[i], createdMarker);
+    }
+  }
+
+  @Override
+  public List<Marker> addBy(@NonNull double[] latitudes, @NonNull double[] longitudes, @Nullable Icon icon,
+                            @NonNull MapboxMap mapboxMap) {
+    if (latitudes.length != longitudes.length) {
+      throw new IllegalArgumentException("latitudes and longitudes need to be of equal length");
+    }
+
+    int count = latitudes.length;
+    List<Marker> markers = new ArrayList<>(count);
+    if (nativeMapView != null && count > 0) {
+      // a single options instance is reused, each marker only allocates itself and its position
+      MarkerOptions markerOptions = new MarkerOptions().icon(icon);
+      Marker marker = markerOptions.position(new LatLng(latitudes[0], longitudes[0])).getMarker();
+      Icon loadedIcon = iconManager.loadIconForMarker(marker);
+      int topOffsetPixels = iconManager.getTopOffsetPixelsForIcon(loadedIcon);
+      marker.setTopOffsetPixels(topOffsetPixels);
+      markers.add(marker);
+
+      // the icon is loaded once, every other marker only adds a reference to it
+      markerOptions.icon(loadedIcon);
+      for (int i = 1; i < count; i++) {
+        marker = markerOptions.position(new LatLng(latitudes[i], longitudes[i])).getMarker();
+        marker.setTopOffsetPixels(topOffsetPixels);
         markers.add(marker);
       }
+      iconManager.addIconReferences(loadedIcon, count - 1);
 
-      if (markers.size() > 0) {
-        long[] ids = nativeMapView.addMarkers(markers);
-        for (int i = 0; i < ids.length; i++) {
-          Marker createdMarker = markers.get(i);
-          createdMarker.setMapboxMap(mapboxMap);
-          createdMarker.setId(ids[i]);
-          annotations.put(ids[i], createdMarker);
-        }
+      long[] ids = nativeMapView.addMarkers(latitudes, longitudes, loadedIcon.getId());
+      for (int i = 0; i < ids.length; i++) {
+        Marker createdMarker = markers.get(i);
+        createdMarker.setMapboxMap(mapboxMap);
+        createdMarker.setId(ids[i]);
+        annotations.put(ids[i], createdMarker);
       }
     }
     return markers;
@@ -82,12 +127,21 @@ class MarkerContainer implements Markers {
     annotations.setValueAt(annotations.indexOfKey(updatedMarker.getId()), updatedMarker);
   }
 
+  @Override
+  public void update(@NonNull List<Marker> updatedMarkers, @NonNull MapboxMap mapboxMap) {
+    for (Marker updatedMarker : updatedMarkers) {
+      ensureIconLoaded(updatedMarker, mapboxMap);
+      annotations.put(updatedMarker.getId(), updatedMarker);
+    }
+    nativeMapView.updateMarkers(updatedMarkers);
+  }
+
   @Override
   public List<Marker> obtainAll() {
     List<Marker> markers = new ArrayList<>();
     Annotation annotation;
     for (int i = 0; i < annotations.size(); i++) {
-      annotation = annotations.get(annotations.keyAt(i));
+      annotation = annotations.valueAt(i);
       if (annotation instanceof Marker) {
         markers.add((Marker) annotation);
       }
@@ -100,22 +154,7 @@ class MarkerContainer implements Markers {
   public List<Marker> obtainAllIn(@NonNull RectF rectangle) {
     RectF rect = nativeMapView.getDensityDependantRectangle(rectangle);
     long[] ids = nativeMapView.queryPointAnnotations(rect);
-    List<Long> idsList = new ArrayList<>(ids.length);
-    for (long id : ids) {
-      idsList.add(id);
-    }
-
-    List<Marker> annotations = new ArrayList<>(ids.length);
-    List<Annotation> annotationList = obtainAnnotations();
-    int count = annotationList.size();
-    for (int i = 0; i < count; i++) {
-      Annotation annotation = annotationList.get(i);
-      if (annotation instanceof com.mapbox.mapboxsdk.annotations.Marker && idsList.contains(annotation.getId())) {
-        annotations.add((com.mapbox.mapboxsdk.annotations.Marker) annotation);
-      }
-    }
-
-    return new ArrayList<>(annotations);
+    return getAnnotationsFromIds(ids, Marker.class);
   }
 
   @Override
@@ -156,55 +195,34 @@ class MarkerContainer implements Markers {
       markers.add(marker);
     }
     markerViewManager.setEnabled(true);
-    markerViewManager.update();
+    markerViewManager.onMarkerViewsChanged();
     return markers;
   }
 
   @Override
   public List<MarkerView> obtainViewsIn(@NonNull RectF rectangle) {
-    float pixelRatio = nativeMapView.getPixelRatio();
-    RectF rect = new RectF(rectangle.left / pixelRatio,
-      rectangle.top / pixelRatio,
-      rectangle.right / pixelRatio,
-      rectangle.bottom / pixelRatio);
-
+    RectF rect = nativeMapView.getDensityDependantRectangle(rectangle);
     long[] ids = nativeMapView.queryPointAnnotations(rect);
-
-    List<Long> idsList = new ArrayList<>(ids.length);
-    for (long id : ids) {
-      idsList.add(id);
-    }
-
-    List<MarkerView> annotations = new ArrayList<>(ids.length);
-    List<Annotation> annotationList = obtainAnnotations();
-    int count = annotationList.size();
-    for (int i = 0; i < count; i++) {
-      Annotation annotation = annotationList.get(i);
-      if (annotation instanceof MarkerView && idsList.contains(annotation.getId())) {
-        annotations.add((MarkerView) annotation);
-      }
-    }
-
-    return new ArrayList<>(annotations);
+    return getAnnotationsFromIds(ids, MarkerView.class);
   }
 
   @Override
   public void reload() {
     iconManager.reloadIcons();
-    int count = annotations.size();
-    for (int i = 0; i < count; i++) {
-      Annotation annotation = annotations.get(i);
-      if (annotation instanceof Marker) {
-        Marker marker = (Marker) annotation;
-        nativeMapView.removeAnnotation(annotation.getId());
-        long newId = nativeMapView.addMarker(marker);
-        marker.setId(newId);
-      }
+
+    // the native map keeps its annotations when the style changes, re-adding them would assign new ids.
+    // A single batched update brings positions and icons in sync while the ids stay the same.
+    List<Marker> markers = obtainAll();
+    if (!markers.isEmpty()) {
+      nativeMapView.updateMarkers(markers);
     }
   }
 
   private Marker prepareMarker(BaseMarkerOptions markerOptions) {
-    Marker marker = markerOptions.getMarker();
+    return prepareMarker(markerOptions.getMarker());
+  }
+
+  private Marker prepareMarker(Marker marker) {
     Icon icon = iconManager.loadIconForMarker(marker);
     marker.setTopOffsetPixels(iconManager.getTopOffsetPixelsForIcon(icon));
     return marker;
@@ -216,12 +234,23 @@ class MarkerContainer implements Markers {
     }
   }
 
-  private List<Annotation> obtainAnnotations() {
-    List<Annotation> annotations = new ArrayList<>();
-    for (int i = 0; i < this.annotations.size(); i++) {
-      annotations.add(this.annotations.get(this.annotations.keyAt(i)));
+  /**
+   * Resolves the ids returned by a native point annotation query into annotations of the given type.
+   * <p>
+   * The native annotation manager already keeps point annotations in a spatial index, resolving
+   * each hit by key avoids a scan over all annotations.
+   * </p>
+   */
+  private <T extends Marker> List<T> getAnnotationsFromIds(long[] ids, Class<T> type) {
+    List<T> markers = new ArrayList<>(ids.length);
+    Annotation annotation;
+    for (long id : ids) {
+      annotation = annotations.get(id);
+      if (type.isInstance(annotation)) {
+        markers.add(type.cast(annotation));
+      }
     }
-    return annotations;
+    return markers;
   }
 
   private MarkerView prepareViewMarker(BaseMarkerViewOptions markerViewOptions) {
@@ -4,7 +4,8 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.PointF;
 import android.graphics.RectF;
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -32,18 +33,22 @@ import com.mapbox.mapboxsdk.utils.BitmapUtils;
 import com.mapbox.services.commons.geojson.Feature;
 import com.mapbox.services.commons.geojson.Geometry;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import timber.log.Timber;
 
 // Class that wraps the native methods for convenience
 final class NativeMapView {
 
+  // Amount of images converted per task when adding images in bulk
+  private static final int IMAGE_CONVERSION_CHUNK_SIZE = 32;
+
   // Flag to indicating destroy was called
   private boolean destroyed = false;
 
@@ -65,6 +70,9 @@ final class NativeMapView {
   // Listener invoked to return a bitmap of the map
   private MapboxMap.SnapshotReadyCallback snapshotReadyCallback;
 
+  // Incremented when the transform changes, used to invalidate snapshots of the transform state
+  private int transformStateVersion;
+
   static {
     LibraryLoader.load();
   }
@@ -141,6 +149,7 @@ final class NativeMapView {
       height = 65535;
     }
 
+    transformStateVersion++;
     nativeResizeView(width, height);
   }
 
@@ -177,6 +186,7 @@ final class NativeMapView {
       return;
     }
     nativeSetLatLngBounds(latLngBounds);
+    transformStateVersion++;
   }
 
   public void cancelTransitions() {
@@ -389,13 +399,20 @@ final class NativeMapView {
     return nativeAddMarkers(markers)[0];
   }
 
-  public long[] addMarkers(List<Marker> markers) {
+  public long[] addMarkers(List<? extends Marker> markers) {
     if (isDestroyedOn("addMarkers")) {
       return new long[] {};
     }
     return nativeAddMarkers(markers.toArray(new Marker[markers.size()]));
   }
 
+  public long[] addMarkers(double[] latitudes, double[] longitudes, String iconId) {
+    if (isDestroyedOn("addMarkers")) {
+      return new long[] {};
+    }
+    return nativeAddMarkerPositions(latitudes, longitudes, iconId);
+  }
+
   public long addPolyline(Polyline polyline) {
     if (isDestroyedOn("addPolyline")) {
       return 0;
@@ -435,6 +452,40 @@ final class NativeMapView {
     nativeUpdateMarker(marker.getId(), position.getLatitude(), position.getLongitude(), icon.getId());
   }
 
+  public void updateMarkers(List<Marker> markers) {
+    if (isDestroyedOn("updateMarkers")) {
+      return;
+    }
+    int count = markers.size();
+    long[] ids = new long[count];
+    double[] latitudes = new double[count];
+    double[] longitudes = new double[count];
+    String[] iconIds = new String[count];
+    Marker marker;
+    LatLng position;
+    for (int i = 0; i < count; i++) {
+      marker = markers.get(i);
+      position = marker.getPosition();
+      ids[i] = marker.getId();
+      latitudes[i] = position.getLatitude();
+      longitudes[i] = position.getLongitude();
+      iconIds[i] = marker.getIcon().getId();
+    }
+    nativeUpdateMarkers(ids, latitudes, longitudes, iconIds);
+  }
+
+  public void updatePolygons(List<Polygon> polygons) {
+    if (isDestroyedOn("updatePolygons")) {
+      return;
+    }
+    int count = polygons.size();
+    long[] ids = new long[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = polygons.get(i).getId();
+    }
+    nativeUpdatePolygons(ids, polygons.toArray(new Polygon[count]));
+  }
+
   public void updatePolygon(Polygon polygon) {
     if (isDestroyedOn("updatePolygon")) {
       return;
@@ -442,6 +493,18 @@ final class NativeMapView {
     nativeUpdatePolygon(polygon.getId(), polygon);
   }
 
+  public void updatePolylines(List<Polyline> polylines) {
+    if (isDestroyedOn("updatePolylines")) {
+      return;
+    }
+    int count = polylines.size();
+    long[] ids = new long[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = polylines.get(i).getId();
+    }
+    nativeUpdatePolylines(ids, polylines.toArray(new Polyline[count]));
+  }
+
   public void updatePolyline(Polyline polyline) {
     if (isDestroyedOn("updatePolyline")) {
       return;
@@ -485,6 +548,13 @@ final class NativeMapView {
     nativeAddAnnotationIcon(symbol, width, height, scale, pixels);
   }
 
+  public void addAnnotationIcon(String symbol, Bitmap bitmap, float scale) {
+    if (isDestroyedOn("addAnnotationIcon")) {
+      return;
+    }
+    nativeAddAnnotationIconBitmap(symbol, bitmap, scale);
+  }
+
   public void removeAnnotationIcon(String symbol) {
     if (isDestroyedOn("removeAnnotationIcon")) {
       return;
@@ -579,6 +649,37 @@ final class NativeMapView {
     return nativeLatLngForPixel(pixel.x / pixelRatio, pixel.y / pixelRatio).wrap();
   }
 
+  public void pixelsForLatLngs(double[] input, float[] output) {
+    if (isDestroyedOn("pixelsForLatLngs")) {
+      return;
+    }
+    nativePixelsForLatLngs(input, output, pixelRatio);
+  }
+
+  public void latLngsForPixels(float[] input, double[] output) {
+    if (isDestroyedOn("latLngsForPixels")) {
+      return;
+    }
+    nativeLatLngsForPixels(input, output, pixelRatio);
+  }
+
+  /**
+   * Fills in a snapshot of the transform state, laid out as defined by the STATE_ constants of
+   * {@link TransformProjection}.
+   *
+   * @param state the array receiving the transform state
+   */
+  void getTransformState(double[] state) {
+    if (isDestroyedOn("getTransformState")) {
+      return;
+    }
+    nativeGetTransformState(state);
+  }
+
+  int getTransformStateVersion() {
+    return transformStateVersion;
+  }
+
   public double getTopOffsetPixelsForAnnotationSymbol(String symbolName) {
     if (isDestroyedOn("getTopOffsetPixelsForAnnotationSymbol")) {
       return 0;
@@ -757,28 +858,53 @@ final class NativeMapView {
       return;
     }
 
-    // Check/correct config
-    if (image.getConfig() != Bitmap.Config.ARGB_8888) {
+    // Check/correct config, the pixels of supported configs are read by native directly
+    if (!isNativeReadableConfig(image.getConfig())) {
       image = image.copy(Bitmap.Config.ARGB_8888, false);
     }
 
-    // Get pixels
-    ByteBuffer buffer = ByteBuffer.allocate(image.getByteCount());
-    image.copyPixelsToBuffer(buffer);
-
     // Determine pixel ratio
     float density = image.getDensity() == Bitmap.DENSITY_NONE ? Bitmap.DENSITY_NONE : image.getDensity();
     float pixelRatio = density / DisplayMetrics.DENSITY_DEFAULT;
 
-    nativeAddImage(name, image.getWidth(), image.getHeight(), pixelRatio, buffer.array());
+    nativeAddImage(name, image, pixelRatio);
   }
 
-  public void addImages(@NonNull HashMap<String, Bitmap> bitmapHashMap) {
+  private static boolean isNativeReadableConfig(Bitmap.Config config) {
+    return config == Bitmap.Config.ARGB_8888 || config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ALPHA_8;
+  }
+
+  public void addImages(@NonNull HashMap<String, Bitmap> bitmapHashMap, @NonNull Executor executor,
+                        @Nullable MapboxMap.OnImagesAddedListener listener) {
     if (isDestroyedOn("addImages")) {
       return;
     }
-    //noinspection unchecked
-    new BitmapImageConversionTask(this).execute(bitmapHashMap);
+
+    int count = bitmapHashMap.size();
+    if (count == 0) {
+      if (listener != null) {
+        listener.onImagesAdded();
+      }
+      return;
+    }
+
+    String[] names = new String[count];
+    Bitmap[] bitmaps = new Bitmap[count];
+    int index = 0;
+    for (Map.Entry<String, Bitmap> stringBitmapEntry : bitmapHashMap.entrySet()) {
+      names[index] = stringBitmapEntry.getKey();
+      bitmaps[index] = stringBitmapEntry.getValue();
+      index++;
+    }
+
+    int chunkCount = (count + IMAGE_CONVERSION_CHUNK_SIZE - 1) / IMAGE_CONVERSION_CHUNK_SIZE;
+    AtomicInteger remainingChunks = new AtomicInteger(chunkCount);
+    Handler handler = new Handler(Looper.getMainLooper());
+    for (int start = 0; start < count; start += IMAGE_CONVERSION_CHUNK_SIZE) {
+      int end = Math.min(start + IMAGE_CONVERSION_CHUNK_SIZE, count);
+      executor.execute(new BitmapImageConversionTask(this, handler, names, bitmaps, start, end, remainingChunks,
+        listener));
+    }
   }
 
   public void removeImage(String name) {
@@ -858,6 +984,10 @@ final class NativeMapView {
   //
 
   protected void onMapChanged(int rawChange) {
+    if (rawChange <= MapView.REGION_DID_CHANGE_ANIMATED) {
+      // camera changes, invalidate before listeners get a chance to project
+      transformStateVersion++;
+    }
     if (mapView != null) {
       mapView.onMapChange(rawChange);
     }
@@ -945,8 +1075,13 @@ final class NativeMapView {
 
   private native void nativeUpdateMarker(long markerId, double lat, double lon, String iconId);
 
+  private native void nativeUpdateMarkers(long[] markerIds, double[] latitudes, double[] longitudes,
+                                          String[] iconIds);
+
   private native long[] nativeAddMarkers(Marker[] markers);
 
+  private native long[] nativeAddMarkerPositions(double[] latitudes, double[] longitudes, String iconId);
+
   private native long[] nativeAddPolylines(Polyline[] polylines);
 
   private native long[] nativeAddPolygons(Polygon[] polygons);
@@ -959,6 +1094,8 @@ final class NativeMapView {
 
   private native void nativeAddAnnotationIcon(String symbol, int width, int height, float scale, byte[] pixels);
 
+  private native void nativeAddAnnotationIconBitmap(String symbol, Bitmap bitmap, float scale);
+
   private native void nativeRemoveAnnotationIcon(String symbol);
 
   private native void nativeSetVisibleCoordinateBounds(LatLng[] coordinates, RectF padding,
@@ -986,6 +1123,12 @@ final class NativeMapView {
 
   private native LatLng nativeLatLngForPixel(float x, float y);
 
+  private native void nativePixelsForLatLngs(double[] input, float[] output, float pixelRatio);
+
+  private native void nativeLatLngsForPixels(float[] input, double[] output, float pixelRatio);
+
+  private native void nativeGetTransformState(double[] state);
+
   private native double nativeGetTopOffsetPixelsForAnnotationSymbol(String symbolName);
 
   private native void nativeJumpTo(double angle, double latitude, double longitude, double pitch, double zoom);
@@ -1033,10 +1176,13 @@ final class NativeMapView {
 
   private native void nativeRemoveSource(long sourcePtr);
 
-  private native void nativeAddImage(String name, int width, int height, float pixelRatio,
-                                     byte[] array);
+  private native void nativeAddImage(String name, Bitmap bitmap, float pixelRatio);
+
+  private native void nativeAddImages(String[] names, long images, float[] pixelRatios);
+
+  private static native long nativeConvertImages(Bitmap[] bitmaps);
 
-  private native void nativeAddImages(Image[] images);
+  private static native void nativeReleaseConvertedImages(long images);
 
   private native void nativeRemoveImage(String name);
 
@@ -1044,8 +1190,12 @@ final class NativeMapView {
 
   private native void nativeUpdatePolygon(long polygonId, Polygon polygon);
 
+  private native void nativeUpdatePolygons(long[] polygonIds, Polygon[] polygons);
+
   private native void nativeUpdatePolyline(long polylineId, Polyline polyline);
 
+  private native void nativeUpdatePolylines(long[] polylineIds, Polyline[] polylines);
+
   private native void nativeTakeSnapshot();
 
   private native Feature[] nativeQueryRenderedFeaturesForPoint(float x, float y,
@@ -1133,49 +1283,71 @@ final class NativeMapView {
   // Image conversion
   //
 
-  private static class BitmapImageConversionTask extends AsyncTask<HashMap<String, Bitmap>, Void, List<Image>> {
+  private static class BitmapImageConversionTask implements Runnable {
 
-    private NativeMapView nativeMapView;
+    private final NativeMapView nativeMapView;
+    private final Handler handler;
+    private final String[] names;
+    private final Bitmap[] bitmaps;
+    private final int start;
+    private final int end;
+    private final AtomicInteger remainingChunks;
+    private final MapboxMap.OnImagesAddedListener listener;
 
-    BitmapImageConversionTask(NativeMapView nativeMapView) {
+    BitmapImageConversionTask(NativeMapView nativeMapView, Handler handler, String[] names, Bitmap[] bitmaps,
+                              int start, int end, AtomicInteger remainingChunks,
+                              MapboxMap.OnImagesAddedListener listener) {
       this.nativeMapView = nativeMapView;
+      this.handler = handler;
+      this.names = names;
+      this.bitmaps = bitmaps;
+      this.start = start;
+      this.end = end;
+      this.remainingChunks = remainingChunks;
+      this.listener = listener;
     }
 
     @Override
-    protected List<Image> doInBackground(HashMap<String, Bitmap>... params) {
-      HashMap<String, Bitmap> bitmapHashMap = params[0];
-
-      List<Image> images = new ArrayList<>();
-      ByteBuffer buffer;
-      String name;
+    public void run() {
+      final int count = end - start;
+      final String[] chunkNames = new String[count];
+      final Bitmap[] chunkBitmaps = new Bitmap[count];
+      final float[] pixelRatios = new float[count];
       Bitmap bitmap;
 
-      for (Map.Entry<String, Bitmap> stringBitmapEntry : bitmapHashMap.entrySet()) {
-        name = stringBitmapEntry.getKey();
-        bitmap = stringBitmapEntry.getValue();
+      for (int i = start; i < end; i++) {
+        bitmap = bitmaps[i];
 
-        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+        // the pixels of supported configs are read by native directly
+        if (!isNativeReadableConfig(bitmap.getConfig())) {
           bitmap = bitmap.copy(Bitmap.Config.ARGB_8888, false);
         }
 
-        buffer = ByteBuffer.allocate(bitmap.getByteCount());
-        bitmap.copyPixelsToBuffer(buffer);
-
         float density = bitmap.getDensity() == Bitmap.DENSITY_NONE ? Bitmap.DENSITY_NONE : bitmap.getDensity();
-        float pixelRatio = density / DisplayMetrics.DENSITY_DEFAULT;
-
-        images.add(new Image(buffer.array(), pixelRatio, name, bitmap.getWidth(), bitmap.getHeight()));
+        chunkNames[i - start] = names[i];
+        chunkBitmaps[i - start] = bitmap;
+        pixelRatios[i - start] = density / DisplayMetrics.DENSITY_DEFAULT;
       }
 
-      return images;
-    }
+      // copies and premultiplies the pixels on this thread, only adding the images is left to the main thread
+      final long images = nativeConvertImages(chunkBitmaps);
 
-    @Override
-    protected void onPostExecute(List<Image> images) {
-      super.onPostExecute(images);
-      if (nativeMapView != null && !nativeMapView.isDestroyedOn("nativeAddImages")) {
-        nativeMapView.nativeAddImages(images.toArray(new Image[images.size()]));
-      }
+      handler.post(new Runnable() {
+        @Override
+        public void run() {
+          // the listener isn't notified once the map is destroyed, see OnImagesAddedListener
+          if (nativeMapView.isDestroyedOn("nativeAddImages")) {
+            nativeReleaseConvertedImages(images);
+            return;
+          }
+
+          // takes ownership of the converted images
+          nativeMapView.nativeAddImages(chunkNames, images, pixelRatios);
+          if (remainingChunks.decrementAndGet() == 0 && listener != null) {
+            listener.onImagesAdded();
+          }
+        }
+      });
     }
   }
 }
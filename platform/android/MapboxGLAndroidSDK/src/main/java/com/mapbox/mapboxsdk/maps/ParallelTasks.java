@@ -0,0 +1,58 @@
+package com.mapbox.mapboxsdk.maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs independent tasks concurrently and waits for all of them to finish.
+ * <p>
+ * The calling thread takes part: it runs the tasks that weren't picked up by the executor yet. This keeps nested
+ * use from a task running on the same executor free of deadlocks, even when all threads of the executor are busy.
+ * </p>
+ */
+final class ParallelTasks {
+
+  private ParallelTasks() {
+  }
+
+  /**
+   * Runs tasks and returns when all of them completed.
+   *
+   * @param tasks    the tasks to run
+   * @param executor the executor to run the tasks on
+   * @throws RuntimeException when one of the tasks failed
+   */
+  static void run(List<Runnable> tasks, Executor executor) {
+    List<FutureTask<Void>> futures = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      futures.add(new FutureTask<Void>(task, null));
+    }
+
+    // the first task is run on the calling thread anyway
+    for (int i = 1; i < futures.size(); i++) {
+      try {
+        executor.execute(futures.get(i));
+      } catch (RejectedExecutionException exception) {
+        // the executor is saturated, the remaining tasks are run on the calling thread below
+        break;
+      }
+    }
+
+    for (FutureTask<Void> future : futures) {
+      // does nothing if the task was started elsewhere
+      future.run();
+      try {
+        future.get();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for parallel tasks", exception);
+      } catch (ExecutionException exception) {
+        throw new RuntimeException("Parallel task failed", exception.getCause());
+      }
+    }
+  }
+}
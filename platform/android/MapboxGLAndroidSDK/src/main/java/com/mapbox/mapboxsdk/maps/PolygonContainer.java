@@ -2,7 +2,6 @@ package com.mapbox.mapboxsdk.maps;
 
 
 import android.support.annotation.NonNull;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.Polygon;
@@ -17,9 +16,9 @@ import java.util.List;
 class PolygonContainer implements Polygons {
 
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final LongHashMap<Annotation> annotations;
 
-  PolygonContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  PolygonContainer(NativeMapView nativeMapView, LongHashMap<Annotation> annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
@@ -27,7 +26,7 @@ class PolygonContainer implements Polygons {
   @Override
   public Polygon addBy(@NonNull PolygonOptions polygonOptions, @NonNull MapboxMap mapboxMap) {
     Polygon polygon = polygonOptions.getPolygon();
-    if (!polygon.getPoints().isEmpty()) {
+    if (polygon.getPointCount() > 0) {
       long id = nativeMapView != null ? nativeMapView.addPolygon(polygon) : 0;
       polygon.setId(id);
       polygon.setMapboxMap(mapboxMap);
@@ -45,7 +44,7 @@ class PolygonContainer implements Polygons {
     if (nativeMapView != null && count > 0) {
       for (PolygonOptions polygonOptions : polygonOptionsList) {
         polygon = polygonOptions.getPolygon();
-        if (!polygon.getPoints().isEmpty()) {
+        if (polygon.getPointCount() > 0) {
           polygons.add(polygon);
         }
       }
@@ -67,12 +66,20 @@ class PolygonContainer implements Polygons {
     annotations.setValueAt(annotations.indexOfKey(polygon.getId()), polygon);
   }
 
+  @Override
+  public void update(@NonNull List<Polygon> polygons) {
+    for (Polygon polygon : polygons) {
+      annotations.put(polygon.getId(), polygon);
+    }
+    nativeMapView.updatePolygons(polygons);
+  }
+
   @Override
   public List<Polygon> obtainAll() {
     List<Polygon> polygons = new ArrayList<>();
     Annotation annotation;
     for (int i = 0; i < annotations.size(); i++) {
-      annotation = annotations.get(annotations.keyAt(i));
+      annotation = annotations.valueAt(i);
       if (annotation instanceof Polygon) {
         polygons.add((Polygon) annotation);
       }
@@ -18,5 +18,7 @@ interface Polygons {
 
   void update(Polygon polygon);
 
+  void update(@NonNull List<Polygon> polygons);
+
   List<Polygon> obtainAll();
 }
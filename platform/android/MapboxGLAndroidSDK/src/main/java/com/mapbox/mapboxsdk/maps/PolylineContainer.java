@@ -2,7 +2,6 @@ package com.mapbox.mapboxsdk.maps;
 
 
 import android.support.annotation.NonNull;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.Polyline;
@@ -17,9 +16,9 @@ import java.util.List;
 class PolylineContainer implements Polylines {
 
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final LongHashMap<Annotation> annotations;
 
-  PolylineContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  PolylineContainer(NativeMapView nativeMapView, LongHashMap<Annotation> annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
@@ -27,7 +26,7 @@ class PolylineContainer implements Polylines {
   @Override
   public Polyline addBy(@NonNull PolylineOptions polylineOptions, @NonNull MapboxMap mapboxMap) {
     Polyline polyline = polylineOptions.getPolyline();
-    if (!polyline.getPoints().isEmpty()) {
+    if (polyline.getPointCount() > 0) {
       long id = nativeMapView != null ? nativeMapView.addPolyline(polyline) : 0;
       polyline.setMapboxMap(mapboxMap);
       polyline.setId(id);
@@ -44,7 +43,7 @@ class PolylineContainer implements Polylines {
     if (nativeMapView != null && count > 0) {
       for (PolylineOptions options : polylineOptionsList) {
         polyline = options.getPolyline();
-        if (!polyline.getPoints().isEmpty()) {
+        if (polyline.getPointCount() > 0) {
           polylines.add(polyline);
         }
       }
@@ -66,12 +65,20 @@ class PolylineContainer implements Polylines {
     annotations.setValueAt(annotations.indexOfKey(polyline.getId()), polyline);
   }
 
+  @Override
+  public void update(@NonNull List<Polyline> polylines) {
+    for (Polyline polyline : polylines) {
+      annotations.put(polyline.getId(), polyline);
+    }
+    nativeMapView.updatePolylines(polylines);
+  }
+
   @Override
   public List<Polyline> obtainAll() {
     List<Polyline> polylines = new ArrayList<>();
     Annotation annotation;
     for (int i = 0; i < annotations.size(); i++) {
-      annotation = annotations.get(annotations.keyAt(i));
+      annotation = annotations.valueAt(i);
       if (annotation instanceof Polyline) {
         polylines.add((Polyline) annotation);
       }
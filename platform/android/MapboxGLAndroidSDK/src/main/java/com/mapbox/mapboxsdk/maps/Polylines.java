@@ -18,5 +18,7 @@ interface Polylines {
 
   void update(Polyline polyline);
 
+  void update(@NonNull List<Polyline> polylines);
+
   List<Polyline> obtainAll();
 }
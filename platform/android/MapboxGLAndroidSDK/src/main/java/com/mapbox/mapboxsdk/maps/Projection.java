@@ -13,14 +13,26 @@ import com.mapbox.mapboxsdk.geometry.VisibleRegion;
  * A projection is used to translate between on screen location and geographic coordinates on
  * the surface of the Earth. Screen location is in screen pixels (not display pixels)
  * with respect to the top left corner of the map (and not necessarily of the whole screen).
+ * <p>
+ * Translations are computed in Java from a snapshot of the map transform, the snapshot is only
+ * refreshed from the native map after the camera or the size of the map changed.
+ * </p>
  */
 public class Projection {
 
   private final NativeMapView nativeMapView;
+  private final TransformProjection transformProjection;
+  private final double[] transformState = new double[TransformProjection.STATE_SIZE];
+  private int transformStateVersion = -1;
   private int[] contentPadding;
 
+  // Reused for unprojecting single screen locations
+  private final double[] latLng = new double[2];
+  private final float[] screenLocation = new float[2];
+
   Projection(@NonNull NativeMapView nativeMapView) {
     this.nativeMapView = nativeMapView;
+    this.transformProjection = new TransformProjection(nativeMapView.getPixelRatio());
     this.contentPadding = new int[] {0, 0, 0, 0};
   }
 
@@ -70,7 +82,7 @@ public class Projection {
    * @return The distance measured in meters.
    */
   public double getMetersPerPixelAtLatitude(@FloatRange(from = -90, to = 90) double latitude) {
-    return nativeMapView.getMetersPerPixelAtLatitude(latitude);
+    return getTransformProjection().getMetersPerPixelAtLatitude(latitude);
   }
 
   /**
@@ -83,7 +95,8 @@ public class Projection {
    * the given screen point does not intersect the ground plane.
    */
   public LatLng fromScreenLocation(PointF point) {
-    return nativeMapView.latLngForPixel(point);
+    getTransformProjection().fromScreenLocation(point.x, point.y, latLng, 0);
+    return new LatLng(latLng[0], latLng[1]);
   }
 
   /**
@@ -121,7 +134,56 @@ public class Projection {
    * @return A Point representing the screen location in screen pixels.
    */
   public PointF toScreenLocation(LatLng location) {
-    return nativeMapView.pixelForLatLng(location);
+    getTransformProjection().toScreenLocation(location.getLatitude(), location.getLongitude(), screenLocation, 0);
+    return new PointF(screenLocation[0], screenLocation[1]);
+  }
+
+  /**
+   * Returns the screen locations that correspond to geographical coordinates, in a single call.
+   * The screen locations are in screen pixels (not display pixels) relative to the top left
+   * of the map (not of the whole screen).
+   *
+   * @param latLngs         the coordinates to convert, packed as latitude and longitude pairs
+   * @param screenLocations the array receiving the screen locations, packed as x and y pairs, must have the
+   *                        same length as latLngs
+   */
+  public void toScreenLocations(double[] latLngs, float[] screenLocations) {
+    checkPackedLengths(latLngs.length, screenLocations.length);
+    getTransformProjection().toScreenLocations(latLngs, screenLocations);
+  }
+
+  /**
+   * Returns the geographic locations that correspond to screen locations, in a single call.
+   * The screen locations are specified in screen pixels (not display pixels) relative to the
+   * top left of the map (not the top left of the whole screen).
+   *
+   * @param screenLocations the screen locations to convert, packed as x and y pairs
+   * @param latLngs         the array receiving the coordinates, packed as latitude and longitude pairs, must
+   *                        have the same length as screenLocations
+   */
+  public void fromScreenLocations(float[] screenLocations, double[] latLngs) {
+    checkPackedLengths(screenLocations.length, latLngs.length);
+    getTransformProjection().fromScreenLocations(screenLocations, latLngs);
+  }
+
+  private TransformProjection getTransformProjection() {
+    int version = nativeMapView.getTransformStateVersion();
+    if (version != transformStateVersion) {
+      nativeMapView.getTransformState(transformState);
+      transformProjection.setTransformState(transformState);
+      transformStateVersion = version;
+    }
+    return transformProjection;
+  }
+
+  private static void checkPackedLengths(int inputLength, int outputLength) {
+    if (inputLength % 2 != 0) {
+      throw new IllegalArgumentException("Locations must be packed as pairs, length is " + inputLength);
+    }
+    if (inputLength != outputLength) {
+      throw new IllegalArgumentException(
+        "Output length " + outputLength + " does not match input length " + inputLength);
+    }
   }
 
   float getHeight() {
@@ -132,6 +194,18 @@ public class Projection {
     return nativeMapView.getWidth();
   }
 
+  double getZoom() {
+    return getTransformProjection().getZoom();
+  }
+
+  double getCenterLatitude() {
+    return getTransformProjection().getCenterLatitude();
+  }
+
+  double getCenterLongitude() {
+    return getTransformProjection().getCenterLongitude();
+  }
+
   /**
    * Calculates a zoom level based on minimum scale and current scale from MapView
    *
@@ -139,6 +213,6 @@ public class Projection {
    * @return zoom level that fits the MapView.
    */
   public double calculateZoom(float minScale) {
-    return nativeMapView.getZoom() + Math.log(minScale) / Math.log(2);
+    return getTransformProjection().getZoom() + Math.log(minScale) / Math.log(2);
   }
 }
@@ -0,0 +1,94 @@
+package com.mapbox.mapboxsdk.maps;
+
+/**
+ * Exact hit tests of shapes in screen space.
+ * <p>
+ * Shapes are given as screen locations packed as x and y pairs. Polygons consist of rings stored one after
+ * another, the holes following the outer ring, and are tested with the even-odd rule.
+ * </p>
+ */
+final class ScreenGeometry {
+
+  private ScreenGeometry() {
+  }
+
+  /**
+   * Returns if a location is within a distance of a path.
+   *
+   * @param points    the screen locations of the path
+   * @param from      the index of the first point of the path
+   * @param to        the index after the last point of the path
+   * @param closed    true to include the segment from the last back to the first point
+   * @param x         the x of the location
+   * @param y         the y of the location
+   * @param tolerance the maximum distance
+   * @return true when the location is within the distance
+   */
+  static boolean isNearPath(float[] points, int from, int to, boolean closed, float x, float y, float tolerance) {
+    if (to - from == 1) {
+      return sqDistance(points[from * 2], points[from * 2 + 1], x, y) <= tolerance * tolerance;
+    }
+
+    float sqTolerance = tolerance * tolerance;
+    int last = closed ? to : to - 1;
+    for (int i = from; i < last; i++) {
+      int next = i + 1 == to ? from : i + 1;
+      if (sqDistanceToSegment(points[i * 2], points[i * 2 + 1], points[next * 2], points[next * 2 + 1], x, y)
+        <= sqTolerance) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns if a location is inside a polygon.
+   *
+   * @param points    the screen locations of all rings
+   * @param ringEnds  the index after the last point of each ring
+   * @param ringCount the amount of rings
+   * @param x         the x of the location
+   * @param y         the y of the location
+   * @return true when the location is inside the outer ring and outside of the holes
+   */
+  static boolean isInsidePolygon(float[] points, int[] ringEnds, int ringCount, float x, float y) {
+    boolean inside = false;
+    int ringStart = 0;
+    for (int ring = 0; ring < ringCount; ring++) {
+      int ringEnd = ringEnds[ring];
+      for (int i = ringStart, j = ringEnd - 1; i < ringEnd; j = i++) {
+        float xi = points[i * 2];
+        float yi = points[i * 2 + 1];
+        float xj = points[j * 2];
+        float yj = points[j * 2 + 1];
+        if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+          inside = !inside;
+        }
+      }
+      ringStart = ringEnd;
+    }
+    return inside;
+  }
+
+  /**
+   * Returns the squared distance of a location to a segment.
+   */
+  static float sqDistanceToSegment(float ax, float ay, float bx, float by, float x, float y) {
+    float dx = bx - ax;
+    float dy = by - ay;
+    float sqLength = dx * dx + dy * dy;
+    if (sqLength == 0) {
+      return sqDistance(ax, ay, x, y);
+    }
+
+    float t = ((x - ax) * dx + (y - ay) * dy) / sqLength;
+    t = Math.max(0, Math.min(1, t));
+    return sqDistance(ax + t * dx, ay + t * dy, x, y);
+  }
+
+  private static float sqDistance(float ax, float ay, float bx, float by) {
+    float dx = ax - bx;
+    float dy = ay - by;
+    return dx * dx + dy * dy;
+  }
+}
@@ -1,38 +1,232 @@
 package com.mapbox.mapboxsdk.maps;
 
 import android.graphics.RectF;
-import android.support.v4.util.LongSparseArray;
+import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.BasePointCollection;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Encapsulates hit testing of {@link Polyline}s and {@link Polygon}s, without querying the native map.
+ * <p>
+ * The bounding box of each shape is kept in Web Mercator coordinates in the range of 0 to 1, and indexed with a
+ * {@link BoundsTree} that is rebuilt on the first tap after shapes changed. A tap only tests the shapes whose
+ * bounding box intersects the tapped area, padded by half the width of the widest polyline: their points are
+ * projected to the screen and tested against the tapped location, taking the width of polylines into account.
+ * </p>
+ */
 class ShapeAnnotationContainer implements ShapeAnnotations {
 
+  // Topmost shapes first, shapes added later are drawn on top
+  private static final Comparator<Annotation> TOPMOST_FIRST = new Comparator<Annotation>() {
+    @Override
+    public int compare(Annotation first, Annotation second) {
+      return first.getId() < second.getId() ? 1 : first.getId() > second.getId() ? -1 : 0;
+    }
+  };
+
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final LongHashMap<Annotation> annotations;
+  // Bounds and stroke width of each shape
+  private final LongHashMap<double[]> shapeBounds = new LongHashMap<>();
+
+  // Rebuilt lazily once shapes were indexed or removed
+  private BoundsTree tree;
+  private long[] treeIds;
+  private float maxStrokeWidth;
 
-  ShapeAnnotationContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  private final float[] tapCorners = new float[8];
+  private final double[] tapLatLngs = new double[8];
+  private final KdTree.Result candidates = new KdTree.Result();
+  private final Set<Long> candidateIds = new HashSet<>();
+
+  ShapeAnnotationContainer(NativeMapView nativeMapView, LongHashMap<Annotation> annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
 
   @Override
-  public List<Annotation> obtainAllIn(RectF rectangle) {
-    RectF rect = nativeMapView.getDensityDependantRectangle(rectangle);
-    long[] annotationIds = nativeMapView.queryShapeAnnotations(rect);
-    return getAnnotationsFromIds(annotationIds);
+  public void index(@NonNull BasePointCollection shape) {
+    if (shape.getId() == -1 || shape.getPointCount() == 0) {
+      return;
+    }
+
+    double[] points = shape.getPackedPoints();
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < points.length; i += 2) {
+      double x = ClusterIndex.projectX(points[i + 1]);
+      double y = ClusterIndex.projectY(points[i]);
+      minX = Math.min(minX, x);
+      minY = Math.min(minY, y);
+      maxX = Math.max(maxX, x);
+      maxY = Math.max(maxY, y);
+    }
+    float strokeWidth = shape instanceof Polyline ? ((Polyline) shape).getWidth() : 0;
+    shapeBounds.put(shape.getId(), new double[] {minX, minY, maxX, maxY, strokeWidth});
+    tree = null;
+  }
+
+  @Override
+  public void index(@NonNull List<? extends BasePointCollection> shapes) {
+    for (BasePointCollection shape : shapes) {
+      index(shape);
+    }
+  }
+
+  @Override
+  public void remove(long id) {
+    if (shapeBounds.containsKey(id)) {
+      shapeBounds.remove(id);
+      tree = null;
+    }
   }
 
-  private List<Annotation> getAnnotationsFromIds(long[] annotationIds) {
+  @Override
+  public void removeAll() {
+    shapeBounds.clear();
+    tree = null;
+  }
+
+  @Override
+  public List<Annotation> obtainAllIn(@NonNull RectF rectangle, @NonNull Projection projection) {
     List<Annotation> shapeAnnotations = new ArrayList<>();
-    for (long annotationId : annotationIds) {
-      Annotation annotation = annotations.get(annotationId);
-      if (annotation != null) {
+    if (shapeBounds.size() == 0) {
+      return shapeAnnotations;
+    }
+
+    if (tree == null) {
+      buildTree();
+    }
+
+    // bounds of the tapped area, which isn't a rectangle on the map when it is rotated or tilted
+    tapCorners[0] = rectangle.left;
+    tapCorners[1] = rectangle.top;
+    tapCorners[2] = rectangle.right;
+    tapCorners[3] = rectangle.top;
+    tapCorners[4] = rectangle.right;
+    tapCorners[5] = rectangle.bottom;
+    tapCorners[6] = rectangle.left;
+    tapCorners[7] = rectangle.bottom;
+    projection.fromScreenLocations(tapCorners, tapLatLngs);
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < tapLatLngs.length; i += 2) {
+      double longitude = tapLatLngs[i + 1];
+      // unwrap relative to the first corner, the tapped area may cross the antimeridian
+      if (longitude - tapLatLngs[1] > 180) {
+        longitude -= 360;
+      } else if (longitude - tapLatLngs[1] < -180) {
+        longitude += 360;
+      }
+      minX = Math.min(minX, ClusterIndex.projectX(longitude));
+      minY = Math.min(minY, ClusterIndex.projectY(tapLatLngs[i]));
+      maxX = Math.max(maxX, ClusterIndex.projectX(longitude));
+      maxY = Math.max(maxY, ClusterIndex.projectY(tapLatLngs[i]));
+    }
+
+    // polylines are hit within half their width around the line, pad by the widest one at the scale of the tap
+    if (maxStrokeWidth > 0 && rectangle.width() > 0 && rectangle.height() > 0) {
+      float halfWidth = maxStrokeWidth * nativeMapView.getPixelRatio() / 2;
+      double padding = halfWidth * Math.max((maxX - minX) / rectangle.width(), (maxY - minY) / rectangle.height());
+      minX -= padding;
+      minY -= padding;
+      maxX += padding;
+      maxY += padding;
+    }
+
+    // shapes may be defined with longitudes beyond the antimeridian, search the neighbouring world copies too
+    candidates.clear();
+    for (int world = -1; world <= 1; world++) {
+      tree.search(minX + world, minY, maxX + world, maxY, candidates);
+    }
+
+    float x = rectangle.centerX();
+    float y = rectangle.centerY();
+    float tolerance = rectangle.width() / 2;
+    candidateIds.clear();
+    for (int i = 0; i < candidates.size(); i++) {
+      long id = treeIds[candidates.get(i)];
+      // a shape can be found in more than one world copy
+      if (!candidateIds.add(id)) {
+        continue;
+      }
+      Annotation annotation = annotations.get(id);
+      if (annotation != null && isHit(annotation, projection, x, y, tolerance)) {
         shapeAnnotations.add(annotation);
       }
     }
+    candidateIds.clear();
+    Collections.sort(shapeAnnotations, TOPMOST_FIRST);
     return shapeAnnotations;
   }
+
+  private void buildTree() {
+    int count = shapeBounds.size();
+    double[] bounds = new double[count * 4];
+    treeIds = new long[count];
+    maxStrokeWidth = 0;
+    for (int i = 0; i < count; i++) {
+      treeIds[i] = shapeBounds.keyAt(i);
+      double[] shape = shapeBounds.valueAt(i);
+      System.arraycopy(shape, 0, bounds, i * 4, 4);
+      maxStrokeWidth = Math.max(maxStrokeWidth, (float) shape[4]);
+    }
+    tree = new BoundsTree(bounds, count);
+  }
+
+  private boolean isHit(Annotation annotation, Projection projection, float x, float y, float tolerance) {
+    if (annotation instanceof Polyline) {
+      Polyline polyline = (Polyline) annotation;
+      float[] points = toScreenLocations(projection, polyline.getPackedPoints());
+      float halfWidth = polyline.getWidth() * nativeMapView.getPixelRatio() / 2;
+      return ScreenGeometry.isNearPath(points, 0, points.length / 2, false, x, y, tolerance + halfWidth);
+    } else if (annotation instanceof Polygon) {
+      Polygon polygon = (Polygon) annotation;
+      List<List<LatLng>> holes = polygon.getHoles();
+      double[] outline = polygon.getPackedPoints();
+      int pointCount = outline.length / 2;
+      for (List<LatLng> hole : holes) {
+        pointCount += hole.size();
+      }
+
+      double[] latLngs = new double[pointCount * 2];
+      int[] ringEnds = new int[holes.size() + 1];
+      System.arraycopy(outline, 0, latLngs, 0, outline.length);
+      ringEnds[0] = outline.length / 2;
+      int position = outline.length;
+      for (int ring = 0; ring < holes.size(); ring++) {
+        for (LatLng latLng : holes.get(ring)) {
+          latLngs[position++] = latLng.getLatitude();
+          latLngs[position++] = latLng.getLongitude();
+        }
+        ringEnds[ring + 1] = position / 2;
+      }
+
+      float[] points = toScreenLocations(projection, latLngs);
+      return ScreenGeometry.isInsidePolygon(points, ringEnds, ringEnds.length, x, y)
+        || ScreenGeometry.isNearPath(points, 0, ringEnds[0], true, x, y, tolerance);
+    }
+    return false;
+  }
+
+  private static float[] toScreenLocations(Projection projection, double[] latLngs) {
+    float[] points = new float[latLngs.length];
+    projection.toScreenLocations(latLngs, points);
+    return points;
+  }
 }
@@ -1,13 +1,26 @@
 package com.mapbox.mapboxsdk.maps;
 
 import android.graphics.RectF;
+import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.BasePointCollection;
 
 import java.util.List;
 
+/**
+ * Interface that defines convenient methods for hit testing polylines and polygons.
+ */
 interface ShapeAnnotations {
 
-  List<Annotation> obtainAllIn(RectF rectF);
+  void index(@NonNull BasePointCollection shape);
+
+  void index(@NonNull List<? extends BasePointCollection> shapes);
+
+  void remove(long id);
+
+  void removeAll();
+
+  List<Annotation> obtainAllIn(@NonNull RectF rectangle, @NonNull Projection projection);
 
 }
@@ -0,0 +1,223 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.services.android.telemetry.constants.GeoConstants;
+import com.mapbox.services.android.telemetry.utils.MathUtils;
+
+/**
+ * Projects between geographic coordinates and screen locations without going through JNI.
+ * <p>
+ * Mirrors the Web Mercator perspective transform of the native map. The projection is fed a snapshot of the
+ * transform state with {@link #setTransformState(double[])} after the camera or the size of the map changed,
+ * afterwards projecting only depends on fields of this class and doesn't allocate.
+ * </p>
+ * <p>
+ * Screen locations are in screen pixels, the transform itself works in density independent pixels like the native
+ * map does.
+ * </p>
+ */
+final class TransformProjection {
+
+  // Layout of the transform state snapshot, see NativeMapView#getTransformState(double[])
+  static final int STATE_LATITUDE = 0;
+  static final int STATE_LONGITUDE = 1;
+  static final int STATE_ZOOM = 2;
+  static final int STATE_BEARING = 3;
+  static final int STATE_PITCH = 4;
+  static final int STATE_WIDTH = 5;
+  static final int STATE_HEIGHT = 6;
+  static final int STATE_SIZE = 7;
+
+  // Constants of the native transform
+  private static final double TILE_SIZE = 512;
+  private static final double FIELD_OF_VIEW = 0.6435011087932844;
+  private static final double MIN_ZOOM = 0;
+  private static final double MAX_ZOOM = 25.5;
+  private static final double LATITUDE_MAX = 85.051128779806604;
+  private static final double MAX_SINE = 1 - 1e-15;
+
+  private final float pixelRatio;
+
+  private double centerLatitude;
+  private double centerLongitude;
+  private double centerX;
+  private double centerY;
+  private double zoom;
+  private double worldSize;
+
+  // in density independent pixels
+  private double width;
+  private double height;
+  private double cameraToCenterDistance;
+
+  private double angleCos;
+  private double angleSin;
+  private double pitchCos;
+  private double pitchSin;
+
+  TransformProjection(float pixelRatio) {
+    this.pixelRatio = pixelRatio;
+  }
+
+  /**
+   * Updates the transform the projection is based on.
+   *
+   * @param state the transform state, laid out as defined by the STATE_ constants
+   */
+  void setTransformState(double[] state) {
+    zoom = state[STATE_ZOOM];
+    worldSize = TILE_SIZE * Math.pow(2, zoom);
+    width = state[STATE_WIDTH];
+    height = state[STATE_HEIGHT];
+    cameraToCenterDistance = 0.5 * height / Math.tan(FIELD_OF_VIEW / 2);
+
+    // the center longitude isn't wrapped, the transform keeps track of the world copy the camera is in
+    centerLatitude = state[STATE_LATITUDE];
+    centerLongitude = state[STATE_LONGITUDE];
+    centerX = (180 + centerLongitude) * worldSize / 360;
+    double sine = Math.max(-MAX_SINE, Math.min(MAX_SINE, Math.sin(Math.toRadians(state[STATE_LATITUDE]))));
+    centerY = worldSize / 2 - worldSize / (4 * Math.PI) * Math.log((1 + sine) / (1 - sine));
+
+    // the transform angle is the bearing in the opposite direction
+    double angle = -Math.toRadians(state[STATE_BEARING]);
+    angleCos = Math.cos(angle);
+    angleSin = Math.sin(angle);
+    double pitch = Math.toRadians(state[STATE_PITCH]);
+    pitchCos = Math.cos(pitch);
+    pitchSin = Math.sin(pitch);
+  }
+
+  /**
+   * Returns the latitude of the center of the transform.
+   *
+   * @return the latitude
+   */
+  double getCenterLatitude() {
+    return centerLatitude;
+  }
+
+  /**
+   * Returns the longitude of the center of the transform, not wrapped to the range [-180, 180].
+   *
+   * @return the longitude
+   */
+  double getCenterLongitude() {
+    return centerLongitude;
+  }
+
+  /**
+   * Returns the zoom level of the transform.
+   *
+   * @return the zoom level
+   */
+  double getZoom() {
+    return zoom;
+  }
+
+  /**
+   * Projects a coordinate to a screen location.
+   *
+   * @param latitude  the latitude of the coordinate
+   * @param longitude the longitude of the coordinate
+   * @param out       the array receiving the screen location as x and y
+   * @param offset    the index of out to write x to
+   */
+  void toScreenLocation(double latitude, double longitude, float[] out, int offset) {
+    if (width == 0 || height == 0) {
+      out[offset] = 0;
+      out[offset + 1] = 0;
+      return;
+    }
+
+    // take the shortest path from the center, so coordinates across the antimeridian are projected when visible
+    double lon = MathUtils.wrap(longitude, GeoConstants.MIN_LONGITUDE, GeoConstants.MAX_LONGITUDE);
+    double delta = Math.abs(centerLongitude - lon);
+    if (delta >= 180 && delta <= 360) {
+      if (lon > 0 && centerLongitude < 0) {
+        lon -= 360;
+      } else if (lon < 0 && centerLongitude > 0) {
+        lon += 360;
+      }
+    }
+
+    double x = (180 + lon) * worldSize / 360 - centerX;
+    double y = (180 - Math.toDegrees(Math.log(Math.tan(Math.PI / 4 + latitude * Math.PI / 360)))) * worldSize / 360
+      - centerY;
+
+    // rotate around the center, then tilt away from the camera
+    double rotatedX = angleCos * x - angleSin * y;
+    double rotatedY = angleSin * x + angleCos * y;
+    double depth = cameraToCenterDistance - pitchSin * rotatedY;
+
+    out[offset] = (float) ((width / 2 + cameraToCenterDistance * rotatedX / depth) * pixelRatio);
+    out[offset + 1] = (float) ((height / 2 + cameraToCenterDistance * pitchCos * rotatedY / depth) * pixelRatio);
+  }
+
+  /**
+   * Projects coordinates to screen locations.
+   *
+   * @param latLngs         the coordinates, packed as latitude and longitude pairs
+   * @param screenLocations the array receiving the screen locations, packed as x and y pairs
+   */
+  void toScreenLocations(double[] latLngs, float[] screenLocations) {
+    for (int i = 0; i + 1 < latLngs.length; i += 2) {
+      toScreenLocation(latLngs[i], latLngs[i + 1], screenLocations, i);
+    }
+  }
+
+  /**
+   * Unprojects a screen location to the coordinate where the ray through it intersects the ground plane.
+   *
+   * @param x      the x of the screen location
+   * @param y      the y of the screen location
+   * @param out    the array receiving the coordinate as latitude and longitude
+   * @param offset the index of out to write the latitude to
+   */
+  void fromScreenLocation(float x, float y, double[] out, int offset) {
+    if (width == 0 || height == 0) {
+      out[offset] = 0;
+      out[offset + 1] = 0;
+      return;
+    }
+
+    double screenX = x / pixelRatio - width / 2;
+    double screenY = y / pixelRatio - height / 2;
+
+    // invert the tilt, then the rotation around the center
+    double rotatedY = screenY * cameraToCenterDistance
+      / (cameraToCenterDistance * pitchCos + screenY * pitchSin);
+    double depth = cameraToCenterDistance - pitchSin * rotatedY;
+    double rotatedX = screenX * depth / cameraToCenterDistance;
+
+    double worldX = centerX + angleCos * rotatedX + angleSin * rotatedY;
+    double worldY = centerY - angleSin * rotatedX + angleCos * rotatedY;
+
+    out[offset] = 360 / Math.PI * Math.atan(Math.exp(Math.toRadians(180 - worldY * 360 / worldSize))) - 90;
+    out[offset + 1] = MathUtils.wrap(worldX * 360 / worldSize - 180,
+      GeoConstants.MIN_LONGITUDE, GeoConstants.MAX_LONGITUDE);
+  }
+
+  /**
+   * Unprojects screen locations to coordinates.
+   *
+   * @param screenLocations the screen locations, packed as x and y pairs
+   * @param latLngs         the array receiving the coordinates, packed as latitude and longitude pairs
+   */
+  void fromScreenLocations(float[] screenLocations, double[] latLngs) {
+    for (int i = 0; i + 1 < screenLocations.length; i += 2) {
+      fromScreenLocation(screenLocations[i], screenLocations[i + 1], latLngs, i);
+    }
+  }
+
+  /**
+   * Returns the distance spanned by one screen pixel at a latitude and the zoom level of the transform.
+   *
+   * @param latitude the latitude
+   * @return the distance in meters
+   */
+  double getMetersPerPixelAtLatitude(double latitude) {
+    double constrainedZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+    double constrainedLatitude = Math.max(-LATITUDE_MAX, Math.min(LATITUDE_MAX, latitude));
+    return Math.cos(Math.toRadians(constrainedLatitude)) * 2 * Math.PI * GeoConstants.RADIUS_EARTH_METERS
+      / (TILE_SIZE * Math.pow(2, constrainedZoom)) / pixelRatio;
+  }
+}
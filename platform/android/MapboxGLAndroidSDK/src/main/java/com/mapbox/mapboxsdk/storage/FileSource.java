@@ -9,6 +9,8 @@ import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.Mapbox;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.http.InFlightRequests;
+import com.mapbox.mapboxsdk.http.RequestScheduler;
 
 import timber.log.Timber;
 
@@ -39,6 +41,8 @@ public class FileSource {
   // File source instance is kept alive after initialization
   private static FileSource INSTANCE;
 
+  private static volatile HttpClientConfig httpClientConfig = new HttpClientConfig.Builder().build();
+
   /**
    * Get the single instance of FileSource.
    *
@@ -118,6 +122,52 @@ public class FileSource {
     return false;
   }
 
+  /**
+   * Sets the configuration of the HTTP client requesting resources from the internet.
+   * <p>
+   * Requests started afterwards use a client with the new configuration, requests in flight aren't affected.
+   * </p>
+   *
+   * @param config the configuration
+   */
+  public static void setHttpClientConfig(@NonNull HttpClientConfig config) {
+    httpClientConfig = config;
+  }
+
+  /**
+   * Returns the configuration of the HTTP client requesting resources from the internet.
+   *
+   * @return the configuration
+   */
+  @NonNull
+  public static HttpClientConfig getHttpClientConfig() {
+    return httpClientConfig;
+  }
+
+  /**
+   * Returns how many requests were served by a network call that was already in flight for the same resource,
+   * for example when several maps request the same tile at the same time.
+   *
+   * @return the amount of coalesced requests since the process started
+   */
+  public static long getCoalescedRequestCount() {
+    return InFlightRequests.getCoalescedCount();
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   * <p>
+   * Sets the viewport pending tile requests are prioritized by, called by a map whenever its camera changes.
+   * </p>
+   *
+   * @param latitude  the latitude of the center of the viewport
+   * @param longitude the longitude of the center of the viewport
+   * @param zoom      the zoom level of the viewport
+   */
+  public static void setViewport(double latitude, double longitude, double zoom) {
+    RequestScheduler.setViewport(latitude, longitude, zoom);
+  }
+
   private long nativePtr;
   private long activeCounter;
   private boolean wasPaused;
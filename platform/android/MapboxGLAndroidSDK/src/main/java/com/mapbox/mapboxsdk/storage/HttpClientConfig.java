@@ -0,0 +1,266 @@
+package com.mapbox.mapboxsdk.storage;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the HTTP client used to request tiles, styles, glyphs and sprites.
+ * <p>
+ * Maps request many tiles from the same host at once. The defaults allow more concurrent requests per host than
+ * a default HTTP client, so tile requests don't queue up behind each other on a cold start, and keep idle
+ * connections around for reuse. HTTP/2 is preferred where the server supports it, which multiplexes all requests to
+ * a host over a single connection.
+ * </p>
+ * <h3>Example</h3>
+ * <pre>
+ * FileSource.setHttpClientConfig(new HttpClientConfig.Builder()
+ *   .maxRequestsPerHost(32)
+ *   .readTimeout(15, TimeUnit.SECONDS)
+ *   .build());
+ * </pre>
+ *
+ * @see FileSource#setHttpClientConfig(HttpClientConfig)
+ */
+public final class HttpClientConfig {
+
+  private final int maxRequests;
+  private final int maxRequestsPerHost;
+  private final int maxIdleConnections;
+  private final long keepAliveMillis;
+  private final long connectTimeoutMillis;
+  private final long readTimeoutMillis;
+  private final long writeTimeoutMillis;
+  private final boolean http2Enabled;
+
+  private HttpClientConfig(Builder builder) {
+    maxRequests = builder.maxRequests;
+    maxRequestsPerHost = builder.maxRequestsPerHost;
+    maxIdleConnections = builder.maxIdleConnections;
+    keepAliveMillis = builder.keepAliveMillis;
+    connectTimeoutMillis = builder.connectTimeoutMillis;
+    readTimeoutMillis = builder.readTimeoutMillis;
+    writeTimeoutMillis = builder.writeTimeoutMillis;
+    http2Enabled = builder.http2Enabled;
+  }
+
+  /**
+   * Returns the maximum amount of requests executed at the same time, further requests are queued. Also bounds the
+   * amount of threads executing requests on Android 8 and newer.
+   *
+   * @return the maximum amount of concurrent requests
+   */
+  public int getMaxRequests() {
+    return maxRequests;
+  }
+
+  /**
+   * Returns the maximum amount of requests to a single host executed at the same time.
+   *
+   * @return the maximum amount of concurrent requests per host
+   */
+  public int getMaxRequestsPerHost() {
+    return maxRequestsPerHost;
+  }
+
+  /**
+   * Returns the maximum amount of idle connections kept for reuse.
+   *
+   * @return the maximum amount of idle connections
+   */
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Returns how long idle connections are kept for reuse.
+   *
+   * @return the keep alive duration in milliseconds
+   */
+  public long getKeepAliveMillis() {
+    return keepAliveMillis;
+  }
+
+  /**
+   * Returns the timeout for establishing connections.
+   *
+   * @return the connect timeout in milliseconds, zero for no timeout
+   */
+  public long getConnectTimeoutMillis() {
+    return connectTimeoutMillis;
+  }
+
+  /**
+   * Returns the timeout for reading from connections.
+   *
+   * @return the read timeout in milliseconds, zero for no timeout
+   */
+  public long getReadTimeoutMillis() {
+    return readTimeoutMillis;
+  }
+
+  /**
+   * Returns the timeout for writing to connections.
+   *
+   * @return the write timeout in milliseconds, zero for no timeout
+   */
+  public long getWriteTimeoutMillis() {
+    return writeTimeoutMillis;
+  }
+
+  /**
+   * Returns if HTTP/2 is preferred over HTTP/1.1 for servers supporting both.
+   *
+   * @return true if HTTP/2 is preferred
+   */
+  public boolean isHttp2Enabled() {
+    return http2Enabled;
+  }
+
+  /**
+   * Builder for {@link HttpClientConfig}.
+   */
+  public static final class Builder {
+
+    private int maxRequests = 64;
+    private int maxRequestsPerHost = 20;
+    private int maxIdleConnections = 10;
+    private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+    private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+    private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+    private long writeTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+    private boolean http2Enabled = true;
+
+    /**
+     * Creates a builder with the default configuration.
+     */
+    public Builder() {
+    }
+
+    /**
+     * Creates a builder starting from an existing configuration.
+     *
+     * @param config the configuration to copy
+     */
+    public Builder(@NonNull HttpClientConfig config) {
+      maxRequests = config.maxRequests;
+      maxRequestsPerHost = config.maxRequestsPerHost;
+      maxIdleConnections = config.maxIdleConnections;
+      keepAliveMillis = config.keepAliveMillis;
+      connectTimeoutMillis = config.connectTimeoutMillis;
+      readTimeoutMillis = config.readTimeoutMillis;
+      writeTimeoutMillis = config.writeTimeoutMillis;
+      http2Enabled = config.http2Enabled;
+    }
+
+    /**
+     * Sets the maximum amount of requests executed at the same time. Defaults to 64.
+     *
+     * @param maxRequests the maximum amount of concurrent requests
+     * @return this builder
+     */
+    public Builder maxRequests(@IntRange(from = 1) int maxRequests) {
+      if (maxRequests < 1) {
+        throw new IllegalArgumentException("maxRequests < 1: " + maxRequests);
+      }
+      this.maxRequests = maxRequests;
+      return this;
+    }
+
+    /**
+     * Sets the maximum amount of requests to a single host executed at the same time. Defaults to 20.
+     *
+     * @param maxRequestsPerHost the maximum amount of concurrent requests per host
+     * @return this builder
+     */
+    public Builder maxRequestsPerHost(@IntRange(from = 1) int maxRequestsPerHost) {
+      if (maxRequestsPerHost < 1) {
+        throw new IllegalArgumentException("maxRequestsPerHost < 1: " + maxRequestsPerHost);
+      }
+      this.maxRequestsPerHost = maxRequestsPerHost;
+      return this;
+    }
+
+    /**
+     * Sets the connection pool. Defaults to 10 idle connections kept for 5 minutes.
+     *
+     * @param maxIdleConnections the maximum amount of idle connections
+     * @param keepAlive          how long idle connections are kept
+     * @param unit               the unit of the keep alive duration
+     * @return this builder
+     */
+    public Builder connectionPool(@IntRange(from = 0) int maxIdleConnections, long keepAlive,
+                                  @NonNull TimeUnit unit) {
+      if (maxIdleConnections < 0 || keepAlive <= 0) {
+        throw new IllegalArgumentException("Invalid connection pool: " + maxIdleConnections + ", " + keepAlive);
+      }
+      this.maxIdleConnections = maxIdleConnections;
+      this.keepAliveMillis = unit.toMillis(keepAlive);
+      return this;
+    }
+
+    /**
+     * Sets the timeout for establishing connections. Defaults to 10 seconds.
+     *
+     * @param timeout the timeout, zero for no timeout
+     * @param unit    the unit of the timeout
+     * @return this builder
+     */
+    public Builder connectTimeout(long timeout, @NonNull TimeUnit unit) {
+      connectTimeoutMillis = toTimeoutMillis(timeout, unit);
+      return this;
+    }
+
+    /**
+     * Sets the timeout for reading from connections. Defaults to 10 seconds.
+     *
+     * @param timeout the timeout, zero for no timeout
+     * @param unit    the unit of the timeout
+     * @return this builder
+     */
+    public Builder readTimeout(long timeout, @NonNull TimeUnit unit) {
+      readTimeoutMillis = toTimeoutMillis(timeout, unit);
+      return this;
+    }
+
+    /**
+     * Sets the timeout for writing to connections. Defaults to 10 seconds.
+     *
+     * @param timeout the timeout, zero for no timeout
+     * @param unit    the unit of the timeout
+     * @return this builder
+     */
+    public Builder writeTimeout(long timeout, @NonNull TimeUnit unit) {
+      writeTimeoutMillis = toTimeoutMillis(timeout, unit);
+      return this;
+    }
+
+    /**
+     * Sets if HTTP/2 is preferred over HTTP/1.1 for servers supporting both. Defaults to true.
+     *
+     * @param http2Enabled false to only use HTTP/1.1
+     * @return this builder
+     */
+    public Builder http2Enabled(boolean http2Enabled) {
+      this.http2Enabled = http2Enabled;
+      return this;
+    }
+
+    /**
+     * Builds the configuration.
+     *
+     * @return the configuration
+     */
+    public HttpClientConfig build() {
+      return new HttpClientConfig(this);
+    }
+
+    private static long toTimeoutMillis(long timeout, TimeUnit unit) {
+      if (timeout < 0) {
+        throw new IllegalArgumentException("timeout < 0: " + timeout);
+      }
+      return unit.toMillis(timeout);
+    }
+  }
+}
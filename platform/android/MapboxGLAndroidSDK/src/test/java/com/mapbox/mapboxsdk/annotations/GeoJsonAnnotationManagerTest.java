@@ -0,0 +1,177 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.style.layers.FillLayer;
+import com.mapbox.mapboxsdk.style.layers.LineLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+import com.mapbox.services.commons.geojson.Feature;
+import com.mapbox.services.commons.geojson.FeatureCollection;
+import com.mapbox.services.commons.geojson.LineString;
+import com.mapbox.services.commons.geojson.Point;
+import com.mapbox.services.commons.models.Position;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GeoJsonAnnotationManagerTest {
+
+  private MapboxMap mapboxMap;
+  private GeoJsonSource symbolSource;
+  private GeoJsonSource lineSource;
+  private GeoJsonSource fillSource;
+  private GeoJsonAnnotationManager manager;
+
+  @Before
+  public void beforeTest() {
+    // the sources and layers exist already, the manager attaches to them
+    mapboxMap = mock(MapboxMap.class);
+    symbolSource = mock(GeoJsonSource.class);
+    lineSource = mock(GeoJsonSource.class);
+    fillSource = mock(GeoJsonSource.class);
+    when(mapboxMap.getSource(GeoJsonAnnotationManager.SYMBOL_SOURCE_ID)).thenReturn(symbolSource);
+    when(mapboxMap.getSource(GeoJsonAnnotationManager.LINE_SOURCE_ID)).thenReturn(lineSource);
+    when(mapboxMap.getSource(GeoJsonAnnotationManager.FILL_SOURCE_ID)).thenReturn(fillSource);
+    SymbolLayer symbolLayer = mock(SymbolLayer.class);
+    when(mapboxMap.getLayer(GeoJsonAnnotationManager.SYMBOL_LAYER_ID)).thenReturn(symbolLayer);
+    when(mapboxMap.getLayer(GeoJsonAnnotationManager.LINE_LAYER_ID)).thenReturn(mock(LineLayer.class));
+    when(mapboxMap.getLayer(GeoJsonAnnotationManager.FILL_LAYER_ID)).thenReturn(mock(FillLayer.class));
+
+    manager = new GeoJsonAnnotationManager(mock(MapView.class), mapboxMap);
+    assertSame(symbolLayer, manager.getSymbolLayer());
+    manager.flush();
+    clearInvocations(symbolSource, lineSource, fillSource);
+  }
+
+  @Test
+  public void testBatchesAdditions() {
+    long first = manager.add(point(0, 0), null);
+    long second = manager.add(point(1, 1), null);
+    long third = manager.add(point(2, 2), null);
+    manager.flush();
+
+    FeatureCollection collection = flushed(symbolSource);
+    assertEquals(3, collection.getFeatures().size());
+    assertEquals(3, manager.size());
+    assertEquals(String.valueOf(first), collection.getFeatures().get(0).getId());
+    assertEquals(String.valueOf(second), collection.getFeatures().get(1).getId());
+    assertEquals(String.valueOf(third), collection.getFeatures().get(2).getId());
+  }
+
+  @Test
+  public void testFlushesChangedSourcesOnly() {
+    manager.add(point(0, 0), null);
+    manager.flush();
+    verify(symbolSource).setGeoJson(any(FeatureCollection.class));
+    verify(lineSource, never()).setGeoJson(any(FeatureCollection.class));
+    verify(fillSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    // nothing changed since
+    clearInvocations(symbolSource);
+    manager.flush();
+    verify(symbolSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testUpdateReplacesFeature() {
+    long id = manager.add(point(0, 0), null);
+    manager.flush();
+    clearInvocations(symbolSource);
+
+    Point moved = point(5, 5);
+    manager.update(id, moved, null);
+    assertSame(moved, manager.get(id).getGeometry());
+    manager.flush();
+
+    FeatureCollection collection = flushed(symbolSource);
+    assertEquals(1, collection.getFeatures().size());
+    assertSame(moved, collection.getFeatures().get(0).getGeometry());
+  }
+
+  @Test
+  public void testUnchangedUpdateDoesNotFlush() {
+    Point point = point(0, 0);
+    long id = manager.add(point, null);
+    manager.flush();
+    clearInvocations(symbolSource);
+
+    manager.update(id, point, null);
+    manager.flush();
+    verify(symbolSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpdateRejectsOtherGeometryKind() {
+    long id = manager.add(point(0, 0), null);
+    manager.update(id, LineString.fromCoordinates(new double[][] {{0, 0}, {1, 1}}), null);
+  }
+
+  @Test
+  public void testRemove() {
+    long id = manager.add(point(0, 0), null);
+    manager.flush();
+    clearInvocations(symbolSource);
+
+    manager.remove(id);
+    assertNull(manager.get(id));
+    assertEquals(0, manager.size());
+    manager.flush();
+    assertEquals(0, flushed(symbolSource).getFeatures().size());
+  }
+
+  @Test
+  public void testRemoveAll() {
+    manager.addAll(Arrays.asList(
+      Feature.fromGeometry(point(0, 0)),
+      Feature.fromGeometry(LineString.fromCoordinates(new double[][] {{0, 0}, {1, 1}}))
+    ));
+    manager.flush();
+    clearInvocations(symbolSource, lineSource, fillSource);
+
+    manager.removeAll();
+    assertEquals(0, manager.size());
+    manager.flush();
+    assertEquals(0, flushed(symbolSource).getFeatures().size());
+    assertEquals(0, flushed(lineSource).getFeatures().size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRejectsSecondManager() {
+    new GeoJsonAnnotationManager(mock(MapView.class), mapboxMap);
+  }
+
+  @Test
+  public void testAttachesAfterDestroy() {
+    manager.add(point(0, 0), null);
+    manager.onDestroy();
+
+    GeoJsonAnnotationManager next = new GeoJsonAnnotationManager(mock(MapView.class), mapboxMap);
+    assertEquals(0, next.size());
+    next.flush();
+    assertEquals(0, flushed(symbolSource).getFeatures().size());
+  }
+
+  private static FeatureCollection flushed(GeoJsonSource source) {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(source).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private static Point point(double longitude, double latitude) {
+    return Point.fromCoordinates(Position.fromCoordinates(longitude, latitude));
+  }
+}
@@ -0,0 +1,91 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.view.Display;
+import android.view.WindowManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IconFactoryTest {
+
+  private IconFactory iconFactory;
+
+  @Before
+  public void beforeTest() {
+    Context context = mock(Context.class);
+    WindowManager windowManager = mock(WindowManager.class);
+    when(context.getApplicationContext()).thenReturn(context);
+    when(context.getSystemService(Context.WINDOW_SERVICE)).thenReturn(windowManager);
+    when(windowManager.getDefaultDisplay()).thenReturn(mock(Display.class));
+    iconFactory = IconFactory.getInstance(context);
+  }
+
+  @Test
+  public void testSameBitmapReturnsSameIconWithoutHashing() {
+    Bitmap bitmap = bitmap(11, 13);
+    Icon icon = iconFactory.fromBitmap(bitmap);
+    assertSame(icon, iconFactory.fromBitmap(bitmap));
+    verify(bitmap, never()).copyPixelsToBuffer(any(ByteBuffer.class));
+    verify(bitmap, never()).sameAs(any(Bitmap.class));
+  }
+
+  @Test
+  public void testBitmapOfNewShapeIsNotHashed() {
+    Bitmap first = bitmap(17, 19);
+    Bitmap second = bitmap(19, 17);
+    assertNotSame(iconFactory.fromBitmap(first), iconFactory.fromBitmap(second));
+    verify(first, never()).copyPixelsToBuffer(any(ByteBuffer.class));
+    verify(second, never()).copyPixelsToBuffer(any(ByteBuffer.class));
+  }
+
+  @Test
+  public void testIdenticalBitmapsShareIcon() {
+    Bitmap first = bitmap(23, 29);
+    Bitmap second = bitmap(23, 29);
+    when(first.sameAs(second)).thenReturn(true);
+    Icon icon = iconFactory.fromBitmap(first);
+    assertSame(icon, iconFactory.fromBitmap(second));
+    // afterwards found by identity
+    assertSame(icon, iconFactory.fromBitmap(second));
+    verify(first).sameAs(second);
+  }
+
+  @Test
+  public void testDifferentBitmapsOfSameShapeGetOwnIcons() {
+    Bitmap first = bitmap(31, 37);
+    Bitmap second = bitmap(31, 37);
+    when(first.sameAs(second)).thenReturn(false);
+    assertNotSame(iconFactory.fromBitmap(first), iconFactory.fromBitmap(second));
+  }
+
+  @Test
+  public void testModifiedBitmapGetsNewIcon() {
+    Bitmap bitmap = bitmap(41, 43);
+    when(bitmap.sameAs(bitmap)).thenReturn(true);
+    Icon icon = iconFactory.fromBitmap(bitmap);
+    when(bitmap.getGenerationId()).thenReturn(2);
+    assertNotSame(icon, iconFactory.fromBitmap(bitmap));
+  }
+
+  private static Bitmap bitmap(int width, int height) {
+    Bitmap bitmap = mock(Bitmap.class);
+    when(bitmap.getWidth()).thenReturn(width);
+    when(bitmap.getHeight()).thenReturn(height);
+    when(bitmap.getRowBytes()).thenReturn(width * 4);
+    when(bitmap.getConfig()).thenReturn(Bitmap.Config.ARGB_8888);
+    when(bitmap.getGenerationId()).thenReturn(1);
+    return bitmap;
+  }
+}
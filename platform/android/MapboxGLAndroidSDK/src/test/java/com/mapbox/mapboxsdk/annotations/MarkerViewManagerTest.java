@@ -0,0 +1,184 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.content.Context;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MarkerViewManagerTest {
+
+  private ViewGroup container;
+  private MapboxMap mapboxMap;
+  private TestMarkerViewAdapter adapter;
+  private MarkerViewManager markerViewManager;
+  private List<MarkerView> markersInRect;
+
+  @Before
+  public void beforeTest() {
+    container = mock(ViewGroup.class);
+    when(container.getContext()).thenReturn(mock(Context.class));
+    mapboxMap = mock(MapboxMap.class);
+    markersInRect = new ArrayList<>();
+    when(mapboxMap.getMarkerViewsInRect(any(RectF.class))).thenReturn(markersInRect);
+    when(mapboxMap.getSelectedMarkers()).thenReturn(Collections.<Marker>emptyList());
+    when(mapboxMap.getProjection()).thenReturn(mock(Projection.class));
+
+    markerViewManager = new MarkerViewManager(container);
+    markerViewManager.bind(mapboxMap);
+    adapter = new TestMarkerViewAdapter(container.getContext());
+    markerViewManager.addMarkerViewAdapter(adapter);
+  }
+
+  @Test
+  public void testAddsInflatedView() {
+    MarkerView marker = new TestMarkerView();
+    markersInRect.add(marker);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+
+    View view = markerViewManager.getView(marker);
+    assertSame(adapter.inflated.get(0), view);
+    verify(container).addView(view);
+  }
+
+  @Test
+  public void testReusesAttachedViewWithoutAdding() {
+    View pooled = mockView();
+    when(pooled.getParent()).thenReturn(container);
+    adapter.releaseView(pooled);
+
+    MarkerView marker = new TestMarkerView();
+    markersInRect.add(marker);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+
+    assertSame(pooled, markerViewManager.getView(marker));
+    assertEquals(0, adapter.inflated.size());
+    verify(container, never()).addView(pooled);
+  }
+
+  @Test
+  public void testAddsDetachedPooledView() {
+    // the view inflated to measure the info window offset of a marker that isn't shown is pooled detached
+    MarkerView measured = new TestMarkerView();
+    markerViewManager.ensureInfoWindowOffset(measured);
+    View view = adapter.inflated.get(0);
+    verify(container, never()).addView(view);
+
+    MarkerView marker = new TestMarkerView();
+    markersInRect.add(marker);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+
+    assertSame(view, markerViewManager.getView(marker));
+    verify(container).addView(view);
+  }
+
+  @Test
+  public void testReleasesViewLeavingVisibleRegion() {
+    MarkerView marker = new TestMarkerView();
+    markersInRect.add(marker);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+    View view = markerViewManager.getView(marker);
+
+    markersInRect.clear();
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+
+    assertNull(markerViewManager.getView(marker));
+    assertSame(view, adapter.getViewReusePool().acquire());
+  }
+
+  @Test
+  public void testReleasesUnusedConvertView() {
+    View pooled = mockView();
+    adapter.releaseView(pooled);
+    adapter.reuseConvertView = false;
+
+    MarkerView marker = new TestMarkerView();
+    markersInRect.add(marker);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+
+    assertSame(adapter.inflated.get(0), markerViewManager.getView(marker));
+    assertSame(pooled, adapter.getViewReusePool().acquire());
+  }
+
+  @Test
+  public void testQueriesVisibleRegionOnlyWhenChanged() {
+    // adding the adapter queried the visible region
+    verify(mapboxMap, times(1)).getMarkerViewsInRect(any(RectF.class));
+    markerViewManager.setEnabled(true);
+    markerViewManager.update();
+    markerViewManager.update();
+    ArgumentCaptor<Runnable> frame = ArgumentCaptor.forClass(Runnable.class);
+    verify(container).post(frame.capture());
+
+    // camera changes within the query interval only move the shown views, the query is postponed
+    frame.getValue().run();
+    verify(mapboxMap, times(1)).getMarkerViewsInRect(any(RectF.class));
+    ArgumentCaptor<Runnable> query = ArgumentCaptor.forClass(Runnable.class);
+    verify(container).postDelayed(query.capture(), anyLong());
+    query.getValue().run();
+    verify(mapboxMap, times(2)).getMarkerViewsInRect(any(RectF.class));
+
+    // marker changes are queried on the next frame
+    markerViewManager.onMarkerViewsChanged();
+    frame.getValue().run();
+    verify(mapboxMap, times(3)).getMarkerViewsInRect(any(RectF.class));
+
+    // frames without changes don't query
+    frame.getValue().run();
+    query.getValue().run();
+    verify(mapboxMap, times(3)).getMarkerViewsInRect(any(RectF.class));
+  }
+
+  private static View mockView() {
+    View view = mock(View.class);
+    when(view.getViewTreeObserver()).thenReturn(mock(ViewTreeObserver.class));
+    return view;
+  }
+
+  private static class TestMarkerView extends MarkerView {
+  }
+
+  private static class TestMarkerViewAdapter extends MapboxMap.MarkerViewAdapter<TestMarkerView> {
+
+    private final List<View> inflated = new ArrayList<>();
+    private boolean reuseConvertView = true;
+
+    TestMarkerViewAdapter(Context context) {
+      super(context);
+    }
+
+    @Nullable
+    @Override
+    public View getView(@NonNull TestMarkerView marker, @Nullable View convertView, @NonNull ViewGroup parent) {
+      if (convertView == null || !reuseConvertView) {
+        convertView = mockView();
+        inflated.add(convertView);
+      }
+      return convertView;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PointSimplifierTest {
+
+  @Test
+  public void testKeepsEndPoints() {
+    double[] coordinates = new double[] {0, 0, 0, 0.5, 0, 1};
+    double[] importance = PointSimplifier.computeImportance(coordinates, 3);
+    double[] out = new double[6];
+    int count = PointSimplifier.select(coordinates, 3, importance, PointSimplifier.getSqTolerance(0), out);
+    assertEquals(2, count);
+    assertEquals(0, out[1], 0);
+    assertEquals(1, out[3], 0);
+  }
+
+  @Test
+  public void testKeepsFurthestPoint() {
+    // a triangle stays a triangle at any zoom level
+    double[] coordinates = new double[] {0, 0, 0.001, 0.001, 0, 0.002};
+    double[] importance = PointSimplifier.computeImportance(coordinates, 3);
+    double[] out = new double[6];
+    assertEquals(3, PointSimplifier.select(coordinates, 3, importance, PointSimplifier.getSqTolerance(0), out));
+  }
+
+  @Test
+  public void testMoreDetailAtHigherZoom() {
+    int count = 10000;
+    double[] coordinates = createTrack(count);
+    double[] importance = PointSimplifier.computeImportance(coordinates, count);
+    double[] out = new double[count * 2];
+
+    int previous = 0;
+    for (int zoom = 0; zoom <= 22; zoom += 2) {
+      int selected = PointSimplifier.select(coordinates, count, importance, PointSimplifier.getSqTolerance(zoom), out);
+      assertTrue(selected >= previous);
+      previous = selected;
+    }
+    assertTrue(previous <= count);
+  }
+
+  @Test
+  public void testSimplificationZoom() {
+    Polyline polyline = new PolylineOptions().simplificationZoom(0).getPolyline();
+    double[] coordinates = createTrack(1000);
+    for (int i = 0; i < 1000; i++) {
+      polyline.addPoint(new LatLng(coordinates[i * 2], coordinates[i * 2 + 1]));
+    }
+    assertEquals(1000, polyline.getPointCount());
+    assertTrue(polyline.getRenderPointCount() < 1000);
+
+    polyline.setSimplificationZoom(BasePointCollection.NO_SIMPLIFICATION);
+    assertEquals(1000, polyline.getRenderPointCount());
+  }
+
+  @Test
+  public void testImportanceOfRange() {
+    int count = 1000;
+    double[] coordinates = createTrack(count);
+    double[] expected = PointSimplifier.computeImportance(coordinates, count);
+
+    // a range computed within a larger geometry matches the range on its own
+    double[] padded = new double[(count + 10) * 2];
+    System.arraycopy(coordinates, 0, padded, 10, count * 2);
+    double[] importance = new double[count + 10];
+    PointSimplifier.computeImportance(padded, 5, count + 4, importance);
+    for (int i = 0; i < count; i++) {
+      assertEquals(expected[i], importance[i + 5], 0);
+    }
+    assertEquals(0, importance[4], 0);
+    assertEquals(0, importance[count + 5], 0);
+  }
+
+  @Test
+  public void testIncrementalSimplification() {
+    int count = 10000;
+    double[] coordinates = createTrack(count);
+    List<LatLng> points = new ArrayList<>();
+    Polyline incremental = new PolylineOptions().simplificationZoom(10).getPolyline();
+    for (int i = 0; i < count; i++) {
+      LatLng point = new LatLng(coordinates[i * 2], coordinates[i * 2 + 1]);
+      points.add(point);
+      incremental.addPoint(point);
+      if (i % 1000 == 0) {
+        // simplify while points are added, as rendering the polyline does
+        incremental.getRenderPointCount();
+      }
+    }
+    Polyline batch = new PolylineOptions().simplificationZoom(10).getPolyline();
+    batch.setPoints(points);
+
+    // points added one by one only keep a few more section boundaries than points set at once
+    int batchCount = batch.getRenderPointCount();
+    assertTrue(incremental.getRenderPointCount() >= batchCount);
+    assertTrue(incremental.getRenderPointCount() <= batchCount + 64);
+    assertEquals(count, incremental.getPointCount());
+  }
+
+  @Test
+  public void testSimplificationZoomBounds() {
+    Polyline polyline = new Polyline();
+    polyline.setSimplificationZoom(0);
+    polyline.setSimplificationZoom((int) MapboxConstants.MAXIMUM_ZOOM);
+    polyline.setSimplificationZoom(BasePointCollection.NO_SIMPLIFICATION);
+    try {
+      polyline.setSimplificationZoom((int) MapboxConstants.MAXIMUM_ZOOM + 1);
+      fail("Expected IllegalArgumentException above the maximum zoom");
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+    try {
+      polyline.setSimplificationZoom(-2);
+      fail("Expected IllegalArgumentException below NO_SIMPLIFICATION");
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  private static double[] createTrack(int count) {
+    // random walk resembling a recorded route
+    Random random = new Random(0);
+    double[] coordinates = new double[count * 2];
+    double latitude = 52.0;
+    double longitude = 4.0;
+    for (int i = 0; i < count; i++) {
+      latitude += (random.nextDouble() - 0.45) * 0.0001;
+      longitude += (random.nextDouble() - 0.45) * 0.0001;
+      coordinates[i * 2] = latitude;
+      coordinates[i * 2 + 1] = longitude;
+    }
+    return coordinates;
+  }
+}
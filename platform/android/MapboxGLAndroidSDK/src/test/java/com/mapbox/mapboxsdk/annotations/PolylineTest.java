@@ -72,4 +72,36 @@ public class PolylineTest {
     assertEquals(new LatLng(0, 0), polyline.getPoints().get(0));
   }
 
+  @Test
+  public void testAddPoints() {
+    Polyline polyline = new PolylineOptions().add(new LatLng(0, 0)).getPolyline();
+    List<LatLng> points = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      points.add(new LatLng(i / 10.0, i / 10.0));
+    }
+    polyline.addPoints(points);
+    assertEquals(101, polyline.getPointCount());
+    assertEquals(new LatLng(10, 10), polyline.getPoint(100));
+    assertEquals(101, polyline.getPoints().size());
+  }
+
+  @Test
+  public void testPointAltitude() {
+    Polyline polyline = new PolylineOptions()
+      .add(new LatLng(0, 0))
+      .add(new LatLng(1, 1, 100))
+      .getPolyline();
+    assertEquals(new LatLng(0, 0), polyline.getPoint(0));
+    assertEquals(new LatLng(1, 1, 100), polyline.getPoint(1));
+  }
+
+  @Test
+  public void testSetPoints() {
+    Polyline polyline = new PolylineOptions().add(new LatLng(0, 0)).getPolyline();
+    List<LatLng> points = new ArrayList<>();
+    points.add(new LatLng(1, 1));
+    points.add(new LatLng(2, 2));
+    polyline.setPoints(points);
+    assertEquals(points, polyline.getPoints());
+  }
 }
@@ -0,0 +1,62 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DirectByteBufferPoolTest {
+
+  @Test
+  public void testRoundsUpToSizeClass() {
+    DirectByteBufferPool pool = new DirectByteBufferPool(16, 1024, 4096);
+    assertEquals(16, pool.acquire(1).capacity());
+    assertEquals(16, pool.acquire(16).capacity());
+    assertEquals(32, pool.acquire(17).capacity());
+    assertEquals(1024, pool.acquire(1000).capacity());
+    assertTrue(pool.acquire(1).isDirect());
+  }
+
+  @Test
+  public void testReusesReleasedBuffer() {
+    DirectByteBufferPool pool = new DirectByteBufferPool(16, 1024, 4096);
+    ByteBuffer buffer = pool.acquire(100);
+    buffer.put((byte) 1);
+    pool.release(buffer);
+    assertEquals(128, pool.getPooledBytes());
+
+    ByteBuffer reused = pool.acquire(120);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(reused.capacity(), reused.limit());
+    assertEquals(0, pool.getPooledBytes());
+  }
+
+  @Test
+  public void testDoesNotPoolLargeBuffers() {
+    DirectByteBufferPool pool = new DirectByteBufferPool(16, 1024, 4096);
+    ByteBuffer buffer = pool.acquire(2000);
+    assertEquals(2000, buffer.capacity());
+    pool.release(buffer);
+    assertEquals(0, pool.getPooledBytes());
+    assertNotSame(buffer, pool.acquire(2000));
+  }
+
+  @Test
+  public void testBoundsPooledBytes() {
+    DirectByteBufferPool pool = new DirectByteBufferPool(16, 1024, 2048);
+    pool.release(pool.acquire(1024));
+    pool.release(pool.acquire(1024));
+    pool.release(pool.acquire(1024));
+    assertEquals(1024, pool.getPooledBytes());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsInvalidSizeClasses() {
+    new DirectByteBufferPool(10, 1024, 4096);
+  }
+}
@@ -0,0 +1,157 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NativePeerHandoffTest {
+
+  private static final int REQUEST_COUNT = 5000;
+  private static final int THREAD_COUNT = 4;
+
+  @Test
+  public void testDeliversOnce() {
+    NativePeerHandoff handoff = new NativePeerHandoff(42);
+    assertTrue(handoff.isAttached());
+    assertTrue(handoff.beginDelivery());
+    assertFalse(handoff.beginDelivery());
+    handoff.endDelivery();
+    assertFalse(handoff.isAttached());
+    assertFalse(handoff.beginDelivery());
+    handoff.cancel();
+  }
+
+  @Test
+  public void testNoDeliveryAfterCancel() {
+    NativePeerHandoff handoff = new NativePeerHandoff(42);
+    handoff.cancel();
+    assertFalse(handoff.isAttached());
+    assertFalse(handoff.beginDelivery());
+  }
+
+  @Test
+  public void testCancelWaitsForDelivery() throws InterruptedException {
+    final NativePeerHandoff handoff = new NativePeerHandoff(42);
+    final AtomicBoolean delivering = new AtomicBoolean();
+    final AtomicBoolean canceledDuringDelivery = new AtomicBoolean();
+    assertTrue(handoff.beginDelivery());
+    delivering.set(true);
+
+    Thread cancel = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        handoff.cancel();
+        canceledDuringDelivery.set(delivering.get());
+      }
+    });
+    cancel.start();
+    Thread.sleep(50);
+    assertTrue(cancel.isAlive());
+
+    delivering.set(false);
+    handoff.endDelivery();
+    cancel.join(1000);
+    assertFalse(cancel.isAlive());
+    assertFalse(canceledDuringDelivery.get());
+  }
+
+  @Test
+  public void testCancelWhileResponsesArrive() throws InterruptedException {
+    final List<FakePeer> peers = new ArrayList<>(REQUEST_COUNT);
+    for (int i = 0; i < REQUEST_COUNT; i++) {
+      peers.add(new FakePeer(i + 1));
+    }
+
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicInteger violations = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < THREAD_COUNT; t++) {
+      final int offset = t;
+      // responses arrive on the network threads
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          await(start);
+          for (int i = offset; i < REQUEST_COUNT; i += THREAD_COUNT) {
+            if (!peers.get(i).deliver()) {
+              violations.incrementAndGet();
+            }
+          }
+        }
+      }));
+      // the native thread cancels and releases the same requests
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          await(start);
+          for (int i = REQUEST_COUNT - 1 - offset; i >= 0; i -= THREAD_COUNT) {
+            peers.get(i).cancelAndRelease();
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(0, violations.get());
+    for (FakePeer peer : peers) {
+      assertTrue(peer.released);
+      assertFalse(peer.handoff.isAttached());
+      assertTrue(peer.deliveries.get() <= 1);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException exception) {
+      throw new RuntimeException(exception);
+    }
+  }
+
+  /**
+   * Stands in for the native request, which is released right after canceling.
+   */
+  private static final class FakePeer {
+
+    private final NativePeerHandoff handoff;
+    private final AtomicInteger deliveries = new AtomicInteger();
+    private volatile boolean released;
+
+    FakePeer(long nativePtr) {
+      handoff = new NativePeerHandoff(nativePtr);
+    }
+
+    boolean deliver() {
+      if (!handoff.beginDelivery()) {
+        return true;
+      }
+      try {
+        deliveries.incrementAndGet();
+        // copying the body into native memory
+        Thread.yield();
+        return !released;
+      } finally {
+        handoff.endDelivery();
+      }
+    }
+
+    void cancelAndRelease() {
+      handoff.cancel();
+      released = true;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import okio.Buffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReadBodyTest {
+
+  private final DirectByteBufferPool pool = new DirectByteBufferPool(16, 1024, 4096);
+
+  @Test
+  public void testReadsBodyWithContentLength() throws IOException {
+    byte[] bytes = bytes(32);
+    ByteBuffer body = InFlightRequests.readBody(new Buffer().write(bytes), bytes.length, pool);
+    assertTrue(body.isDirect());
+    assertEquals(32, body.capacity());
+    assertBody(bytes, body);
+  }
+
+  @Test
+  public void testGrowsBodyWithoutContentLength() throws IOException {
+    byte[] bytes = bytes(100);
+    ByteBuffer body = InFlightRequests.readBody(new Buffer().write(bytes), -1, pool);
+    assertBody(bytes, body);
+  }
+
+  @Test
+  public void testGrowsBodyLongerThanContentLength() throws IOException {
+    byte[] bytes = bytes(100);
+    ByteBuffer body = InFlightRequests.readBody(new Buffer().write(bytes), 10, pool);
+    assertBody(bytes, body);
+  }
+
+  @Test
+  public void testReadsBodyLargerThanReadChunk() throws IOException {
+    byte[] bytes = bytes(20000);
+    ByteBuffer body = InFlightRequests.readBody(new Buffer().write(bytes), bytes.length, pool);
+    assertBody(bytes, body);
+  }
+
+  @Test
+  public void testReadsEmptyBody() throws IOException {
+    ByteBuffer body = InFlightRequests.readBody(new Buffer(), 0, pool);
+    assertEquals(0, body.limit());
+  }
+
+  private static byte[] bytes(int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  private static void assertBody(byte[] expected, ByteBuffer body) {
+    assertEquals(0, body.position());
+    byte[] actual = new byte[body.limit()];
+    body.get(actual);
+    assertArrayEquals(expected, actual);
+  }
+}
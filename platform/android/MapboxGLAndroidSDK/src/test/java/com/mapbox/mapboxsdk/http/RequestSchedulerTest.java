@@ -0,0 +1,284 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RequestSchedulerTest {
+
+  private final List<FakeCall> started = new ArrayList<>();
+
+  @Test
+  public void testStartsUpToMaxRunning() {
+    RequestScheduler scheduler = new RequestScheduler(2, 2);
+    scheduler.submit(tile(0, 0, 1));
+    scheduler.submit(tile(1, 0, 1));
+    FakeCall third = tile(0, 1, 1);
+    scheduler.submit(third);
+    assertEquals(2, started.size());
+    assertEquals(1, scheduler.getQueuedCount());
+
+    scheduler.finished(started.get(0));
+    assertEquals(3, started.size());
+    assertEquals(third, started.get(2));
+    assertEquals(2, scheduler.getRunningCount());
+  }
+
+  @Test
+  public void testPrioritizesByKind() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    FakeCall blocking = tile(0, 0, 0);
+    scheduler.submit(blocking);
+
+    FakeCall tile = tile(0, 0, 1);
+    FakeCall glyphs = new FakeCall(RequestScheduler.KIND_GLYPHS, 0, 0, 0);
+    FakeCall source = new FakeCall(RequestScheduler.KIND_SOURCE, 0, 0, 0);
+    FakeCall style = new FakeCall(RequestScheduler.KIND_STYLE, 0, 0, 0);
+    scheduler.submit(tile);
+    scheduler.submit(glyphs);
+    scheduler.submit(source);
+    scheduler.submit(style);
+
+    finishAll(scheduler);
+    assertEquals(Arrays.asList(blocking, style, source, glyphs, tile), started);
+  }
+
+  @Test
+  public void testPrioritizesTilesCloseToViewport() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    scheduler.updateViewport(0, 0, 2);
+    FakeCall blocking = new FakeCall(RequestScheduler.KIND_STYLE, 0, 0, 0);
+    scheduler.submit(blocking);
+
+    // the center of the world at zoom 2 is the corner of tiles 1 and 2
+    FakeCall far = tile(0, 0, 2);
+    FakeCall parent = tile(0, 0, 1);
+    FakeCall center = tile(2, 2, 2);
+    FakeCall near = tile(3, 2, 2);
+    scheduler.submit(far);
+    scheduler.submit(parent);
+    scheduler.submit(near);
+    scheduler.submit(center);
+
+    finishAll(scheduler);
+    assertEquals(Arrays.asList(blocking, center, near, far, parent), started);
+  }
+
+  @Test
+  public void testReprioritizesOnViewportChange() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    scheduler.updateViewport(60, -150, 3);
+    FakeCall blocking = new FakeCall(RequestScheduler.KIND_STYLE, 0, 0, 0);
+    scheduler.submit(blocking);
+
+    FakeCall west = tile(0, 2, 3);
+    FakeCall east = tile(7, 2, 3);
+    scheduler.submit(west);
+    scheduler.submit(east);
+
+    scheduler.updateViewport(60, 150, 3);
+    finishAll(scheduler);
+    assertEquals(Arrays.asList(blocking, east, west), started);
+  }
+
+  @Test
+  public void testWrapsAroundAntimeridian() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    scheduler.updateViewport(0, 179, 3);
+    FakeCall blocking = new FakeCall(RequestScheduler.KIND_STYLE, 0, 0, 0);
+    scheduler.submit(blocking);
+
+    FakeCall middle = tile(4, 4, 3);
+    FakeCall acrossAntimeridian = tile(0, 4, 3);
+    scheduler.submit(middle);
+    scheduler.submit(acrossAntimeridian);
+
+    finishAll(scheduler);
+    assertEquals(Arrays.asList(blocking, acrossAntimeridian, middle), started);
+  }
+
+  @Test
+  public void testWrapsViewportLongitude() {
+    // the center of the transform is in another world copy after panning across the antimeridian
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    scheduler.updateViewport(0, -539, 3);
+    FakeCall blocking = new FakeCall(RequestScheduler.KIND_STYLE, 0, 0, 0);
+    scheduler.submit(blocking);
+
+    FakeCall middle = tile(4, 4, 3);
+    FakeCall west = tile(0, 4, 3);
+    scheduler.submit(middle);
+    scheduler.submit(west);
+
+    finishAll(scheduler);
+    assertEquals(Arrays.asList(blocking, west, middle), started);
+  }
+
+  @Test
+  public void testRemovedCallNeverStarts() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    FakeCall running = tile(0, 0, 1);
+    FakeCall canceled = tile(1, 0, 1);
+    scheduler.submit(running);
+    scheduler.submit(canceled);
+
+    assertFalse(scheduler.remove(running));
+    assertTrue(scheduler.remove(canceled));
+    finishAll(scheduler);
+    assertEquals(Arrays.asList(running), started);
+    assertEquals(0, scheduler.getQueuedCount());
+  }
+
+  @Test
+  public void testFinishedTwiceFreesOneSlot() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    FakeCall first = tile(0, 0, 1);
+    scheduler.submit(first);
+    scheduler.submit(tile(1, 0, 1));
+    scheduler.submit(tile(0, 1, 1));
+
+    scheduler.finished(first);
+    scheduler.finished(first);
+    assertEquals(2, started.size());
+    assertEquals(1, scheduler.getRunningCount());
+  }
+
+  @Test
+  public void testLimitsRunningPerHost() {
+    RequestScheduler scheduler = new RequestScheduler(3, 2);
+    FakeCall first = tile(0, 0, 1);
+    scheduler.submit(first);
+    scheduler.submit(tile(1, 0, 1));
+    FakeCall sameHost = tile(0, 1, 1);
+    scheduler.submit(sameHost);
+    FakeCall otherHost = tile(1, 1, 1);
+    otherHost.host = "b.example.com";
+    scheduler.submit(otherHost);
+
+    // the call queued for the saturated host doesn't block the other host
+    assertEquals(3, started.size());
+    assertEquals(otherHost, started.get(2));
+    assertEquals(1, scheduler.getQueuedCount());
+
+    scheduler.finished(first);
+    assertEquals(sameHost, started.get(3));
+  }
+
+  @Test
+  public void testLimitsRunningInTotal() {
+    RequestScheduler scheduler = new RequestScheduler(2, 2);
+    scheduler.submit(tile(0, 0, 1));
+    FakeCall otherHost = tile(1, 0, 1);
+    otherHost.host = "b.example.com";
+    scheduler.submit(otherHost);
+    FakeCall thirdHost = tile(0, 1, 1);
+    thirdHost.host = "c.example.com";
+    scheduler.submit(thirdHost);
+
+    assertEquals(2, started.size());
+    assertEquals(1, scheduler.getQueuedCount());
+  }
+
+  @Test
+  public void testFailedStartFreesSlot() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    FakeCall failing = tile(0, 0, 1);
+    failing.startFailure = new IllegalStateException("rejected");
+    FakeCall next = tile(1, 0, 1);
+    scheduler.submit(failing);
+    assertEquals(failing.startFailure, failing.reportedFailure);
+
+    scheduler.submit(next);
+    assertEquals(Arrays.asList(failing, next), started);
+    assertEquals(1, scheduler.getRunningCount());
+  }
+
+  @Test
+  public void testFailedStartStartsNextQueued() {
+    RequestScheduler scheduler = new RequestScheduler(1, 1);
+    FakeCall blocking = tile(0, 0, 1);
+    scheduler.submit(blocking);
+    FakeCall failing = tile(1, 0, 1);
+    failing.startFailure = new IllegalStateException("rejected");
+    FakeCall next = tile(0, 1, 1);
+    scheduler.submit(failing);
+    scheduler.submit(next);
+
+    scheduler.finished(blocking);
+    assertEquals(Arrays.asList(blocking, failing, next), started);
+    assertEquals(1, scheduler.getRunningCount());
+    assertEquals(0, scheduler.getQueuedCount());
+  }
+
+  private FakeCall tile(int x, int y, int z) {
+    return new FakeCall(RequestScheduler.KIND_TILE, x, y, z);
+  }
+
+  private void finishAll(RequestScheduler scheduler) {
+    for (int i = 0; i < started.size(); i++) {
+      scheduler.finished(started.get(i));
+    }
+  }
+
+  private class FakeCall implements RequestScheduler.ScheduledCall {
+
+    private final int kind;
+    private final int x;
+    private final int y;
+    private final int z;
+    private String host = "a.example.com";
+    private RuntimeException startFailure;
+    private RuntimeException reportedFailure;
+
+    FakeCall(int kind, int x, int y, int z) {
+      this.kind = kind;
+      this.x = x;
+      this.y = y;
+      this.z = z;
+    }
+
+    @Override
+    public int getKind() {
+      return kind;
+    }
+
+    @Override
+    public int getTileX() {
+      return x;
+    }
+
+    @Override
+    public int getTileY() {
+      return y;
+    }
+
+    @Override
+    public int getTileZ() {
+      return z;
+    }
+
+    @Override
+    public String getHost() {
+      return host;
+    }
+
+    @Override
+    public void start() {
+      started.add(this);
+      if (startFailure != null) {
+        throw startFailure;
+      }
+    }
+
+    @Override
+    public void onStartFailure(RuntimeException exception) {
+      reportedFailure = exception;
+    }
+  }
+}
@@ -1,23 +1,31 @@
 package com.mapbox.mapboxsdk.maps;
 
-import android.support.v4.util.LongSparseArray;
+import android.graphics.RectF;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
+import com.mapbox.mapboxsdk.annotations.Icon;
 import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import org.junit.Test;
 import org.mockito.ArgumentMatchers;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AnnotationManagerTest {
@@ -26,7 +34,7 @@ public class AnnotationManagerTest {
   public void checksAddAMarker() throws Exception {
     NativeMapView aNativeMapView = mock(NativeMapView.class);
     MapView aMapView = mock(MapView.class);
-    LongSparseArray<Annotation> annotationsArray = new LongSparseArray<>();
+    LongHashMap<Annotation> annotationsArray = new LongHashMap<>();
     MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
     IconManager aIconManager = mock(IconManager.class);
     Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
@@ -53,7 +61,7 @@ public class AnnotationManagerTest {
   public void checksAddMarkers() throws Exception {
     NativeMapView aNativeMapView = mock(NativeMapView.class);
     MapView aMapView = mock(MapView.class);
-    LongSparseArray<Annotation> annotationsArray = new LongSparseArray<>();
+    LongHashMap<Annotation> annotationsArray = new LongHashMap<>();
     MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
     IconManager aIconManager = mock(IconManager.class);
     Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
@@ -85,4 +93,151 @@ public class AnnotationManagerTest {
     assertEquals("first", ((Marker) annotationManager.getAnnotation(firstId)).getTitle());
     assertEquals("second", ((Marker) annotationManager.getAnnotation(secondId)).getTitle());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void checksAddMarkersFromCoordinatesLoadsIconOnce() throws Exception {
+    NativeMapView aNativeMapView = mock(NativeMapView.class);
+    MapView aMapView = mock(MapView.class);
+    LongHashMap<Annotation> annotationsArray = new LongHashMap<>();
+    MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
+    IconManager aIconManager = mock(IconManager.class);
+    Markers markers = new MarkerContainer(aNativeMapView, aMapView, annotationsArray, aIconManager, aMarkerViewManager);
+    Icon anIcon = mock(Icon.class);
+    when(anIcon.getId()).thenReturn("icon");
+    when(aIconManager.loadIconForMarker(any(Marker.class))).thenReturn(anIcon);
+    double[] latitudes = new double[] {1, 2, 3};
+    double[] longitudes = new double[] {4, 5, 6};
+    when(aNativeMapView.addMarkers(latitudes, longitudes, "icon")).thenReturn(new long[] {1L, 2L, 3L});
+
+    List<Marker> added = markers.addBy(latitudes, longitudes, anIcon, mock(MapboxMap.class));
+
+    assertEquals(3, added.size());
+    assertEquals(new LatLng(3, 6), added.get(2).getPosition());
+    assertEquals(added.get(1), annotationsArray.get(2L));
+    verify(aIconManager, times(1)).loadIconForMarker(any(Marker.class));
+    verify(aIconManager, times(1)).addIconReferences(anIcon, 2);
+  }
+
+  @Test
+  public void checksGetMarkersInRect() throws Exception {
+    NativeMapView aNativeMapView = mock(NativeMapView.class);
+    MapView aMapView = mock(MapView.class);
+    LongHashMap<Annotation> annotationsArray = new LongHashMap<>();
+    MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
+    IconManager aIconManager = mock(IconManager.class);
+    Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
+    Markers markers = new MarkerContainer(aNativeMapView, aMapView, annotationsArray, aIconManager, aMarkerViewManager);
+    Polygons polygons = new PolygonContainer(aNativeMapView, annotationsArray);
+    Polylines polylines = new PolylineContainer(aNativeMapView, annotationsArray);
+    ShapeAnnotations shapeAnnotations = new ShapeAnnotationContainer(aNativeMapView, annotationsArray);
+    AnnotationManager annotationManager = new AnnotationManager(aNativeMapView, aMapView, annotationsArray,
+      aMarkerViewManager, aIconManager, annotations, markers, polygons, polylines, shapeAnnotations);
+    long firstId = 1L;
+    long secondId = 2L;
+    List<BaseMarkerOptions> markerList = new ArrayList<>();
+    markerList.add(new MarkerOptions().position(new LatLng()).title("first"));
+    markerList.add(new MarkerOptions().position(new LatLng()).title("second"));
+    MapboxMap aMapboxMap = mock(MapboxMap.class);
+    when(aNativeMapView.addMarkers(ArgumentMatchers.<Marker>anyList()))
+      .thenReturn(new long[] {firstId, secondId});
+    when(aNativeMapView.queryPointAnnotations(ArgumentMatchers.<RectF>any()))
+      .thenReturn(new long[] {secondId, 3L});
+    annotationManager.addMarkers(markerList, aMapboxMap);
+
+    List<Marker> markersInRect = annotationManager.getMarkersInRect(new RectF());
+
+    assertEquals(1, markersInRect.size());
+    assertEquals("second", markersInRect.get(0).getTitle());
+  }
+
+  @Test
+  public void checksAddMarkersFromPositions() throws Exception {
+    NativeMapView aNativeMapView = mock(NativeMapView.class);
+    MapView aMapView = mock(MapView.class);
+    LongHashMap<Annotation> annotationsArray = new LongHashMap<>();
+    MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
+    IconManager aIconManager = mock(IconManager.class);
+    Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
+    Markers markers = new MarkerContainer(aNativeMapView, aMapView, annotationsArray, aIconManager, aMarkerViewManager);
+    Polygons polygons = new PolygonContainer(aNativeMapView, annotationsArray);
+    Polylines polylines = new PolylineContainer(aNativeMapView, annotationsArray);
+    ShapeAnnotations shapeAnnotations = new ShapeAnnotationContainer(aNativeMapView, annotationsArray);
+    AnnotationManager annotationManager = new AnnotationManager(aNativeMapView, aMapView, annotationsArray,
+      aMarkerViewManager, aIconManager, annotations, markers, polygons, polylines, shapeAnnotations);
+    Icon aIcon = mock(Icon.class);
+    when(aIcon.getId()).thenReturn("icon");
+    when(aIconManager.loadIconForMarker(any(Marker.class))).thenReturn(aIcon);
+    double[] latitudes = new double[] {10, 20};
+    double[] longitudes = new double[] {30, 40};
+    when(aNativeMapView.addMarkers(latitudes, longitudes, "icon")).thenReturn(new long[] {1L, 2L});
+    MapboxMap aMapboxMap = mock(MapboxMap.class);
+
+    List<Marker> addedMarkers = annotationManager.addMarkers(latitudes, longitudes, aIcon, aMapboxMap);
+
+    assertEquals(2, addedMarkers.size());
+    assertEquals(2, annotationManager.getAnnotations().size());
+    assertEquals(new LatLng(20, 40), ((Marker) annotationManager.getAnnotation(2L)).getPosition());
+    assertEquals(aIcon, addedMarkers.get(0).getIcon());
+  }
+
+  @Test
+  public void checksReloadMarkersKeepsIds() throws Exception {
+    NativeMapView aNativeMapView = mock(NativeMapView.class);
+    MapView aMapView = mock(MapView.class);
+    LongHashMap<Annotation> annotationsArray = new LongHashMap<>();
+    MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
+    IconManager aIconManager = mock(IconManager.class);
+    Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
+    Markers markers = new MarkerContainer(aNativeMapView, aMapView, annotationsArray, aIconManager, aMarkerViewManager);
+    Polygons polygons = new PolygonContainer(aNativeMapView, annotationsArray);
+    Polylines polylines = new PolylineContainer(aNativeMapView, annotationsArray);
+    ShapeAnnotations shapeAnnotations = new ShapeAnnotationContainer(aNativeMapView, annotationsArray);
+    AnnotationManager annotationManager = new AnnotationManager(aNativeMapView, aMapView, annotationsArray,
+      aMarkerViewManager, aIconManager, annotations, markers, polygons, polylines, shapeAnnotations);
+    List<BaseMarkerOptions> markerList = new ArrayList<>();
+    markerList.add(new MarkerOptions().position(new LatLng()).title("first"));
+    markerList.add(new MarkerOptions().position(new LatLng()).title("second"));
+    MapboxMap aMapboxMap = mock(MapboxMap.class);
+    when(aNativeMapView.addMarkers(ArgumentMatchers.<Marker>anyList()))
+      .thenReturn(new long[] {7L, 9L});
+    annotationManager.addMarkers(markerList, aMapboxMap);
+
+    annotationManager.reloadMarkers();
+
+    verify(aIconManager).reloadIcons();
+    verify(aNativeMapView, times(1)).updateMarkers(ArgumentMatchers.<Marker>anyList());
+    verify(aNativeMapView, times(1)).addMarkers(ArgumentMatchers.<Marker>anyList());
+    verify(aNativeMapView, never()).removeAnnotation(ArgumentMatchers.anyLong());
+    assertEquals("first", ((Marker) annotationManager.getAnnotation(7L)).getTitle());
+    assertEquals("second", ((Marker) annotationManager.getAnnotation(9L)).getTitle());
+  }
+
+  @Test
+  public void checksUpdatesDeferredUntilTransactionCommit() throws Exception {
+    NativeMapView aNativeMapView = mock(NativeMapView.class);
+    MapView aMapView = mock(MapView.class);
+    LongHashMap<Annotation> annotationsArray = new LongHashMap<>();
+    MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
+    IconManager aIconManager = mock(IconManager.class);
+    Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
+    Markers markers = new MarkerContainer(aNativeMapView, aMapView, annotationsArray, aIconManager, aMarkerViewManager);
+    Polygons polygons = new PolygonContainer(aNativeMapView, annotationsArray);
+    Polylines polylines = new PolylineContainer(aNativeMapView, annotationsArray);
+    ShapeAnnotations shapeAnnotations = new ShapeAnnotationContainer(aNativeMapView, annotationsArray);
+    AnnotationManager annotationManager = new AnnotationManager(aNativeMapView, aMapView, annotationsArray,
+      aMarkerViewManager, aIconManager, annotations, markers, polygons, polylines, shapeAnnotations);
+    MapboxMap aMapboxMap = mock(MapboxMap.class);
+    when(aNativeMapView.addPolyline(any(Polyline.class))).thenReturn(1L);
+    Polyline polyline = annotationManager.addPolyline(new PolylineOptions().add(new LatLng()), aMapboxMap);
+
+    annotationManager.beginTransaction();
+    annotationManager.updatePolyline(polyline);
+    annotationManager.updatePolyline(polyline);
+    verify(aNativeMapView, never()).updatePolyline(any(Polyline.class));
+    verify(aNativeMapView, never()).updatePolylines(ArgumentMatchers.<Polyline>anyList());
+    annotationManager.commitTransaction();
+
+    verify(aNativeMapView, times(1)).updatePolylines(Collections.singletonList(polyline));
+    assertFalse(annotationManager.isInTransaction());
+  }
+}
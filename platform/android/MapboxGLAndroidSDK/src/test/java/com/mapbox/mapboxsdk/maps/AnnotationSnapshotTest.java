@@ -0,0 +1,173 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.PolygonOptions;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnnotationSnapshotTest {
+
+  @Test
+  public void testRestoresMarkers() {
+    List<Annotation> annotations = new ArrayList<>();
+    annotations.add(new MarkerOptions().position(new LatLng(52.37, 4.89)).title("Amsterdam").getMarker());
+    annotations.add(new MarkerOptions().position(new LatLng(-33.87, 151.21)).snippet("Sydney").getMarker());
+
+    List<MarkerOptions> markerOptions = new ArrayList<>();
+    restore(AnnotationSnapshot.save(annotations), markerOptions, new ArrayList<PolylineOptions>(),
+      new ArrayList<PolygonOptions>());
+
+    assertEquals(2, markerOptions.size());
+    assertEquals(new LatLng(52.37, 4.89), markerOptions.get(0).getPosition());
+    assertEquals("Amsterdam", markerOptions.get(0).getTitle());
+    assertNull(markerOptions.get(0).getSnippet());
+    assertEquals(new LatLng(-33.87, 151.21), markerOptions.get(1).getPosition());
+    assertNull(markerOptions.get(1).getTitle());
+    assertEquals("Sydney", markerOptions.get(1).getSnippet());
+  }
+
+  @Test
+  public void testRestoresShapes() {
+    List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(0, 10), new LatLng(10, 10), new LatLng(10, 0));
+    List<LatLng> hole = Arrays.asList(new LatLng(2, 2), new LatLng(2, 4), new LatLng(4, 4));
+    List<Annotation> annotations = new ArrayList<>();
+    annotations.add(new PolylineOptions().addAll(points).color(0xFF00FF00).width(4).alpha(0.5f).getPolyline());
+    annotations.add(new PolygonOptions().addAll(points).addHole(hole).fillColor(0xFFFF0000).strokeColor(0xFF0000FF)
+      .alpha(0.25f).simplificationZoom(12).getPolygon());
+
+    List<PolylineOptions> polylineOptions = new ArrayList<>();
+    List<PolygonOptions> polygonOptions = new ArrayList<>();
+    restore(AnnotationSnapshot.save(annotations), new ArrayList<MarkerOptions>(), polylineOptions, polygonOptions);
+
+    assertEquals(1, polylineOptions.size());
+    PolylineOptions polyline = polylineOptions.get(0);
+    assertEquals(points, polyline.getPoints());
+    assertEquals(0xFF00FF00, polyline.getColor());
+    assertEquals(4, polyline.getWidth(), 0);
+    assertEquals(0.5f, polyline.getAlpha(), 0);
+
+    assertEquals(1, polygonOptions.size());
+    PolygonOptions polygon = polygonOptions.get(0);
+    assertEquals(points, polygon.getPoints());
+    assertEquals(1, polygon.getHoles().size());
+    assertEquals(hole, polygon.getHoles().get(0));
+    assertEquals(0xFFFF0000, polygon.getFillColor());
+    assertEquals(0xFF0000FF, polygon.getStrokeColor());
+    assertEquals(0.25f, polygon.getAlpha(), 0);
+    assertEquals(12, polygon.getSimplificationZoom());
+  }
+
+  @Test
+  public void testByteArrayRoundTrip() {
+    List<Annotation> annotations = new ArrayList<>();
+    annotations.add(new MarkerOptions().position(new LatLng(1, 2)).title("title").getMarker());
+    AnnotationSnapshot snapshot = AnnotationSnapshot.save(annotations);
+
+    List<MarkerOptions> markerOptions = new ArrayList<>();
+    restore(AnnotationSnapshot.fromByteArray(snapshot.toByteArray()), markerOptions,
+      new ArrayList<PolylineOptions>(), new ArrayList<PolygonOptions>());
+    assertEquals(1, markerOptions.size());
+    assertEquals("title", markerOptions.get(0).getTitle());
+  }
+
+  @Test
+  public void testStoresIconsWithEqualPixelsOnce() {
+    byte[] pixels = new byte[2 * 3 * 4];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = (byte) i;
+    }
+    byte[] otherPixels = Arrays.copyOf(pixels, pixels.length);
+    otherPixels[0] = 42;
+
+    // distinct icons and bitmaps, the first two showing the same image
+    List<Annotation> annotations = new ArrayList<>();
+    annotations.add(new MarkerOptions().position(new LatLng(0, 0)).icon(createIcon(pixels)).getMarker());
+    annotations.add(new MarkerOptions().position(new LatLng(1, 1)).icon(createIcon(pixels)).getMarker());
+    annotations.add(new MarkerOptions().position(new LatLng(2, 2)).icon(createIcon(otherPixels)).getMarker());
+    annotations.add(new MarkerOptions().position(new LatLng(3, 3)).getMarker());
+    ByteBuffer bytes = ByteBuffer.wrap(AnnotationSnapshot.save(annotations).toByteArray());
+
+    // magic and version, followed by the icon table
+    bytes.position(8);
+    assertEquals(2, bytes.getInt());
+    for (int icon = 0; icon < 2; icon++) {
+      assertEquals(2, bytes.getInt());
+      assertEquals(3, bytes.getInt());
+      assertEquals(160, bytes.getInt());
+      int byteCount = bytes.getInt();
+      assertEquals(pixels.length, byteCount);
+      byte[] stored = new byte[byteCount];
+      bytes.get(stored);
+      assertEquals(icon == 0 ? pixels[0] : otherPixels[0], stored[0]);
+    }
+
+    // markers refer to the icon table by index, after their packed positions
+    assertEquals(4, bytes.getInt());
+    bytes.position(bytes.position() + 4 * 2 * 8);
+    int[] iconIndices = new int[4];
+    for (int i = 0; i < 4; i++) {
+      iconIndices[i] = bytes.getInt();
+      // no title and snippet
+      assertEquals(-1, bytes.getInt());
+      assertEquals(-1, bytes.getInt());
+    }
+    assertEquals(Arrays.toString(new int[] {0, 0, 1, -1}), Arrays.toString(iconIndices));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsOtherBytes() {
+    AnnotationSnapshot.fromByteArray(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsTruncatedSnapshot() {
+    List<Annotation> annotations = new ArrayList<>();
+    annotations.add(new PolylineOptions().add(new LatLng(0, 0), new LatLng(1, 1)).getPolyline());
+    byte[] bytes = AnnotationSnapshot.save(annotations).toByteArray();
+
+    restore(AnnotationSnapshot.fromByteArray(Arrays.copyOf(bytes, bytes.length - 8)), new ArrayList<MarkerOptions>(),
+      new ArrayList<PolylineOptions>(), new ArrayList<PolygonOptions>());
+  }
+
+  private static Icon createIcon(final byte[] pixels) {
+    Bitmap bitmap = mock(Bitmap.class);
+    when(bitmap.getWidth()).thenReturn(2);
+    when(bitmap.getHeight()).thenReturn(3);
+    when(bitmap.getDensity()).thenReturn(160);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        ((ByteBuffer) invocation.getArgument(0)).put(pixels);
+        return null;
+      }
+    }).when(bitmap).copyPixelsToBuffer(any(ByteBuffer.class));
+    Icon icon = mock(Icon.class);
+    when(icon.getBitmap()).thenReturn(bitmap);
+    return icon;
+  }
+
+  private static void restore(AnnotationSnapshot snapshot, List<MarkerOptions> markerOptions,
+                              List<PolylineOptions> polylineOptions, List<PolygonOptions> polygonOptions) {
+    snapshot.restore(null, markerOptions, polylineOptions, polygonOptions);
+  }
+}
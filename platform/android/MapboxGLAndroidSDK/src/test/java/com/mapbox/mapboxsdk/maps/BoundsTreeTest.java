@@ -0,0 +1,79 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BoundsTreeTest {
+
+  @Test
+  public void testSearchMatchesBruteForce() {
+    Random random = new Random(0);
+    int count = 5000;
+    double[] bounds = new double[count * 4];
+    for (int i = 0; i < count; i++) {
+      double x = random.nextDouble();
+      double y = random.nextDouble();
+      bounds[i * 4] = x;
+      bounds[i * 4 + 1] = y;
+      bounds[i * 4 + 2] = x + random.nextDouble() * 0.05;
+      bounds[i * 4 + 3] = y + random.nextDouble() * 0.05;
+    }
+    BoundsTree tree = new BoundsTree(bounds, count);
+    assertEquals(count, tree.size());
+
+    for (int i = 0; i < 100; i++) {
+      double minX = random.nextDouble();
+      double minY = random.nextDouble();
+      double maxX = minX + random.nextDouble() * 0.02;
+      double maxY = minY + random.nextDouble() * 0.02;
+
+      int[] expected = new int[count];
+      int expectedCount = 0;
+      for (int j = 0; j < count; j++) {
+        if (bounds[j * 4] <= maxX && bounds[j * 4 + 1] <= maxY
+          && bounds[j * 4 + 2] >= minX && bounds[j * 4 + 3] >= minY) {
+          expected[expectedCount++] = j;
+        }
+      }
+
+      KdTree.Result result = new KdTree.Result();
+      tree.search(minX, minY, maxX, maxY, result);
+      assertArrayEquals(Arrays.copyOf(expected, expectedCount), sorted(result));
+    }
+  }
+
+  @Test
+  public void testSingleBox() {
+    BoundsTree tree = new BoundsTree(new double[] {0.1, 0.1, 0.2, 0.2}, 1);
+    KdTree.Result result = new KdTree.Result();
+    tree.search(0.2, 0.2, 0.3, 0.3, result);
+    assertEquals(1, result.size());
+    assertEquals(0, result.get(0));
+
+    result.clear();
+    tree.search(0.25, 0.25, 0.3, 0.3, result);
+    assertEquals(0, result.size());
+  }
+
+  @Test
+  public void testEmpty() {
+    BoundsTree tree = new BoundsTree(new double[0], 0);
+    KdTree.Result result = new KdTree.Result();
+    tree.search(0, 0, 1, 1, result);
+    assertEquals(0, result.size());
+  }
+
+  private static int[] sorted(KdTree.Result result) {
+    int[] indices = new int[result.size()];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = result.get(i);
+    }
+    Arrays.sort(indices);
+    return indices;
+  }
+}
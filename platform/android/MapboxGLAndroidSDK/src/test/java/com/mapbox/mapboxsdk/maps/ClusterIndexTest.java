@@ -0,0 +1,166 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterIndexTest {
+
+  private static final int MAX_ZOOM = 16;
+
+  @Test
+  public void testCountsAddUpOnEveryZoom() {
+    ClusterIndex index = createIndex(new Random(0), 5000, null);
+    ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+    for (int zoom = 0; zoom <= MAX_ZOOM + 1; zoom++) {
+      index.getClusters(-180, -85, 180, 85, zoom, clusters);
+      int count = 0;
+      for (int i = 0; i < clusters.size(); i++) {
+        count += clusters.getCount(i);
+      }
+      assertEquals("points at zoom " + zoom, 5000, count);
+    }
+  }
+
+  @Test
+  public void testClustersShrinkWithZoom() {
+    ClusterIndex index = createIndex(new Random(0), 5000, null);
+    ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+    index.getClusters(-180, -85, 180, 85, 0, clusters);
+    int lowZoomSize = clusters.size();
+    index.getClusters(-180, -85, 180, 85, 10, clusters);
+    assertTrue(lowZoomSize < clusters.size());
+  }
+
+  @Test
+  public void testAllPointsAboveMaxZoom() {
+    ClusterIndex index = createIndex(new Random(0), 1000, null);
+    ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+    index.getClusters(-180, -85, 180, 85, MAX_ZOOM + 3, clusters);
+    assertEquals(1000, clusters.size());
+    Set<Long> ids = new HashSet<>();
+    for (int i = 0; i < clusters.size(); i++) {
+      assertFalse(index.isCluster(clusters.getId(i)));
+      ids.add(clusters.getId(i));
+    }
+    assertEquals(1000, ids.size());
+  }
+
+  @Test
+  public void testCloseTwoPointsCluster() {
+    ClusterIndex index = new ClusterIndex(50, MAX_ZOOM, 2);
+    index.load(new double[] {10, 10.0001}, new double[] {20, 20.0001}, null);
+    ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+    index.getClusters(-180, -85, 180, 85, 5, clusters);
+    assertEquals(1, clusters.size());
+    assertTrue(index.isCluster(clusters.getId(0)));
+    assertEquals(2, clusters.getCount(0));
+    assertEquals(10.00005, clusters.getLatitude(0), 0.0001);
+    assertEquals(20.00005, clusters.getLongitude(0), 0.0001);
+  }
+
+  @Test
+  public void testMinPoints() {
+    ClusterIndex index = new ClusterIndex(50, MAX_ZOOM, 3);
+    index.load(new double[] {10, 10.0001}, new double[] {20, 20.0001}, null);
+    ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+    index.getClusters(-180, -85, 180, 85, 5, clusters);
+    assertEquals(2, clusters.size());
+  }
+
+  @Test
+  public void testExpansionZoomSplitsCluster() {
+    ClusterIndex index = createIndex(new Random(3), 2000, null);
+    ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+    ClusterIndex.Clusters expanded = new ClusterIndex.Clusters();
+    index.getClusters(-180, -85, 180, 85, 2, clusters);
+    for (int i = 0; i < clusters.size(); i++) {
+      long id = clusters.getId(i);
+      if (!index.isCluster(id)) {
+        continue;
+      }
+
+      int expansionZoom = index.getClusterExpansionZoom(id);
+      assertTrue(expansionZoom > 2);
+      // the cluster itself is still shown one zoom level below its expansion zoom
+      index.getClusters(-180, -85, 180, 85, expansionZoom - 1, expanded);
+      assertTrue(contains(expanded, id));
+      index.getClusters(-180, -85, 180, 85, expansionZoom, expanded);
+      assertFalse(contains(expanded, id));
+    }
+  }
+
+  @Test
+  public void testQueryAcrossAntimeridian() {
+    ClusterIndex index = new ClusterIndex(50, MAX_ZOOM, 2);
+    index.load(new double[] {0, 0, 0}, new double[] {-179, 179, 0}, null);
+    ClusterIndex.Clusters clusters = new ClusterIndex.Clusters();
+
+    index.getClusters(170, -10, 190, 10, MAX_ZOOM + 1, clusters);
+    assertEquals(2, clusters.size());
+    index.getClusters(-190, -10, -170, 10, MAX_ZOOM + 1, clusters);
+    assertEquals(2, clusters.size());
+    index.getClusters(-200, -10, 200, 10, MAX_ZOOM + 1, clusters);
+    assertEquals(3, clusters.size());
+  }
+
+  @Test
+  public void testParallelLoadMatchesSequential() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      ClusterIndex sequential = createIndex(new Random(4), 60000, null);
+      ClusterIndex parallel = createIndex(new Random(4), 60000, executor);
+      ClusterIndex.Clusters expected = new ClusterIndex.Clusters();
+      ClusterIndex.Clusters actual = new ClusterIndex.Clusters();
+      for (int zoom = 0; zoom <= MAX_ZOOM + 1; zoom += 4) {
+        sequential.getClusters(-180, -85, 180, 85, zoom, expected);
+        parallel.getClusters(-180, -85, 180, 85, zoom, actual);
+        assertEquals(ids(expected), ids(actual));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxZoomOutOfRange() {
+    new ClusterIndex(50, ClusterIndex.MAX_ZOOM + 1, 2);
+  }
+
+  private static ClusterIndex createIndex(Random random, int count, ExecutorService executor) {
+    double[] latitudes = new double[count];
+    double[] longitudes = new double[count];
+    for (int i = 0; i < count; i++) {
+      latitudes[i] = random.nextDouble() * 160 - 80;
+      longitudes[i] = random.nextDouble() * 360 - 180;
+    }
+    ClusterIndex index = new ClusterIndex(50, MAX_ZOOM, 2);
+    index.load(latitudes, longitudes, executor);
+    return index;
+  }
+
+  private static boolean contains(ClusterIndex.Clusters clusters, long id) {
+    for (int i = 0; i < clusters.size(); i++) {
+      if (clusters.getId(i) == id) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Set<Long> ids(ClusterIndex.Clusters clusters) {
+    Set<Long> ids = new HashSet<>();
+    for (int i = 0; i < clusters.size(); i++) {
+      ids.add(clusters.getId(i));
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,164 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import com.mapbox.mapboxsdk.annotations.InfoWindow;
+import com.mapbox.mapboxsdk.annotations.Marker;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InfoWindowManagerTest {
+
+  private InfoWindowManager infoWindowManager;
+  private MapboxMap mapboxMap;
+  private MapView mapView;
+  private TestInfoWindowAdapter adapter;
+
+  @Before
+  public void beforeTest() {
+    infoWindowManager = new InfoWindowManager();
+    mapboxMap = mock(MapboxMap.class);
+    mapView = mock(MapView.class);
+    adapter = new TestInfoWindowAdapter();
+    infoWindowManager.setInfoWindowAdapter(adapter);
+  }
+
+  @Test
+  public void testReusesViewOfClosedInfoWindow() {
+    Marker first = createMarker();
+    infoWindowManager.open(first, mapboxMap, mapView);
+    View view = adapter.created.get(0);
+    infoWindowManager.close(first);
+
+    infoWindowManager.open(createMarker(), mapboxMap, mapView);
+    assertSame(view, adapter.lastConvertView);
+    assertEquals(1, adapter.created.size());
+    assertEquals(1, infoWindowManager.getViewPoolHitCount());
+  }
+
+  @Test
+  public void testReleasesConvertViewNotReused() {
+    Marker first = createMarker();
+    infoWindowManager.open(first, mapboxMap, mapView);
+    View view = adapter.created.get(0);
+    infoWindowManager.close(first);
+
+    adapter.reuseConvertView = false;
+    infoWindowManager.open(createMarker(), mapboxMap, mapView);
+    assertEquals(2, adapter.created.size());
+
+    adapter.reuseConvertView = true;
+    infoWindowManager.open(createMarker(), mapboxMap, mapView);
+    assertSame(view, adapter.lastConvertView);
+  }
+
+  @Test
+  public void testPoolsViewTypesSeparately() {
+    Marker first = createMarker();
+    infoWindowManager.open(first, mapboxMap, mapView);
+    infoWindowManager.close(first);
+
+    adapter.viewType = 1;
+    infoWindowManager.open(createMarker(), mapboxMap, mapView);
+    assertNull(adapter.lastConvertView);
+  }
+
+  @Test
+  public void testDoesNotPoolViewsOfPreviousAdapter() {
+    Marker first = createMarker();
+    infoWindowManager.open(first, mapboxMap, mapView);
+    TestInfoWindowAdapter nextAdapter = new TestInfoWindowAdapter();
+    infoWindowManager.setInfoWindowAdapter(nextAdapter);
+    infoWindowManager.close(first);
+
+    infoWindowManager.open(createMarker(), mapboxMap, mapView);
+    assertNull(nextAdapter.lastConvertView);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsNegativeViewType() {
+    adapter.viewType = -1;
+    infoWindowManager.open(createMarker(), mapboxMap, mapView);
+  }
+
+  private Marker createMarker() {
+    final Marker marker = mock(Marker.class);
+    when(marker.showInfoWindow(eq(mapboxMap), eq(mapView), any(View.class), anyBoolean())).thenAnswer(
+      new Answer<InfoWindow>() {
+        @Override
+        public InfoWindow answer(InvocationOnMock invocation) throws Throwable {
+          InfoWindow infoWindow = mock(InfoWindow.class);
+          when(infoWindow.getView()).thenReturn((View) invocation.getArgument(2));
+          when(marker.getInfoWindow()).thenReturn(infoWindow);
+          return infoWindow;
+        }
+      });
+    return marker;
+  }
+
+  private static View createView() {
+    // views keep their tags, detached from any parent
+    View view = mock(View.class);
+    final Map<Integer, Object> tags = new HashMap<>();
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        tags.put((Integer) invocation.getArgument(0), invocation.getArgument(1));
+        return null;
+      }
+    }).when(view).setTag(anyInt(), any());
+    when(view.getTag(anyInt())).thenAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        return tags.get((Integer) invocation.getArgument(0));
+      }
+    });
+    return view;
+  }
+
+  private static class TestInfoWindowAdapter extends MapboxMap.RecyclingInfoWindowAdapter {
+
+    private final List<View> created = new ArrayList<>();
+    private View lastConvertView;
+    private int viewType;
+    private boolean reuseConvertView = true;
+
+    @Override
+    public int getViewType(@NonNull Marker marker) {
+      return viewType;
+    }
+
+    @Nullable
+    @Override
+    public View getInfoWindow(@NonNull Marker marker, @Nullable View convertView) {
+      lastConvertView = convertView;
+      if (convertView != null && reuseConvertView) {
+        return convertView;
+      }
+      View view = createView();
+      created.add(view);
+      return view;
+    }
+  }
+}
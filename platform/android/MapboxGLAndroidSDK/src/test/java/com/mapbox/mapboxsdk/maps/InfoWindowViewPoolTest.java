@@ -0,0 +1,66 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.view.View;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class InfoWindowViewPoolTest {
+
+  @Test
+  public void testAcquireFromEmptyPoolIsMiss() {
+    InfoWindowViewPool pool = new InfoWindowViewPool(2);
+    assertNull(pool.acquire(0));
+    assertEquals(0, pool.getHitCount());
+    assertEquals(1, pool.getMissCount());
+  }
+
+  @Test
+  public void testAcquireReleasedViewIsHit() {
+    InfoWindowViewPool pool = new InfoWindowViewPool(2);
+    View view = mock(View.class);
+    assertTrue(pool.release(0, view));
+    assertSame(view, pool.acquire(0));
+    assertNull(pool.acquire(0));
+    assertEquals(1, pool.getHitCount());
+    assertEquals(1, pool.getMissCount());
+  }
+
+  @Test
+  public void testViewTypesArePooledSeparately() {
+    InfoWindowViewPool pool = new InfoWindowViewPool(2);
+    View defaultView = mock(View.class);
+    View customView = mock(View.class);
+    pool.release(-1, defaultView);
+    pool.release(1, customView);
+    assertNull(pool.acquire(0));
+    assertSame(customView, pool.acquire(1));
+    assertSame(defaultView, pool.acquire(-1));
+  }
+
+  @Test
+  public void testPoolIsBounded() {
+    InfoWindowViewPool pool = new InfoWindowViewPool(2);
+    assertTrue(pool.release(0, mock(View.class)));
+    assertTrue(pool.release(0, mock(View.class)));
+    assertFalse(pool.release(0, mock(View.class)));
+  }
+
+  @Test
+  public void testClearKeepsCounts() {
+    InfoWindowViewPool pool = new InfoWindowViewPool(2);
+    pool.release(0, mock(View.class));
+    pool.acquire(0);
+    pool.release(0, mock(View.class));
+    pool.clear();
+    assertNull(pool.acquire(0));
+    assertEquals(1, pool.getHitCount());
+    assertEquals(1, pool.getMissCount());
+  }
+}
@@ -0,0 +1,128 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class KdTreeTest {
+
+  @Test
+  public void testRangeMatchesBruteForce() {
+    Random random = new Random(0);
+    double[] x = randomCoordinates(random, 10000);
+    double[] y = randomCoordinates(random, 10000);
+    KdTree tree = new KdTree(x, y, x.length, null);
+    assertEquals(x.length, tree.size());
+
+    for (int i = 0; i < 50; i++) {
+      double minX = random.nextDouble() * 0.9;
+      double minY = random.nextDouble() * 0.9;
+      double maxX = minX + random.nextDouble() * 0.1;
+      double maxY = minY + random.nextDouble() * 0.1;
+
+      int[] expected = new int[x.length];
+      int count = 0;
+      for (int j = 0; j < x.length; j++) {
+        if (x[j] >= minX && x[j] <= maxX && y[j] >= minY && y[j] <= maxY) {
+          expected[count++] = j;
+        }
+      }
+
+      KdTree.Result result = new KdTree.Result();
+      tree.range(minX, minY, maxX, maxY, result);
+      assertArrayEquals(Arrays.copyOf(expected, count), sorted(result));
+    }
+  }
+
+  @Test
+  public void testWithinMatchesBruteForce() {
+    Random random = new Random(1);
+    double[] x = randomCoordinates(random, 10000);
+    double[] y = randomCoordinates(random, 10000);
+    KdTree tree = new KdTree(x, y, x.length, null);
+
+    for (int i = 0; i < 50; i++) {
+      double queryX = random.nextDouble();
+      double queryY = random.nextDouble();
+      double radius = random.nextDouble() * 0.05;
+
+      int[] expected = new int[x.length];
+      int count = 0;
+      for (int j = 0; j < x.length; j++) {
+        double dx = x[j] - queryX;
+        double dy = y[j] - queryY;
+        if (dx * dx + dy * dy <= radius * radius) {
+          expected[count++] = j;
+        }
+      }
+
+      KdTree.Result result = new KdTree.Result();
+      tree.within(queryX, queryY, radius, result);
+      assertArrayEquals(Arrays.copyOf(expected, count), sorted(result));
+    }
+  }
+
+  @Test
+  public void testDuplicateCoordinates() {
+    double[] x = new double[500];
+    double[] y = new double[500];
+    Arrays.fill(x, 0.5);
+    Arrays.fill(y, 0.25);
+    KdTree tree = new KdTree(x, y, x.length, null);
+
+    KdTree.Result result = new KdTree.Result();
+    tree.within(0.5, 0.25, 0, result);
+    assertEquals(x.length, result.size());
+  }
+
+  @Test
+  public void testEmpty() {
+    KdTree tree = new KdTree(new double[0], new double[0], 0, null);
+    KdTree.Result result = new KdTree.Result();
+    tree.range(0, 0, 1, 1, result);
+    assertEquals(0, result.size());
+  }
+
+  @Test
+  public void testParallelBuildMatchesSequential() {
+    Random random = new Random(2);
+    double[] x = randomCoordinates(random, 50000);
+    double[] y = randomCoordinates(random, 50000);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      KdTree sequential = new KdTree(x, y, x.length, null);
+      KdTree parallel = new KdTree(x, y, x.length, executor);
+
+      KdTree.Result expected = new KdTree.Result();
+      KdTree.Result actual = new KdTree.Result();
+      sequential.range(0.2, 0.3, 0.4, 0.5, expected);
+      parallel.range(0.2, 0.3, 0.4, 0.5, actual);
+      assertArrayEquals(sorted(expected), sorted(actual));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static double[] randomCoordinates(Random random, int count) {
+    double[] coordinates = new double[count];
+    for (int i = 0; i < count; i++) {
+      coordinates[i] = random.nextDouble();
+    }
+    return coordinates;
+  }
+
+  private static int[] sorted(KdTree.Result result) {
+    int[] indices = new int[result.size()];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = result.get(i);
+    }
+    Arrays.sort(indices);
+    return indices;
+  }
+}
@@ -0,0 +1,144 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.v4.util.LongSparseArray;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashMapTest {
+
+  @Test
+  public void testPutAndGet() {
+    LongHashMap<String> map = new LongHashMap<>(1);
+    for (long i = 0; i < 100; i++) {
+      map.put(i, String.valueOf(i));
+    }
+    assertEquals(100, map.size());
+    for (long i = 0; i < 100; i++) {
+      assertEquals(String.valueOf(i), map.get(i));
+    }
+    assertNull(map.get(100));
+  }
+
+  @Test
+  public void testPutReplacesValue() {
+    LongHashMap<String> map = new LongHashMap<>();
+    map.put(7, "a");
+    map.put(7, "b");
+    assertEquals(1, map.size());
+    assertEquals("b", map.get(7));
+  }
+
+  @Test
+  public void testRemove() {
+    LongHashMap<String> map = new LongHashMap<>();
+    for (long i = 0; i < 10; i++) {
+      map.put(i, String.valueOf(i));
+    }
+    map.remove(3);
+    map.remove(42);
+    assertEquals(9, map.size());
+    assertFalse(map.containsKey(3));
+    assertTrue(map.containsKey(4));
+  }
+
+  @Test
+  public void testRemoveAll() {
+    LongHashMap<String> map = new LongHashMap<>();
+    for (long i = 0; i < 10; i++) {
+      map.put(i, String.valueOf(i));
+    }
+    map.removeAll(new long[] {0, 2, 4, 6, 8});
+    assertEquals(5, map.size());
+    for (int i = 0; i < map.size(); i++) {
+      assertEquals(i * 2 + 1, map.keyAt(i));
+    }
+  }
+
+  @Test
+  public void testIterationKeepsInsertionOrder() {
+    LongHashMap<String> map = new LongHashMap<>();
+    map.put(5, "five");
+    map.put(1, "one");
+    map.put(3, "three");
+    map.remove(1);
+    map.put(1, "one");
+    assertEquals(5, map.keyAt(0));
+    assertEquals("three", map.valueAt(1));
+    assertEquals(1, map.keyAt(2));
+    assertEquals(2, map.indexOfKey(1));
+    assertEquals(-1, map.indexOfKey(2));
+  }
+
+  @Test
+  public void testSetValueAt() {
+    LongHashMap<String> map = new LongHashMap<>();
+    map.put(1, "one");
+    map.put(2, "two");
+    map.remove(1);
+    map.setValueAt(map.indexOfKey(2), "deux");
+    assertEquals("deux", map.get(2));
+  }
+
+  @Test
+  public void testClear() {
+    LongHashMap<String> map = new LongHashMap<>();
+    map.put(1, "one");
+    map.put(2, "two");
+    map.clear();
+    assertEquals(0, map.size());
+    assertNull(map.get(1));
+    map.put(2, "two");
+    assertEquals(2, map.keyAt(0));
+  }
+
+  @Test
+  public void testMatchesLongSparseArray() {
+    Random random = new Random(0);
+    LongHashMap<Long> map = new LongHashMap<>();
+    LongSparseArray<Long> reference = new LongSparseArray<>();
+    for (int i = 0; i < 10000; i++) {
+      long key = random.nextInt(512);
+      if (random.nextBoolean()) {
+        map.put(key, key);
+        reference.put(key, key);
+      } else {
+        map.remove(key);
+        reference.remove(key);
+      }
+      assertEquals(reference.size(), map.size());
+      assertEquals(reference.get(key), map.get(key));
+    }
+  }
+
+  @Test
+  public void testIterationAfterRemovals() {
+    LongHashMap<Long> map = new LongHashMap<>();
+    for (long key = 0; key < 1000; key++) {
+      map.put(key, key * 10);
+    }
+    for (long key = 0; key < 1000; key += 2) {
+      map.remove(key);
+    }
+
+    assertEquals(500, map.size());
+    for (int i = 0; i < map.size(); i++) {
+      long key = 2 * i + 1;
+      assertEquals(key, map.keyAt(i));
+      assertEquals(Long.valueOf(key * 10), map.valueAt(i));
+      assertEquals(i, map.indexOfKey(key));
+    }
+
+    map.remove(1);
+    map.setValueAt(0, 42L);
+    assertEquals(3, map.keyAt(0));
+    assertEquals(Long.valueOf(42), map.get(3));
+    assertEquals(-1, map.indexOfKey(1));
+  }
+}
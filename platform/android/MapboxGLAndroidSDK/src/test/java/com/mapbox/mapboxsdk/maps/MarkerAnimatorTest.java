@@ -0,0 +1,126 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarkerAnimatorTest {
+
+  private static final double DELTA = 1e-6;
+
+  private MapboxMap mapboxMap;
+  private MarkerAnimator markerAnimator;
+
+  @Before
+  public void beforeTest() {
+    mapboxMap = mock(MapboxMap.class);
+    markerAnimator = new MarkerAnimator(mapboxMap);
+  }
+
+  @Test
+  public void testInterpolatesPosition() {
+    Marker marker = createMarker(1, new LatLng(0, 0));
+    LatLng end = new LatLng(10, 20);
+    markerAnimator.animate(marker, end, 1000);
+    assertTrue(markerAnimator.isAnimating(marker));
+
+    // the first frame starts the animation
+    markerAnimator.onFrame(millis(100));
+    assertEquals(0, marker.getPosition().getLatitude(), DELTA);
+    assertEquals(0, marker.getPosition().getLongitude(), DELTA);
+
+    markerAnimator.onFrame(millis(600));
+    assertEquals(5, marker.getPosition().getLatitude(), DELTA);
+    assertEquals(10, marker.getPosition().getLongitude(), DELTA);
+
+    markerAnimator.onFrame(millis(1100));
+    assertSame(end, marker.getPosition());
+    assertFalse(markerAnimator.isAnimating(marker));
+  }
+
+  @Test
+  public void testUpdatesPositionInPlace() {
+    Marker marker = createMarker(1, new LatLng(0, 0));
+    markerAnimator.animate(marker, new LatLng(10, 20), 1000);
+    markerAnimator.onFrame(millis(0));
+    LatLng position = marker.getPosition();
+    markerAnimator.onFrame(millis(500));
+    assertSame(position, marker.getPosition());
+  }
+
+  @Test
+  public void testCrossesAntimeridian() {
+    Marker marker = createMarker(1, new LatLng(0, 170));
+    markerAnimator.animate(marker, new LatLng(0, -170), 1000);
+    markerAnimator.onFrame(millis(0));
+    markerAnimator.onFrame(millis(750));
+    assertEquals(-175, marker.getPosition().getLongitude(), DELTA);
+  }
+
+  @Test
+  public void testCancelKeepsPosition() {
+    Marker marker = createMarker(1, new LatLng(0, 0));
+    markerAnimator.animate(marker, new LatLng(10, 20), 1000);
+    markerAnimator.onFrame(millis(0));
+    markerAnimator.onFrame(millis(500));
+    markerAnimator.cancel(marker);
+    assertFalse(markerAnimator.isAnimating(marker));
+
+    markerAnimator.onFrame(millis(1000));
+    assertEquals(5, marker.getPosition().getLatitude(), DELTA);
+    assertEquals(10, marker.getPosition().getLongitude(), DELTA);
+  }
+
+  @Test
+  public void testStopsAnimatingRemovedMarker() {
+    Marker marker = createMarker(1, new LatLng(0, 0));
+    markerAnimator.animate(marker, new LatLng(10, 20), 1000);
+    markerAnimator.onFrame(millis(0));
+    when(mapboxMap.getAnnotation(1)).thenReturn(null);
+
+    markerAnimator.onFrame(millis(500));
+    assertFalse(markerAnimator.isAnimating(marker));
+    assertEquals(0, marker.getPosition().getLatitude(), DELTA);
+  }
+
+  @Test
+  public void testAnimatesMarkersIndependently() {
+    Marker first = createMarker(1, new LatLng(0, 0));
+    Marker second = createMarker(2, new LatLng(0, 0));
+    markerAnimator.animate(first, new LatLng(10, 0), 1000);
+    markerAnimator.animate(second, new LatLng(-10, 0), 1000);
+    markerAnimator.onFrame(millis(0));
+    markerAnimator.onFrame(millis(500));
+    assertEquals(5, first.getPosition().getLatitude(), DELTA);
+    assertEquals(-5, second.getPosition().getLatitude(), DELTA);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsMarkerNotAdded() {
+    Marker marker = new MarkerOptions().position(new LatLng(0, 0)).getMarker();
+    markerAnimator.animate(marker, new LatLng(10, 20), 1000);
+  }
+
+  private Marker createMarker(long id, LatLng position) {
+    Marker marker = new MarkerOptions().position(position).getMarker();
+    marker.setId(id);
+    when(mapboxMap.getAnnotation(id)).thenReturn(marker);
+    return marker;
+  }
+
+  private static long millis(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+}
@@ -0,0 +1,132 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.os.Handler;
+
+import com.mapbox.mapboxsdk.annotations.ClusterOptions;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarkerClustersTest {
+
+  private static final int MAX_ZOOM = 16;
+
+  private MarkerClusters markerClusters;
+  private Projection projection;
+  private int loadedCount;
+
+  @Before
+  public void beforeTest() {
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    };
+    Handler handler = mock(Handler.class);
+    when(handler.post(any(Runnable.class))).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable {
+        ((Runnable) invocation.getArgument(0)).run();
+        return true;
+      }
+    });
+    markerClusters = new MarkerClusters(executor, handler, new Runnable() {
+      @Override
+      public void run() {
+        loadedCount++;
+      }
+    });
+
+    // a viewport showing the whole world, zoomed in beyond the cluster zoom levels
+    projection = mock(Projection.class);
+    when(projection.getZoom()).thenReturn((double) MAX_ZOOM + 1);
+    when(projection.getWidth()).thenReturn(1000f);
+    when(projection.getHeight()).thenReturn(1000f);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        double[] latLngs = invocation.getArgument(1);
+        double[] corners = new double[] {80, -170, 80, 170, -80, 170, -80, -170, 0, 0};
+        System.arraycopy(corners, 0, latLngs, 0, corners.length);
+        return null;
+      }
+    }).when(projection).fromScreenLocations(any(float[].class), any(double[].class));
+  }
+
+  @Test
+  public void testShowsLoadedMarkers() {
+    markerClusters.load(createMarkerOptions(0, 3), createClusterOptions());
+    assertEquals(1, loadedCount);
+
+    List<Marker> added = new ArrayList<>();
+    List<Marker> removed = new ArrayList<>();
+    markerClusters.update(projection, added, removed);
+    assertEquals(3, added.size());
+    assertEquals(0, removed.size());
+  }
+
+  @Test
+  public void testReloadReplacesShownMarkers() {
+    markerClusters.load(createMarkerOptions(0, 3), createClusterOptions());
+    List<Marker> shown = new ArrayList<>();
+    markerClusters.update(projection, shown, new ArrayList<Marker>());
+
+    // the new markers reuse the ids of the previous ones
+    markerClusters.load(createMarkerOptions(10, 2), createClusterOptions());
+    List<Marker> added = new ArrayList<>();
+    List<Marker> removed = new ArrayList<>();
+    markerClusters.update(projection, added, removed);
+
+    assertEquals(3, removed.size());
+    assertTrue(removed.containsAll(shown));
+    assertEquals(2, added.size());
+    Set<Double> longitudes = new HashSet<>();
+    for (Marker marker : added) {
+      longitudes.add(marker.getPosition().getLongitude());
+    }
+    assertTrue(longitudes.contains(10.0));
+    assertTrue(longitudes.contains(11.0));
+  }
+
+  @Test
+  public void testClearRemovesReplacedMarkers() {
+    markerClusters.load(createMarkerOptions(0, 3), createClusterOptions());
+    markerClusters.update(projection, new ArrayList<Marker>(), new ArrayList<Marker>());
+    markerClusters.load(createMarkerOptions(10, 2), createClusterOptions());
+
+    List<Marker> removed = new ArrayList<>();
+    markerClusters.clear(removed);
+    assertEquals(3, removed.size());
+  }
+
+  private static ClusterOptions createClusterOptions() {
+    return new ClusterOptions().maxZoom(MAX_ZOOM);
+  }
+
+  private static List<MarkerOptions> createMarkerOptions(int firstLongitude, int count) {
+    List<MarkerOptions> markerOptions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      markerOptions.add(new MarkerOptions().position(new LatLng(0, firstLongitude + i)));
+    }
+    return markerOptions;
+  }
+}
@@ -0,0 +1,58 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScreenGeometryTest {
+
+  private static final float[] SQUARE = new float[] {0, 0, 100, 0, 100, 100, 0, 100};
+
+  private static final float[] SQUARE_WITH_HOLE = new float[] {
+    0, 0, 100, 0, 100, 100, 0, 100,
+    25, 25, 75, 25, 75, 75, 25, 75
+  };
+
+  @Test
+  public void testSqDistanceToSegment() {
+    assertEquals(25, ScreenGeometry.sqDistanceToSegment(0, 0, 10, 0, 5, 5), 0.0001);
+    // beyond the end points the distance is to the nearest end point
+    assertEquals(25, ScreenGeometry.sqDistanceToSegment(0, 0, 10, 0, 13, 4), 0.0001);
+    assertEquals(4, ScreenGeometry.sqDistanceToSegment(3, 3, 3, 3, 3, 5), 0.0001);
+  }
+
+  @Test
+  public void testIsNearPath() {
+    float[] path = new float[] {0, 0, 100, 0, 100, 100};
+    assertTrue(ScreenGeometry.isNearPath(path, 0, 3, false, 50, 5, 5));
+    assertTrue(ScreenGeometry.isNearPath(path, 0, 3, false, 95, 50, 5));
+    assertFalse(ScreenGeometry.isNearPath(path, 0, 3, false, 50, 6, 5));
+    // the closing segment only counts for closed paths
+    assertFalse(ScreenGeometry.isNearPath(path, 0, 3, false, 50, 50, 1));
+    assertTrue(ScreenGeometry.isNearPath(path, 0, 3, true, 50, 50, 1));
+  }
+
+  @Test
+  public void testIsNearSinglePoint() {
+    float[] path = new float[] {10, 10};
+    assertTrue(ScreenGeometry.isNearPath(path, 0, 1, false, 13, 14, 5));
+    assertFalse(ScreenGeometry.isNearPath(path, 0, 1, false, 14, 14, 5));
+  }
+
+  @Test
+  public void testIsInsidePolygon() {
+    int[] ringEnds = new int[] {4};
+    assertTrue(ScreenGeometry.isInsidePolygon(SQUARE, ringEnds, 1, 50, 50));
+    assertFalse(ScreenGeometry.isInsidePolygon(SQUARE, ringEnds, 1, 150, 50));
+    assertFalse(ScreenGeometry.isInsidePolygon(SQUARE, ringEnds, 1, 50, -1));
+  }
+
+  @Test
+  public void testIsInsidePolygonWithHole() {
+    int[] ringEnds = new int[] {4, 8};
+    assertTrue(ScreenGeometry.isInsidePolygon(SQUARE_WITH_HOLE, ringEnds, 2, 10, 10));
+    assertFalse(ScreenGeometry.isInsidePolygon(SQUARE_WITH_HOLE, ringEnds, 2, 50, 50));
+  }
+}
@@ -0,0 +1,153 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransformProjectionTest {
+
+  private static final float PIXEL_RATIO = 2;
+  private static final double PIXEL_DELTA = 0.01;
+  private static final double LAT_LNG_DELTA = 0.000001;
+
+  @Test
+  public void testCenterProjectsToMiddle() {
+    TransformProjection projection = createProjection(52.37, 4.89, 12.5, 33, 45);
+    float[] screenLocation = new float[2];
+    projection.toScreenLocation(52.37, 4.89, screenLocation, 0);
+    assertEquals(400, screenLocation[0], PIXEL_DELTA);
+    assertEquals(300, screenLocation[1], PIXEL_DELTA);
+  }
+
+  @Test
+  public void testToScreenLocationNorthUp() {
+    // at zoom 0 the world is 512 density independent pixels wide
+    TransformProjection projection = createProjection(0, 0, 0, 0, 0);
+    float[] screenLocation = new float[2];
+    projection.toScreenLocation(0, 90, screenLocation, 0);
+    assertEquals(400 + 128 * PIXEL_RATIO, screenLocation[0], PIXEL_DELTA);
+    assertEquals(300, screenLocation[1], PIXEL_DELTA);
+
+    projection.toScreenLocation(45, 0, screenLocation, 0);
+    assertEquals(400, screenLocation[0], PIXEL_DELTA);
+    assertTrue(screenLocation[1] < 300);
+  }
+
+  @Test
+  public void testToScreenLocationRotated() {
+    TransformProjection projection = createProjection(0, 0, 0, 90, 0);
+    float[] screenLocation = new float[2];
+    projection.toScreenLocation(0, 90, screenLocation, 0);
+    // east is up when facing east
+    assertEquals(400, screenLocation[0], PIXEL_DELTA);
+    assertEquals(300 - 128 * PIXEL_RATIO, screenLocation[1], PIXEL_DELTA);
+  }
+
+  @Test
+  public void testToScreenLocationTilted() {
+    TransformProjection flat = createProjection(0, 0, 4, 0, 0);
+    TransformProjection tilted = createProjection(0, 0, 4, 0, 60);
+    float[] flatLocation = new float[2];
+    float[] tiltedLocation = new float[2];
+
+    // locations away from the camera move closer to the center
+    flat.toScreenLocation(5, 5, flatLocation, 0);
+    tilted.toScreenLocation(5, 5, tiltedLocation, 0);
+    assertTrue(300 - tiltedLocation[1] < 300 - flatLocation[1]);
+    assertTrue(tiltedLocation[0] - 400 < flatLocation[0] - 400);
+  }
+
+  @Test
+  public void testToScreenLocationAcrossAntimeridian() {
+    TransformProjection projection = createProjection(0, 179, 4, 0, 0);
+    float[] screenLocation = new float[2];
+    projection.toScreenLocation(0, -179, screenLocation, 0);
+    // two degrees east of the center rather than 358 degrees west
+    assertEquals(400 + 2 * 512 * 16 / 360.0 * PIXEL_RATIO, screenLocation[0], PIXEL_DELTA);
+  }
+
+  @Test
+  public void testRoundTrip() {
+    Random random = new Random(0);
+    float[] screenLocation = new float[2];
+    double[] latLng = new double[2];
+    for (int i = 0; i < 1000; i++) {
+      // stay clear of the poles, screen locations beyond the edge of the world can't be unprojected
+      TransformProjection projection = createProjection(random.nextDouble() * 120 - 60,
+        random.nextDouble() * 360 - 180, 3 + random.nextDouble() * 17, random.nextDouble() * 360 - 180,
+        random.nextDouble() * 60);
+      float x = random.nextFloat() * 800;
+      float y = random.nextFloat() * 600;
+      projection.fromScreenLocation(x, y, latLng, 0);
+      projection.toScreenLocation(latLng[0], latLng[1], screenLocation, 0);
+      assertEquals(x, screenLocation[0], 0.05);
+      assertEquals(y, screenLocation[1], 0.05);
+    }
+  }
+
+  @Test
+  public void testFromScreenLocationWrapsLongitude() {
+    TransformProjection projection = createProjection(0, 540, 0, 0, 0);
+    double[] latLng = new double[2];
+    projection.fromScreenLocation(400, 300, latLng, 0);
+    assertEquals(0, latLng[0], LAT_LNG_DELTA);
+    assertEquals(180, Math.abs(latLng[1]), LAT_LNG_DELTA);
+  }
+
+  @Test
+  public void testPackedMatchesSingle() {
+    TransformProjection projection = createProjection(40.7, -74, 10, 20, 30);
+    double[] latLngs = new double[] {40.7, -74, 40.75, -73.95, 40.65, -74.1};
+    float[] screenLocations = new float[latLngs.length];
+    float[] screenLocation = new float[2];
+    projection.toScreenLocations(latLngs, screenLocations);
+    for (int i = 0; i < latLngs.length; i += 2) {
+      projection.toScreenLocation(latLngs[i], latLngs[i + 1], screenLocation, 0);
+      assertEquals(screenLocation[0], screenLocations[i], 0);
+      assertEquals(screenLocation[1], screenLocations[i + 1], 0);
+    }
+
+    double[] unprojected = new double[latLngs.length];
+    projection.fromScreenLocations(screenLocations, unprojected);
+    for (int i = 0; i < latLngs.length; i++) {
+      assertEquals(latLngs[i], unprojected[i], 0.0001);
+    }
+  }
+
+  @Test
+  public void testEmptySize() {
+    TransformProjection projection = new TransformProjection(PIXEL_RATIO);
+    float[] screenLocation = new float[] {1, 1};
+    projection.toScreenLocation(10, 10, screenLocation, 0);
+    assertEquals(0, screenLocation[0], 0);
+    assertEquals(0, screenLocation[1], 0);
+  }
+
+  @Test
+  public void testMetersPerPixelAtLatitude() {
+    TransformProjection projection = createProjection(0, 0, 0, 0, 0);
+    // circumference of the earth spread over 512 density independent pixels
+    assertEquals(2 * Math.PI * 6378137 / 512 / PIXEL_RATIO, projection.getMetersPerPixelAtLatitude(0), 0.001);
+    assertEquals(projection.getMetersPerPixelAtLatitude(0) / 2, projection.getMetersPerPixelAtLatitude(60), 0.001);
+  }
+
+  private static TransformProjection createProjection(double latitude, double longitude, double zoom,
+                                                      double bearing, double pitch) {
+    double[] state = new double[TransformProjection.STATE_SIZE];
+    state[TransformProjection.STATE_LATITUDE] = latitude;
+    state[TransformProjection.STATE_LONGITUDE] = longitude;
+    state[TransformProjection.STATE_ZOOM] = zoom;
+    state[TransformProjection.STATE_BEARING] = bearing;
+    state[TransformProjection.STATE_PITCH] = pitch;
+    // a 800 by 600 pixel map
+    state[TransformProjection.STATE_WIDTH] = 800 / PIXEL_RATIO;
+    state[TransformProjection.STATE_HEIGHT] = 600 / PIXEL_RATIO;
+
+    TransformProjection projection = new TransformProjection(PIXEL_RATIO);
+    projection.setTransformState(state);
+    return projection;
+  }
+}
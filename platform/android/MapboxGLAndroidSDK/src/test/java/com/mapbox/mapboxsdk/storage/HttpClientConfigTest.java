@@ -0,0 +1,52 @@
+package com.mapbox.mapboxsdk.storage;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HttpClientConfigTest {
+
+  @Test
+  public void testDefaults() {
+    HttpClientConfig config = new HttpClientConfig.Builder().build();
+    assertEquals(64, config.getMaxRequests());
+    assertEquals(20, config.getMaxRequestsPerHost());
+    assertEquals(10, config.getMaxIdleConnections());
+    assertEquals(TimeUnit.MINUTES.toMillis(5), config.getKeepAliveMillis());
+    assertEquals(TimeUnit.SECONDS.toMillis(10), config.getConnectTimeoutMillis());
+    assertTrue(config.isHttp2Enabled());
+  }
+
+  @Test
+  public void testBuilderCopiesConfig() {
+    HttpClientConfig config = new HttpClientConfig.Builder()
+      .maxRequests(32)
+      .maxRequestsPerHost(8)
+      .connectionPool(4, 30, TimeUnit.SECONDS)
+      .readTimeout(15, TimeUnit.SECONDS)
+      .http2Enabled(false)
+      .build();
+    HttpClientConfig copy = new HttpClientConfig.Builder(config).writeTimeout(0, TimeUnit.SECONDS).build();
+    assertEquals(32, copy.getMaxRequests());
+    assertEquals(8, copy.getMaxRequestsPerHost());
+    assertEquals(4, copy.getMaxIdleConnections());
+    assertEquals(30000, copy.getKeepAliveMillis());
+    assertEquals(15000, copy.getReadTimeoutMillis());
+    assertEquals(0, copy.getWriteTimeoutMillis());
+    assertFalse(copy.isHttp2Enabled());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsZeroRequestsPerHost() {
+    new HttpClientConfig.Builder().maxRequestsPerHost(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsNegativeTimeout() {
+    new HttpClientConfig.Builder().connectTimeout(-1, TimeUnit.SECONDS);
+  }
+}
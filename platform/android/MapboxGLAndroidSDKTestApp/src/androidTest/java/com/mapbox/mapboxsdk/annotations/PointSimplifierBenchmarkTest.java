@@ -0,0 +1,56 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import timber.log.Timber;
+
+/**
+ * Measures the simplification of polylines and polygons by {@link PointSimplifier}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PointSimplifierBenchmarkTest {
+
+  /**
+   * Shows the amount of points, and the memory they take, that are handed to the map for a large route per
+   * simplification zoom level. Run manually to log the results.
+   */
+  @Test
+  @Ignore
+  public void benchmarkSimplification() {
+    int count = 500000;
+    double[] coordinates = createTrack(count);
+
+    long start = System.nanoTime();
+    double[] importance = PointSimplifier.computeImportance(coordinates, count);
+    Timber.i("Importance of %d points computed in %d ms", count, (System.nanoTime() - start) / 1000000);
+
+    double[] out = new double[count * 2];
+    for (int zoom = 0; zoom <= 22; zoom += 2) {
+      start = System.nanoTime();
+      int selected = PointSimplifier.select(coordinates, count, importance, PointSimplifier.getSqTolerance(zoom), out);
+      Timber.i("zoom %2d: %7d points, %6d KB instead of %d KB, selected in %d ms", zoom, selected,
+        selected * 16 / 1024, count * 16 / 1024, (System.nanoTime() - start) / 1000000);
+    }
+  }
+
+  private static double[] createTrack(int count) {
+    // random walk resembling a recorded route
+    Random random = new Random(0);
+    double[] coordinates = new double[count * 2];
+    double latitude = 52.0;
+    double longitude = 4.0;
+    for (int i = 0; i < count; i++) {
+      latitude += (random.nextDouble() - 0.45) * 0.0001;
+      longitude += (random.nextDouble() - 0.45) * 0.0001;
+      coordinates[i * 2] = latitude;
+      coordinates[i * 2 + 1] = longitude;
+    }
+    return coordinates;
+  }
+}
@@ -0,0 +1,66 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.IconFactory;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.PolygonOptions;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Saves and restores marker icons of {@link AnnotationSnapshot} with real bitmaps.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnnotationSnapshotIconTest {
+
+  @Test
+  public void testRoundTripsIconsWithEqualPixels() {
+    IconFactory iconFactory = IconFactory.getInstance(InstrumentationRegistry.getTargetContext());
+    Bitmap first = createBitmap(Color.RED);
+    Bitmap second = createBitmap(Color.RED);
+    Bitmap other = createBitmap(Color.BLUE);
+
+    List<Annotation> annotations = new ArrayList<>();
+    annotations.add(new MarkerOptions().position(new LatLng(0, 0)).icon(iconFactory.fromBitmap(first)).getMarker());
+    annotations.add(new MarkerOptions().position(new LatLng(1, 1)).icon(iconFactory.fromBitmap(second)).getMarker());
+    annotations.add(new MarkerOptions().position(new LatLng(2, 2)).icon(iconFactory.fromBitmap(other)).getMarker());
+    annotations.add(new MarkerOptions().position(new LatLng(3, 3)).getMarker());
+    byte[] bytes = AnnotationSnapshot.save(annotations).toByteArray();
+
+    // the icon table follows the magic and version
+    assertEquals(2, ByteBuffer.wrap(bytes).getInt(8));
+
+    List<MarkerOptions> markerOptions = new ArrayList<>();
+    AnnotationSnapshot.fromByteArray(bytes).restore(iconFactory, markerOptions, new ArrayList<PolylineOptions>(),
+      new ArrayList<PolygonOptions>());
+    assertEquals(4, markerOptions.size());
+    assertEquals(new LatLng(1, 1), markerOptions.get(1).getPosition());
+    assertTrue(markerOptions.get(0).getIcon().getBitmap().sameAs(first));
+    assertTrue(markerOptions.get(1).getIcon().getBitmap().sameAs(second));
+    assertTrue(markerOptions.get(2).getIcon().getBitmap().sameAs(other));
+    assertEquals(first.getDensity(), markerOptions.get(0).getIcon().getBitmap().getDensity());
+    assertNull(markerOptions.get(3).getIcon());
+  }
+
+  private static Bitmap createBitmap(int color) {
+    Bitmap bitmap = Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888);
+    bitmap.eraseColor(color);
+    return bitmap;
+  }
+}
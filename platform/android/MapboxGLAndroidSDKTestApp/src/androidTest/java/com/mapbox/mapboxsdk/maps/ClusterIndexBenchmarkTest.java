@@ -0,0 +1,57 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import timber.log.Timber;
+
+/**
+ * Measures building the cluster hierarchy of {@link ClusterIndex}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ClusterIndexBenchmarkTest {
+
+  private static final int MAX_ZOOM = 16;
+
+  /**
+   * Measures the time to cluster 100k points sequentially and in parallel, run manually to log the timings.
+   */
+  @Test
+  @Ignore
+  public void benchmarkLoad() {
+    ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    try {
+      for (int run = 0; run < 5; run++) {
+        long start = System.nanoTime();
+        createIndex(new Random(run), 100000, null);
+        long sequentialTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        createIndex(new Random(run), 100000, executor);
+        long parallelTime = System.nanoTime() - start;
+
+        Timber.i("100000 points, sequential: %d ms, parallel: %d ms", sequentialTime / 1000000,
+          parallelTime / 1000000);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void createIndex(Random random, int count, ExecutorService executor) {
+    double[] latitudes = new double[count];
+    double[] longitudes = new double[count];
+    for (int i = 0; i < count; i++) {
+      latitudes[i] = random.nextDouble() * 160 - 80;
+      longitudes[i] = random.nextDouble() * 360 - 180;
+    }
+    new ClusterIndex(50, MAX_ZOOM, 2).load(latitudes, longitudes, executor);
+  }
+}
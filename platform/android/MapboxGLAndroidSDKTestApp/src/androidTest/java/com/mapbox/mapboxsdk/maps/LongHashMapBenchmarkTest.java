@@ -0,0 +1,77 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v4.util.LongSparseArray;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import timber.log.Timber;
+
+/**
+ * Compares the annotation registry {@link LongHashMap} with the {@link LongSparseArray} it replaced.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LongHashMapBenchmarkTest {
+
+  /**
+   * Adds, looks up, removes and iterates annotation ids, run manually to log the timings.
+   */
+  @Test
+  @Ignore
+  public void benchmarkAgainstLongSparseArray() {
+    final int count = 100000;
+    long[] ids = new long[count];
+    Random random = new Random(0);
+    for (int i = 0; i < count; i++) {
+      ids[i] = i;
+    }
+    // annotation ids are mostly sequential, shuffle them to model removals and re-adds
+    for (int i = count - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      long id = ids[i];
+      ids[i] = ids[j];
+      ids[j] = id;
+    }
+
+    for (int run = 0; run < 5; run++) {
+      long start = System.nanoTime();
+      LongSparseArray<Long> sparseArray = new LongSparseArray<>();
+      for (long id : ids) {
+        sparseArray.put(id, id);
+      }
+      for (long id : ids) {
+        sparseArray.get(id);
+      }
+      for (int i = 0; i < count; i += 2) {
+        sparseArray.remove(ids[i]);
+      }
+      for (int i = 0; i < sparseArray.size(); i++) {
+        sparseArray.valueAt(i);
+      }
+      long sparseArrayTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      LongHashMap<Long> hashMap = new LongHashMap<>();
+      for (long id : ids) {
+        hashMap.put(id, id);
+      }
+      for (long id : ids) {
+        hashMap.get(id);
+      }
+      for (int i = 0; i < count; i += 2) {
+        hashMap.remove(ids[i]);
+      }
+      for (int i = 0; i < hashMap.size(); i++) {
+        hashMap.valueAt(i);
+      }
+      long hashMapTime = System.nanoTime() - start;
+
+      Timber.i("%d ids, LongSparseArray: %d ms, LongHashMap: %d ms", count, sparseArrayTime / 1000000,
+        hashMapTime / 1000000);
+    }
+  }
+}
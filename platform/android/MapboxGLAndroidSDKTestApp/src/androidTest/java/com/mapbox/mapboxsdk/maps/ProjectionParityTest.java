@@ -0,0 +1,153 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.PointF;
+import android.support.test.espresso.UiController;
+
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.testapp.action.MapboxMapAction;
+import com.mapbox.mapboxsdk.testapp.activity.BaseActivityTest;
+import com.mapbox.mapboxsdk.testapp.activity.espresso.EspressoTestActivity;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+import timber.log.Timber;
+
+import static com.mapbox.mapboxsdk.testapp.action.MapboxMapAction.invoke;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the Java projection of {@link Projection} with the projection of the native map.
+ */
+public class ProjectionParityTest extends BaseActivityTest {
+
+  private static final double PIXEL_DELTA = 0.5;
+  private static final double LAT_LNG_DELTA = 0.0001;
+
+  private static final CameraPosition[] CAMERA_POSITIONS = new CameraPosition[] {
+    new CameraPosition.Builder().target(new LatLng()).zoom(1).bearing(0).tilt(0).build(),
+    new CameraPosition.Builder().target(new LatLng(52.37, 4.89)).zoom(12).bearing(33).tilt(0).build(),
+    new CameraPosition.Builder().target(new LatLng(40.71, -74.01)).zoom(15.5).bearing(-120).tilt(45).build(),
+    new CameraPosition.Builder().target(new LatLng(-33.87, 151.21)).zoom(8).bearing(270).tilt(60).build(),
+    new CameraPosition.Builder().target(new LatLng(0, 179.9)).zoom(4).bearing(10).tilt(20).build()
+  };
+
+  @Override
+  protected Class getActivityClass() {
+    return EspressoTestActivity.class;
+  }
+
+  @Test
+  public void testToScreenLocation() {
+    validateTestSetup();
+    invoke(mapboxMap, new MapboxMapAction.OnInvokeActionListener() {
+      @Override
+      public void onInvokeAction(UiController uiController, MapboxMap mapboxMap) {
+        Projection projection = mapboxMap.getProjection();
+        NativeMapView nativeMapView = mapboxMap.getNativeMapView();
+        Random random = new Random(0);
+        for (CameraPosition cameraPosition : CAMERA_POSITIONS) {
+          mapboxMap.moveCamera(CameraUpdateFactory.newCameraPosition(cameraPosition));
+          for (int i = 0; i < 100; i++) {
+            LatLng latLng = new LatLng(cameraPosition.target.getLatitude() + random.nextDouble() - 0.5,
+              cameraPosition.target.getLongitude() + random.nextDouble() - 0.5);
+            PointF expected = nativeMapView.pixelForLatLng(latLng);
+            PointF actual = projection.toScreenLocation(latLng);
+            assertEquals("x should match native for " + latLng, expected.x, actual.x, PIXEL_DELTA);
+            assertEquals("y should match native for " + latLng, expected.y, actual.y, PIXEL_DELTA);
+          }
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testFromScreenLocation() {
+    validateTestSetup();
+    invoke(mapboxMap, new MapboxMapAction.OnInvokeActionListener() {
+      @Override
+      public void onInvokeAction(UiController uiController, MapboxMap mapboxMap) {
+        Projection projection = mapboxMap.getProjection();
+        NativeMapView nativeMapView = mapboxMap.getNativeMapView();
+        Random random = new Random(0);
+        for (CameraPosition cameraPosition : CAMERA_POSITIONS) {
+          mapboxMap.moveCamera(CameraUpdateFactory.newCameraPosition(cameraPosition));
+          for (int i = 0; i < 100; i++) {
+            PointF point = new PointF(random.nextFloat() * projection.getWidth(),
+              random.nextFloat() * projection.getHeight());
+            LatLng expected = nativeMapView.latLngForPixel(point);
+            LatLng actual = projection.fromScreenLocation(point);
+            assertEquals("latitude should match native for " + point,
+              expected.getLatitude(), actual.getLatitude(), LAT_LNG_DELTA);
+            assertEquals("longitude should match native for " + point,
+              expected.getLongitude(), actual.getLongitude(), LAT_LNG_DELTA);
+          }
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testMetersPerPixelAtLatitude() {
+    validateTestSetup();
+    invoke(mapboxMap, new MapboxMapAction.OnInvokeActionListener() {
+      @Override
+      public void onInvokeAction(UiController uiController, MapboxMap mapboxMap) {
+        Projection projection = mapboxMap.getProjection();
+        NativeMapView nativeMapView = mapboxMap.getNativeMapView();
+        for (CameraPosition cameraPosition : CAMERA_POSITIONS) {
+          mapboxMap.moveCamera(CameraUpdateFactory.newCameraPosition(cameraPosition));
+          for (double latitude = -80; latitude <= 80; latitude += 10) {
+            double expected = nativeMapView.getMetersPerPixelAtLatitude(latitude);
+            assertEquals("meters per pixel should match native at " + latitude,
+              expected, projection.getMetersPerPixelAtLatitude(latitude), expected * 0.0001);
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Compares the time spent projecting through JNI and in Java, run manually to log the timings.
+   */
+  @Test
+  @Ignore
+  public void benchmarkToScreenLocations() {
+    validateTestSetup();
+    invoke(mapboxMap, new MapboxMapAction.OnInvokeActionListener() {
+      @Override
+      public void onInvokeAction(UiController uiController, MapboxMap mapboxMap) {
+        Projection projection = mapboxMap.getProjection();
+        NativeMapView nativeMapView = mapboxMap.getNativeMapView();
+        mapboxMap.moveCamera(CameraUpdateFactory.newCameraPosition(CAMERA_POSITIONS[2]));
+
+        final int count = 1000;
+        Random random = new Random(0);
+        LatLng[] latLngs = new LatLng[count];
+        for (int i = 0; i < count; i++) {
+          latLngs[i] = new LatLng(40.71 + random.nextDouble() * 0.01, -74.01 + random.nextDouble() * 0.01);
+        }
+
+        for (int run = 0; run < 5; run++) {
+          long start = System.nanoTime();
+          for (LatLng latLng : latLngs) {
+            nativeMapView.pixelForLatLng(latLng);
+          }
+          long nativeTime = System.nanoTime() - start;
+
+          start = System.nanoTime();
+          for (LatLng latLng : latLngs) {
+            projection.toScreenLocation(latLng);
+          }
+          long javaTime = System.nanoTime() - start;
+
+          Timber.i("%d points, native: %d us, java: %d us", count, nativeTime / 1000, javaTime / 1000);
+        }
+      }
+    });
+  }
+}
@@ -73,10 +73,27 @@ void AndroidRendererFrontend::setObserver(RendererObserver& observer) {
 }
 
 void AndroidRendererFrontend::update(std::shared_ptr<UpdateParameters> params) {
+    if (updateBatchDepth > 0) {
+        // Only the latest parameters are relevant, they are sent when the batch ends
+        pendingUpdate = std::move(params);
+        return;
+    }
+
     mapRenderer.update(std::move(params));
     mapRenderer.requestRender();
 }
 
+void AndroidRendererFrontend::beginUpdateBatch() {
+    updateBatchDepth++;
+}
+
+void AndroidRendererFrontend::endUpdateBatch() {
+    assert(updateBatchDepth > 0);
+    if (--updateBatchDepth == 0 && pendingUpdate) {
+        update(std::move(pendingUpdate));
+    }
+}
+
 void AndroidRendererFrontend::onLowMemory() {
     mapRenderer.actor().invoke(&Renderer::onLowMemory);
 }
@@ -41,9 +41,32 @@ public:
     // Memory
     void onLowMemory();
 
+    // Batching
+    void beginUpdateBatch();
+    void endUpdateBatch();
+
 private:
     MapRenderer& mapRenderer;
     util::RunLoop* mapRunLoop;
+
+    std::size_t updateBatchDepth = 0;
+    std::shared_ptr<UpdateParameters> pendingUpdate;
+};
+
+// Coalesces the updates issued during its lifetime, eg. while adding or
+// removing many annotations, into a single update and render request
+class UpdateBatch {
+public:
+    UpdateBatch(AndroidRendererFrontend& frontend_) : frontend(frontend_) {
+        frontend.beginUpdateBatch();
+    }
+
+    ~UpdateBatch() {
+        frontend.endUpdateBatch();
+    }
+
+private:
+    AndroidRendererFrontend& frontend;
 };
 
 } // namespace android
@@ -6,6 +6,8 @@
 #include "../geometry/lat_lng.hpp"
 #include "../java/util.hpp"
 
+#include <vector>
+
 namespace mbgl {
 namespace android {
 
@@ -36,6 +38,24 @@ protected:
       jni::DeleteLocalRef(env, jarray);
       return geometry;
   }
+
+  template <class Geometry>
+  static Geometry toGeometry(JNIEnv& env, jni::Array<jni::jdouble> coordinates, std::size_t count) {
+      NullCheck(env, &coordinates);
+
+      // Coordinates are packed as latitude and longitude pairs, copy them in a single call
+      std::vector<jni::jdouble> values(count * 2);
+      jni::GetArrayRegion(env, *coordinates, 0, count * 2, values.data());
+
+      Geometry geometry;
+      geometry.reserve(count);
+
+      for (std::size_t i = 0; i < count; i++) {
+          geometry.emplace_back(values[i * 2 + 1], values[i * 2]);
+      }
+
+      return geometry;
+  }
 };
 
 } // namespace android
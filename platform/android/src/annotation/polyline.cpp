@@ -8,21 +8,27 @@ namespace android {
 jni::Class<Polyline> Polyline::javaClass;
 
 mbgl::LineAnnotation Polyline::toAnnotation(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
-    auto points = Polyline::getPoints(env, polyline);
+    auto coordinates = Polyline::getCoordinates(env, polyline);
+    auto count = Polyline::getPointCount(env, polyline);
 
-    mbgl::LineAnnotation annotation { MultiPoint::toGeometry<mbgl::LineString<double>>(env, points) };
+    mbgl::LineAnnotation annotation { MultiPoint::toGeometry<mbgl::LineString<double>>(env, coordinates, count) };
     annotation.opacity = { Polyline::getOpacity(env, polyline) };
     annotation.color = { Polyline::getColor(env, polyline) };
     annotation.width = { Polyline::getWidth(env, polyline) };
 
-    jni::DeleteLocalRef(env, points);
+    jni::DeleteLocalRef(env, coordinates);
 
     return annotation;
 }
 
-jni::Object<java::util::List> Polyline::getPoints(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
-    static auto field = Polyline::javaClass.GetField<jni::Object<java::util::List>>(env, "points");
-    return polyline.Get(env, field);
+jni::Array<jni::jdouble> Polyline::getCoordinates(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
+    static auto method = Polyline::javaClass.GetMethod<jni::Array<jni::jdouble> ()>(env, "getRenderCoordinates");
+    return polyline.Call(env, method);
+}
+
+std::size_t Polyline::getPointCount(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
+    static auto method = Polyline::javaClass.GetMethod<jni::jint ()>(env, "getRenderPointCount");
+    return polyline.Call(env, method);
 }
 
 float Polyline::getOpacity(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
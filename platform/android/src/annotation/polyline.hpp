@@ -26,7 +26,9 @@ public:
 
 private:
 
-    static jni::Object<java::util::List> getPoints(jni::JNIEnv&, jni::Object<Polyline>);
+    static jni::Array<jni::jdouble> getCoordinates(jni::JNIEnv&, jni::Object<Polyline>);
+
+    static std::size_t getPointCount(jni::JNIEnv&, jni::Object<Polyline>);
 
     static float getOpacity(jni::JNIEnv&, jni::Object<Polyline>);
 
@@ -109,7 +109,8 @@ PremultipliedImage Bitmap::GetImage(jni::JNIEnv& env, jni::Object<Bitmap> bitmap
         throw std::runtime_error("bitmap decoding: couldn't get bitmap info");
     }
 
-    if (info.format != ANDROID_BITMAP_FORMAT_RGBA_8888) {
+    if (info.format != ANDROID_BITMAP_FORMAT_RGBA_8888 && info.format != ANDROID_BITMAP_FORMAT_RGB_565 &&
+        info.format != ANDROID_BITMAP_FORMAT_A_8) {
         // TODO: convert
         throw std::runtime_error("bitmap decoding: bitmap format invalid");
     }
@@ -121,8 +122,29 @@ PremultipliedImage Bitmap::GetImage(jni::JNIEnv& env, jni::Object<Bitmap> bitmap
         std::make_unique<uint8_t[]>(info.width * info.height * PremultipliedImage::channels);
     for (uint32_t y = 0; y < info.height; y++) {
         auto begin = guard.get() + y * info.stride;
-        std::copy(begin, begin + info.width * PremultipliedImage::channels,
-                  pixels.get() + y * info.width * PremultipliedImage::channels);
+        auto row = pixels.get() + y * info.width * PremultipliedImage::channels;
+        if (info.format == ANDROID_BITMAP_FORMAT_RGBA_8888) {
+            std::copy(begin, begin + info.width * PremultipliedImage::channels, row);
+        } else if (info.format == ANDROID_BITMAP_FORMAT_RGB_565) {
+            // Expand the 5 and 6 bit channels to 8 bits, the bitmap is opaque.
+            const auto* source = reinterpret_cast<const uint16_t*>(begin);
+            for (uint32_t x = 0; x < info.width; x++, row += PremultipliedImage::channels) {
+                const uint16_t pixel = source[x];
+                const uint8_t r = (pixel >> 11) & 0x1F;
+                const uint8_t g = (pixel >> 5) & 0x3F;
+                const uint8_t b = pixel & 0x1F;
+                row[0] = (r << 3) | (r >> 2);
+                row[1] = (g << 2) | (g >> 4);
+                row[2] = (b << 3) | (b >> 2);
+                row[3] = 0xFF;
+            }
+        } else {
+            // Alpha only bitmaps are black once premultiplied.
+            for (uint32_t x = 0; x < info.width; x++, row += PremultipliedImage::channels) {
+                row[0] = row[1] = row[2] = 0;
+                row[3] = begin[x];
+            }
+        }
     }
 
     return { Size{ info.width, info.height }, std::move(pixels) };
@@ -18,6 +18,8 @@ public:
     android::UniqueEnv env { android::AttachEnv() };
 };
 
+struct ByteBufferTag { static constexpr auto Name() { return "java/nio/ByteBuffer"; } };
+
 class HTTPRequest : public AsyncRequest {
 public:
     static constexpr auto Name() { return "com/mapbox/mapboxsdk/http/HTTPRequest"; };
@@ -30,7 +32,7 @@ public:
                     jni::String etag, jni::String modified,
                     jni::String cacheControl, jni::String expires,
                     jni::String retryAfter, jni::String xRateLimitReset,
-                    jni::Array<jni::jbyte> body);
+                    jni::Object<ByteBufferTag> body, jni::jint bodyLength);
 
     static jni::Class<HTTPRequest> javaClass;
     jni::UniqueObject<HTTPRequest> javaRequest;
@@ -83,13 +85,19 @@ HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource_, FileSource
     jni::UniqueLocalFrame frame = jni::PushLocalFrame(env, 10);
 
     static auto constructor =
-        javaClass.GetConstructor<jni::jlong, jni::String, jni::String, jni::String>(env);
+        javaClass.GetConstructor<jni::jlong, jni::String, jni::String, jni::String,
+                                 jni::jint, jni::jint, jni::jint, jni::jint>(env);
 
+    // The kind and tile coordinates are used to prioritize the request.
     javaRequest = javaClass.New(env, constructor,
         reinterpret_cast<jlong>(this),
         jni::Make<jni::String>(env, resource.url),
         jni::Make<jni::String>(env, etagStr),
-        jni::Make<jni::String>(env, modifiedStr)).NewGlobalRef(env);
+        jni::Make<jni::String>(env, modifiedStr),
+        jni::jint(resource.kind),
+        jni::jint(resource.tileData ? resource.tileData->x : 0),
+        jni::jint(resource.tileData ? resource.tileData->y : 0),
+        jni::jint(resource.tileData ? resource.tileData->z : 0)).NewGlobalRef(env);
 }
 
 HTTPRequest::~HTTPRequest() {
@@ -104,7 +112,7 @@ void HTTPRequest::onResponse(jni::JNIEnv& env, int code,
                              jni::String etag, jni::String modified,
                              jni::String cacheControl, jni::String expires,
                              jni::String jRetryAfter, jni::String jXRateLimitReset,
-                             jni::Array<jni::jbyte> body) {
+                             jni::Object<ByteBufferTag> body, jni::jint bodyLength) {
 
     using Error = Response::Error;
 
@@ -127,10 +135,11 @@ void HTTPRequest::onResponse(jni::JNIEnv& env, int code,
     }
 
     if (code == 200) {
-        if (body) {
-            auto data = std::make_shared<std::string>(body.Length(env), char());
-            jni::GetArrayRegion(env, *body, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
-            response.data = data;
+        // The body is a direct buffer, only valid during this call.
+        const auto bodyData = body ? reinterpret_cast<const char*>(env.GetDirectBufferAddress(jni::Unwrap(*body)))
+                                   : nullptr;
+        if (bodyData) {
+            response.data = std::make_shared<std::string>(bodyData, bodyLength);
         } else {
             response.data = std::make_shared<std::string>();
         }
@@ -172,7 +172,6 @@ void registerNatives(JavaVM *vm) {
 
     // Map
     CameraPosition::registerNative(env);
-    Image::registerNative(env);
 
     // Connectivity
     ConnectivityListener::registerNative(env);
@@ -49,7 +49,6 @@
 #include "java/util.hpp"
 #include "geometry/lat_lng_bounds.hpp"
 #include "map/camera_position.hpp"
-#include  "map/image.hpp"
 #include "style/light.hpp"
 #include "bitmap_factory.hpp"
 
@@ -426,6 +425,35 @@ void NativeMapView::updateMarker(jni::JNIEnv& env, jni::jlong markerId, jni::jdo
     map->updateAnnotation(markerId, mbgl::SymbolAnnotation { mbgl::Point<double>(lon, lat), iconId });
 }
 
+void NativeMapView::updateMarkers(jni::JNIEnv& env, jni::Array<jni::jlong> jids, jni::Array<jni::jdouble> jlatitudes, jni::Array<jni::jdouble> jlongitudes, jni::Array<jni::String> jiconIds) {
+    jni::NullCheck(env, &jids);
+    jni::NullCheck(env, &jlatitudes);
+    jni::NullCheck(env, &jlongitudes);
+    jni::NullCheck(env, &jiconIds);
+    std::size_t len = jids.Length(env);
+
+    auto idElements = jni::GetArrayElements(env, *jids);
+    auto latitudeElements = jni::GetArrayElements(env, *jlatitudes);
+    auto longitudeElements = jni::GetArrayElements(env, *jlongitudes);
+    jlong* ids = std::get<0>(idElements).get();
+    jdouble* latitudes = std::get<0>(latitudeElements).get();
+    jdouble* longitudes = std::get<0>(longitudeElements).get();
+
+    UpdateBatch batch(*rendererFrontend);
+    for (std::size_t i = 0; i < len; i++) {
+        if (ids[i] == -1L) {
+            continue;
+        }
+
+        jni::String jiconId = jiconIds.Get(env, i);
+        map->updateAnnotation(ids[i], mbgl::SymbolAnnotation {
+            mbgl::Point<double>(longitudes[i], latitudes[i]),
+            jni::Make<std::string>(env, jiconId)
+        });
+        jni::DeleteLocalRef(env, jiconId);
+    }
+}
+
 jni::Array<jni::jlong> NativeMapView::addMarkers(jni::JNIEnv& env, jni::Array<jni::Object<Marker>> jmarkers) {
     jni::NullCheck(env, &jmarkers);
     std::size_t len = jmarkers.Length(env);
@@ -433,6 +461,7 @@ jni::Array<jni::jlong> NativeMapView::addMarkers(jni::JNIEnv& env, jni::Array<jn
     std::vector<jni::jlong> ids;
     ids.reserve(len);
 
+    UpdateBatch batch(*rendererFrontend);
     for (std::size_t i = 0; i < len; i++) {
         jni::Object<Marker> marker = jmarkers.Get(env, i);
         ids.push_back(map->addAnnotation(mbgl::SymbolAnnotation {
@@ -449,6 +478,34 @@ jni::Array<jni::jlong> NativeMapView::addMarkers(jni::JNIEnv& env, jni::Array<jn
     return result;
 }
 
+jni::Array<jni::jlong> NativeMapView::addMarkerPositions(jni::JNIEnv& env, jni::Array<jni::jdouble> jlatitudes, jni::Array<jni::jdouble> jlongitudes, jni::String jiconId) {
+    jni::NullCheck(env, &jlatitudes);
+    jni::NullCheck(env, &jlongitudes);
+    std::size_t len = std::min(jlatitudes.Length(env), jlongitudes.Length(env));
+
+    auto latitudeElements = jni::GetArrayElements(env, *jlatitudes);
+    auto longitudeElements = jni::GetArrayElements(env, *jlongitudes);
+    jdouble* latitudes = std::get<0>(latitudeElements).get();
+    jdouble* longitudes = std::get<0>(longitudeElements).get();
+    const std::string iconId = jni::Make<std::string>(env, jiconId);
+
+    std::vector<jni::jlong> ids;
+    ids.reserve(len);
+
+    UpdateBatch batch(*rendererFrontend);
+    for (std::size_t i = 0; i < len; i++) {
+        ids.push_back(map->addAnnotation(mbgl::SymbolAnnotation {
+            mbgl::Point<double>(longitudes[i], latitudes[i]),
+            iconId
+        }));
+    }
+
+    auto result = jni::Array<jni::jlong>::New(env, len);
+    result.SetRegion<std::vector<jni::jlong>>(env, 0, ids);
+
+    return result;
+}
+
 void NativeMapView::onLowMemory(JNIEnv&) {
     rendererFrontend->onLowMemory();
 }
@@ -495,6 +552,61 @@ jni::Object<LatLng> NativeMapView::latLngForPixel(JNIEnv& env, jfloat x, jfloat
     return LatLng::New(env, map->latLngForPixel(mbgl::ScreenCoordinate(x, y)));
 }
 
+void NativeMapView::pixelsForLatLngs(JNIEnv& env, jni::Array<jdouble> input, jni::Array<jfloat> output, jfloat pixelRatio) {
+    NullCheck(env, &input);
+    NullCheck(env, &output);
+    std::size_t len = input.Length(env);
+
+    std::vector<jni::jdouble> coordinates(len);
+    input.GetRegion<std::vector<jni::jdouble>>(env, 0, coordinates);
+
+    std::vector<jni::jfloat> pixels(len);
+    for (std::size_t i = 0; i + 1 < len; i += 2) {
+        mbgl::ScreenCoordinate pixel = map->pixelForLatLng(mbgl::LatLng(coordinates[i], coordinates[i + 1]));
+        pixels[i] = static_cast<float>(pixel.x * pixelRatio);
+        pixels[i + 1] = static_cast<float>(pixel.y * pixelRatio);
+    }
+
+    output.SetRegion<std::vector<jni::jfloat>>(env, 0, pixels);
+}
+
+void NativeMapView::latLngsForPixels(JNIEnv& env, jni::Array<jfloat> input, jni::Array<jdouble> output, jfloat pixelRatio) {
+    NullCheck(env, &input);
+    NullCheck(env, &output);
+    std::size_t len = input.Length(env);
+
+    std::vector<jni::jfloat> pixels(len);
+    input.GetRegion<std::vector<jni::jfloat>>(env, 0, pixels);
+
+    std::vector<jni::jdouble> coordinates(len);
+    for (std::size_t i = 0; i + 1 < len; i += 2) {
+        mbgl::LatLng latLng = map->latLngForPixel(
+            mbgl::ScreenCoordinate(pixels[i] / pixelRatio, pixels[i + 1] / pixelRatio)).wrapped();
+        coordinates[i] = latLng.latitude();
+        coordinates[i + 1] = latLng.longitude();
+    }
+
+    output.SetRegion<std::vector<jni::jdouble>>(env, 0, coordinates);
+}
+
+void NativeMapView::getTransformState(JNIEnv& env, jni::Array<jdouble> output) {
+    NullCheck(env, &output);
+
+    // center without content padding, as used by the transform to project
+    mbgl::LatLng center = map->getLatLng();
+    std::vector<jni::jdouble> state = {
+        center.latitude(),
+        center.longitude(),
+        map->getZoom(),
+        map->getBearing(),
+        map->getPitch(),
+        static_cast<jni::jdouble>(width),
+        static_cast<jni::jdouble>(height)
+    };
+
+    output.SetRegion<std::vector<jni::jdouble>>(env, 0, state);
+}
+
 jni::Array<jlong> NativeMapView::addPolylines(JNIEnv& env, jni::Array<jni::Object<Polyline>> polylines) {
     NullCheck(env, &polylines);
     std::size_t len = polylines.Length(env);
@@ -502,6 +614,7 @@ jni::Array<jlong> NativeMapView::addPolylines(JNIEnv& env, jni::Array<jni::Objec
     std::vector<jni::jlong> ids;
     ids.reserve(len);
 
+    UpdateBatch batch(*rendererFrontend);
     for (std::size_t i = 0; i < len; i++) {
         auto polyline = polylines.Get(env, i);
 
@@ -525,6 +638,7 @@ jni::Array<jlong> NativeMapView::addPolygons(JNIEnv& env, jni::Array<jni::Object
     std::vector<jni::jlong> ids;
     ids.reserve(len);
 
+    UpdateBatch batch(*rendererFrontend);
     for (std::size_t i = 0; i < len; i++) {
         auto polygon = polygons.Get(env, i);
 
@@ -552,12 +666,49 @@ void NativeMapView::updatePolygon(JNIEnv& env, jlong polygonId, jni::Object<Poly
     map->updateAnnotation(polygonId, annotation);
 }
 
+void NativeMapView::updatePolylines(JNIEnv& env, jni::Array<jlong> jids, jni::Array<jni::Object<Polyline>> polylines) {
+    NullCheck(env, &jids);
+    NullCheck(env, &polylines);
+    std::size_t len = jids.Length(env);
+    auto elements = jni::GetArrayElements(env, *jids);
+    jlong* ids = std::get<0>(elements).get();
+
+    UpdateBatch batch(*rendererFrontend);
+    for (std::size_t i = 0; i < len; i++) {
+        auto polyline = polylines.Get(env, i);
+
+        mbgl::LineAnnotation annotation = Polyline::toAnnotation(env, polyline);
+        map->updateAnnotation(ids[i], annotation);
+
+        jni::DeleteLocalRef(env, polyline);
+    }
+}
+
+void NativeMapView::updatePolygons(JNIEnv& env, jni::Array<jlong> jids, jni::Array<jni::Object<Polygon>> polygons) {
+    NullCheck(env, &jids);
+    NullCheck(env, &polygons);
+    std::size_t len = jids.Length(env);
+    auto elements = jni::GetArrayElements(env, *jids);
+    jlong* ids = std::get<0>(elements).get();
+
+    UpdateBatch batch(*rendererFrontend);
+    for (std::size_t i = 0; i < len; i++) {
+        auto polygon = polygons.Get(env, i);
+
+        mbgl::FillAnnotation annotation = Polygon::toAnnotation(env, polygon);
+        map->updateAnnotation(ids[i], annotation);
+
+        jni::DeleteLocalRef(env, polygon);
+    }
+}
+
 void NativeMapView::removeAnnotations(JNIEnv& env, jni::Array<jlong> ids) {
     NullCheck(env, &ids);
     std::size_t len = ids.Length(env);
     auto elements = jni::GetArrayElements(env, *ids);
     jlong* jids = std::get<0>(elements).get();
 
+    UpdateBatch batch(*rendererFrontend);
     for (std::size_t i = 0; i < len; i++) {
         if(jids[i] == -1L) {
           continue;
@@ -582,6 +733,12 @@ void NativeMapView::addAnnotationIcon(JNIEnv& env, jni::String symbol, jint w, j
         symbolName, std::move(premultipliedImage), float(scale)));
 }
 
+void NativeMapView::addAnnotationIconBitmap(JNIEnv& env, jni::String symbol, jni::Object<Bitmap> bitmap, jfloat scale) {
+    NullCheck(env, &bitmap);
+    map->addAnnotationImage(std::make_unique<mbgl::style::Image>(
+        jni::Make<std::string>(env, symbol), Bitmap::GetImage(env, bitmap), float(scale)));
+}
+
 void NativeMapView::removeAnnotationIcon(JNIEnv& env, jni::String symbol) {
     const std::string symbolName = jni::Make<std::string>(env, symbol);
     map->removeAnnotationImage(symbolName);
@@ -908,33 +1065,55 @@ void NativeMapView::removeSource(JNIEnv&, jlong sourcePtr) {
     }
 }
 
-void NativeMapView::addImage(JNIEnv& env, jni::String name, jni::jint w, jni::jint h, jni::jfloat scale, jni::Array<jbyte> pixels) {
-    jni::NullCheck(env, &pixels);
-    std::size_t size = pixels.Length(env);
-
-    mbgl::PremultipliedImage premultipliedImage({ static_cast<uint32_t>(w), static_cast<uint32_t>(h) });
-    if (premultipliedImage.bytes() != uint32_t(size)) {
-        throw mbgl::util::SpriteImageException("Sprite image pixel count mismatch");
-    }
-
-    jni::GetArrayRegion(env, *pixels, 0, size, reinterpret_cast<jbyte*>(premultipliedImage.data.get()));
+void NativeMapView::addImage(JNIEnv& env, jni::String name, jni::Object<Bitmap> bitmap, jni::jfloat scale) {
+    jni::NullCheck(env, &bitmap);
 
     map->getStyle().addImage(std::make_unique<mbgl::style::Image>(
         jni::Make<std::string>(env, name),
-        std::move(premultipliedImage),
+        Bitmap::GetImage(env, bitmap),
         float(scale)));
 }
 
-void NativeMapView::addImages(JNIEnv& env, jni::Array<jni::Object<mbgl::android::Image>> jimages) {
-    jni::NullCheck(env, &jimages);
-    std::size_t len = jimages.Length(env);
+void NativeMapView::addImages(JNIEnv& env, jni::Array<jni::String> names,
+                              jni::jlong imagesPtr, jni::Array<jni::jfloat> scales) {
+    jni::NullCheck(env, &names);
+    jni::NullCheck(env, &scales);
+    // Takes ownership of the images converted by convertImages
+    std::unique_ptr<std::vector<PremultipliedImage>> images(
+        reinterpret_cast<std::vector<PremultipliedImage>*>(imagesPtr));
+    std::size_t len = images->size();
+    std::vector<jni::jfloat> scaleValues(len);
+    jni::GetArrayRegion(env, *scales, 0, len, scaleValues.data());
+    UpdateBatch batch(*rendererFrontend);
+
+    for (std::size_t i = 0; i < len; i++) {
+        jni::String name = names.Get(env, i);
+        map->getStyle().addImage(std::make_unique<mbgl::style::Image>(
+            jni::Make<std::string>(env, name),
+            std::move((*images)[i]),
+            float(scaleValues[i])));
+        jni::DeleteLocalRef(env, name);
+    }
+}
+
+jni::jlong NativeMapView::convertImages(JNIEnv& env, jni::Class<NativeMapView>,
+                                        jni::Array<jni::Object<Bitmap>> bitmaps) {
+    // Doesn't touch the map, called on the threads of the executor passed to addImages
+    jni::NullCheck(env, &bitmaps);
+    std::size_t len = bitmaps.Length(env);
+    auto images = std::make_unique<std::vector<PremultipliedImage>>();
+    images->reserve(len);
 
     for (std::size_t i = 0; i < len; i++) {
-        jni::Object<mbgl::android::Image> jimage = jimages.Get(env, i);
-        auto image = mbgl::android::Image::getImage(env, jimage);
-        map->getStyle().addImage(std::make_unique<mbgl::style::Image>(image));
-        jni::DeleteLocalRef(env, jimage);
+        jni::Object<Bitmap> bitmap = bitmaps.Get(env, i);
+        images->push_back(Bitmap::GetImage(env, bitmap));
+        jni::DeleteLocalRef(env, bitmap);
     }
+    return reinterpret_cast<jni::jlong>(images.release());
+}
+
+void NativeMapView::releaseConvertedImages(JNIEnv&, jni::Class<NativeMapView>, jni::jlong imagesPtr) {
+    delete reinterpret_cast<std::vector<PremultipliedImage>*>(imagesPtr);
 }
 
 void NativeMapView::removeImage(JNIEnv& env, jni::String name) {
@@ -1009,7 +1188,9 @@ void NativeMapView::registerNative(jni::JNIEnv& env) {
             METHOD(&NativeMapView::scheduleSnapshot, "nativeTakeSnapshot"),
             METHOD(&NativeMapView::getCameraPosition, "nativeGetCameraPosition"),
             METHOD(&NativeMapView::updateMarker, "nativeUpdateMarker"),
+            METHOD(&NativeMapView::updateMarkers, "nativeUpdateMarkers"),
             METHOD(&NativeMapView::addMarkers, "nativeAddMarkers"),
+            METHOD(&NativeMapView::addMarkerPositions, "nativeAddMarkerPositions"),
             METHOD(&NativeMapView::setDebug, "nativeSetDebug"),
             METHOD(&NativeMapView::cycleDebugOptions, "nativeCycleDebugOptions"),
             METHOD(&NativeMapView::getDebug, "nativeGetDebug"),
@@ -1020,12 +1201,18 @@ void NativeMapView::registerNative(jni::JNIEnv& env) {
             METHOD(&NativeMapView::pixelForLatLng, "nativePixelForLatLng"),
             METHOD(&NativeMapView::latLngForProjectedMeters, "nativeLatLngForProjectedMeters"),
             METHOD(&NativeMapView::latLngForPixel, "nativeLatLngForPixel"),
+            METHOD(&NativeMapView::pixelsForLatLngs, "nativePixelsForLatLngs"),
+            METHOD(&NativeMapView::latLngsForPixels, "nativeLatLngsForPixels"),
+            METHOD(&NativeMapView::getTransformState, "nativeGetTransformState"),
             METHOD(&NativeMapView::addPolylines, "nativeAddPolylines"),
             METHOD(&NativeMapView::addPolygons, "nativeAddPolygons"),
             METHOD(&NativeMapView::updatePolyline, "nativeUpdatePolyline"),
             METHOD(&NativeMapView::updatePolygon, "nativeUpdatePolygon"),
+            METHOD(&NativeMapView::updatePolylines, "nativeUpdatePolylines"),
+            METHOD(&NativeMapView::updatePolygons, "nativeUpdatePolygons"),
             METHOD(&NativeMapView::removeAnnotations, "nativeRemoveAnnotations"),
             METHOD(&NativeMapView::addAnnotationIcon, "nativeAddAnnotationIcon"),
+            METHOD(&NativeMapView::addAnnotationIconBitmap, "nativeAddAnnotationIconBitmap"),
             METHOD(&NativeMapView::removeAnnotationIcon, "nativeRemoveAnnotationIcon"),
             METHOD(&NativeMapView::getTopOffsetPixelsForAnnotationSymbol, "nativeGetTopOffsetPixelsForAnnotationSymbol"),
             METHOD(&NativeMapView::getTransitionDuration, "nativeGetTransitionDuration"),
@@ -1058,6 +1245,14 @@ void NativeMapView::registerNative(jni::JNIEnv& env) {
             METHOD(&NativeMapView::setPrefetchesTiles, "nativeSetPrefetchesTiles"),
             METHOD(&NativeMapView::getPrefetchesTiles, "nativeGetPrefetchesTiles")
     );
+
+    // Image conversion runs on other threads than the map, without a peer
+    jni::RegisterNatives(env, NativeMapView::javaClass,
+            jni::MakeNativeMethod<decltype(&NativeMapView::convertImages),
+                &NativeMapView::convertImages>("nativeConvertImages"),
+            jni::MakeNativeMethod<decltype(&NativeMapView::releaseConvertedImages),
+                &NativeMapView::releaseConvertedImages>("nativeReleaseConvertedImages")
+    );
 }
 
 } // namespace android
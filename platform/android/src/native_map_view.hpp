@@ -22,7 +22,6 @@
 #include "style/sources/sources.hpp"
 #include "geometry/lat_lng_bounds.hpp"
 #include "map/camera_position.hpp"
-#include "map/image.hpp"
 #include "style/light.hpp"
 #include "bitmap.hpp"
 
@@ -150,8 +149,12 @@ public:
 
     void updateMarker(jni::JNIEnv&, jni::jlong, jni::jdouble, jni::jdouble, jni::String);
 
+    void updateMarkers(jni::JNIEnv&, jni::Array<jni::jlong>, jni::Array<jni::jdouble>, jni::Array<jni::jdouble>, jni::Array<jni::String>);
+
     jni::Array<jni::jlong> addMarkers(jni::JNIEnv&, jni::Array<jni::Object<Marker>>);
 
+    jni::Array<jni::jlong> addMarkerPositions(jni::JNIEnv&, jni::Array<jni::jdouble>, jni::Array<jni::jdouble>, jni::String);
+
     void onLowMemory(JNIEnv& env);
 
     void setDebug(JNIEnv&, jni::jboolean);
@@ -172,6 +175,12 @@ public:
 
     jni::Object<LatLng> latLngForPixel(JNIEnv&, jfloat, jfloat);
 
+    void pixelsForLatLngs(JNIEnv&, jni::Array<jdouble>, jni::Array<jfloat>, jfloat);
+
+    void latLngsForPixels(JNIEnv&, jni::Array<jfloat>, jni::Array<jdouble>, jfloat);
+
+    void getTransformState(JNIEnv&, jni::Array<jdouble>);
+
     jni::Array<jlong> addPolylines(JNIEnv&, jni::Array<jni::Object<Polyline>>);
 
     jni::Array<jlong> addPolygons(JNIEnv&, jni::Array<jni::Object<Polygon>>);
@@ -180,10 +189,16 @@ public:
 
     void updatePolygon(JNIEnv&, jlong, jni::Object<Polygon>);
 
+    void updatePolylines(JNIEnv&, jni::Array<jlong>, jni::Array<jni::Object<Polyline>>);
+
+    void updatePolygons(JNIEnv&, jni::Array<jlong>, jni::Array<jni::Object<Polygon>>);
+
     void removeAnnotations(JNIEnv&, jni::Array<jlong>);
 
     void addAnnotationIcon(JNIEnv&, jni::String, jint, jint, jfloat, jni::Array<jbyte>);
 
+    void addAnnotationIconBitmap(JNIEnv&, jni::String, jni::Object<Bitmap>, jfloat);
+
     void removeAnnotationIcon(JNIEnv&, jni::String);
 
     jni::jdouble getTopOffsetPixelsForAnnotationSymbol(JNIEnv&, jni::String);
@@ -236,9 +251,13 @@ public:
 
     void removeSource(JNIEnv&, jlong);
 
-    void addImage(JNIEnv&, jni::String, jni::jint, jni::jint, jni::jfloat, jni::Array<jbyte>);
+    void addImage(JNIEnv&, jni::String, jni::Object<Bitmap>, jni::jfloat);
+
+    void addImages(JNIEnv&, jni::Array<jni::String>, jni::jlong, jni::Array<jni::jfloat>);
+
+    static jni::jlong convertImages(JNIEnv&, jni::Class<NativeMapView>, jni::Array<jni::Object<Bitmap>>);
 
-    void addImages(JNIEnv&, jni::Array<jni::Object<mbgl::android::Image>>);
+    static void releaseConvertedImages(JNIEnv&, jni::Class<NativeMapView>, jni::jlong);
 
     void removeImage(JNIEnv&, jni::String);
 